@@ -0,0 +1,131 @@
+package bench;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import util.CSVFileReader;
+
+/**
+ * Benchmark of {@link CSVFileReader} against the regex-based reader it replaced.
+ *
+ * <p>A file of generated ApplicationList rows is written to a temporary file, then read
+ * by both readers for a number of rounds in the same JVM, printing rows per second.
+ * The replaced reader is kept here as {@link #readFileWithSplit(String)}, including the
+ * per-field desanitizing that {@code DataParser} used to do.</p>
+ *
+ * <p>Usage: {@code java -cp <classes> bench.CSVReaderBenchmark [rows] [rounds]},
+ * 1,000,000 rows and 5 rounds by default.</p>
+ */
+public class CSVReaderBenchmark {
+    private static final String[] NRICS = {"S1234567A", "T7654321B", "S9876543C", "T2345678D", "S3456789E"};
+    private static final String[] PROJECTS = {"Acacia Breeze", "Bukit Batok Vista", "Clementi\\, Block 4"};
+    private static final String[] FLAT_TYPES = {"2-Room Flat", "3-Room Flat"};
+    private static final String[] STATUSES = {"Pending", "Successful", "Unsuccessful", "Booked"};
+
+    /**
+     * Generates the file and runs the benchmark.
+     *
+     * @param args optional row count and round count
+     * @throws IOException if the temporary file cannot be written or read
+     */
+    public static void main(String[] args) throws IOException{
+        final int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        final int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        final Path file = Files.createTempFile("ApplicationList", ".csv");
+        try {
+            writeApplications(file, rows);
+            System.out.printf("%,d rows, %,d bytes%n", rows, Files.size(file));
+
+            checkSameRows(file);
+
+            for(int round = 1; round <= rounds; round++){
+                long start = System.nanoTime();
+                final int splitRows = readFileWithSplit(file.toString()).size();
+                final double splitRate = splitRows / ((System.nanoTime() - start) / 1e9);
+
+                start = System.nanoTime();
+                final int tokenizedRows = CSVFileReader.readFile(file.toString()).size();
+                final double tokenizedRate = tokenizedRows / ((System.nanoTime() - start) / 1e9);
+
+                System.out.printf("round %d: split + desanitize %,10.0f rows/s, tokenizer %,10.0f rows/s%n",
+                    round, splitRate, tokenizedRate);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Writes generated rows in the ApplicationList format.
+     * Some project names contain an escaped comma, so both readers decode escapes.
+     *
+     * @param file the file to write
+     * @param rows the number of rows
+     * @throws IOException if the file cannot be written
+     */
+    private static void writeApplications(Path file, int rows) throws IOException{
+        final Random random = new Random(42);
+        final LocalDateTime createdAt = LocalDateTime.of(2025, 4, 1, 9, 0);
+
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for(int i = 0; i < rows; i++){
+                writer.write(String.join(",",
+                    new UUID(random.nextLong(), random.nextLong()).toString(),
+                    NRICS[random.nextInt(NRICS.length)],
+                    PROJECTS[random.nextInt(PROJECTS.length)],
+                    FLAT_TYPES[random.nextInt(FLAT_TYPES.length)],
+                    STATUSES[random.nextInt(STATUSES.length)],
+                    "Not Applicable",
+                    createdAt.plusSeconds(i).toString()
+                ));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Checks that both readers return the same values, so the timings compare equal work.
+     *
+     * @param file the generated file
+     * @throws IOException if the file cannot be read
+     */
+    private static void checkSameRows(Path file) throws IOException{
+        if(!readFileWithSplit(file.toString()).equals(CSVFileReader.readFile(file.toString()))){
+            throw new IllegalStateException("Readers disagree on %s".formatted(file));
+        }
+    }
+
+    /**
+     * The reader replaced by the single-pass tokenizer: a look-behind regex split per line,
+     * followed by a replace pass per value to decode escaped commas.
+     *
+     * @param filePath the path to the CSV file
+     * @return a list of rows, where each row is a list of string values
+     * @throws IOException if an I/O error occurs reading from the file
+     */
+    private static List<List<String>> readFileWithSplit(String filePath) throws IOException{
+        List<List<String>> lines = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] values = line.split("(?<!\\\\),");
+                for(int i = 0; i < values.length; i++){
+                    values[i] = values[i].replace("\\,", ",");
+                }
+                lines.add(Arrays.asList(values));
+            }
+        }
+        return lines;
+    }
+}
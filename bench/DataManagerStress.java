@@ -0,0 +1,159 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import exception.DataSavingException;
+import manager.CSVDataManager;
+import model.Application;
+import model.BTOProject;
+import model.Enquiry;
+import model.User;
+import query.Query;
+
+/**
+ * Stress test of {@link CSVDataManager} under concurrent saves and queries.
+ *
+ * <p>One in four threads saves and deletes enquiries, the others read them back through
+ * foreign key lookups, ordered queries, counts, pages and primary key lookups, checking
+ * every result against the query that produced it. Afterwards the enquiry count is checked
+ * against the saves and deletes made, and against a fresh manager loaded from the files.
+ * The enquiries created are deleted again at the end.</p>
+ *
+ * <p>The test saves to {@code ./data}, so run it from a copy of the working directory.
+ * Usage: {@code java -cp <classes> bench.DataManagerStress [threads] [seconds]},
+ * 48 threads for 5 seconds by default.</p>
+ */
+public class DataManagerStress {
+    /**
+     * Runs the stress test and exits with status 1 if any check fails.
+     *
+     * @param args optional thread count and duration in seconds
+     * @throws Exception if a thread cannot be joined or the final cleanup fails
+     */
+    public static void main(String[] args) throws Exception{
+        final int threads = args.length > 0 ? Integer.parseInt(args[0]) : 48;
+        final int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        final CSVDataManager dataManager = new CSVDataManager();
+        final List<BTOProject> projects = dataManager.getAll(BTOProject.class);
+        final List<User> users = dataManager.getAll(User.class);
+        final int before = dataManager.getAll(Enquiry.class).size();
+
+        final AtomicInteger saves = new AtomicInteger();
+        final AtomicInteger deletes = new AtomicInteger();
+        final AtomicInteger reads = new AtomicInteger();
+        final ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        final ConcurrentLinkedQueue<Enquiry> created = new ConcurrentLinkedQueue<>();
+
+        final ExecutorService pool = Executors.newFixedThreadPool(threads);
+        final long end = System.currentTimeMillis() + seconds * 1000L;
+        final List<Future<?>> futures = new ArrayList<>();
+        final long start = System.nanoTime();
+        for(int t = 0; t < threads; t++){
+            final int id = t;
+            futures.add(pool.submit(() -> {
+                final Random random = new Random(id);
+                final List<Enquiry> owned = new ArrayList<>();
+                while(System.currentTimeMillis() < end){
+                    try {
+                        if(id % 4 == 0){
+                            write(dataManager, random, projects, users, owned, saves, deletes);
+                        }
+                        else{
+                            read(dataManager, random, projects);
+                            reads.incrementAndGet();
+                        }
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                }
+                created.addAll(owned);
+            }));
+        }
+        for(Future<?> future:futures){
+            future.get();
+        }
+        pool.shutdown();
+        final double elapsed = (System.nanoTime() - start) / 1e9;
+
+        dataManager.flush();
+        final int after = dataManager.getAll(Enquiry.class).size();
+        final boolean isCountKept = after == before + saves.get() - deletes.get();
+        final boolean isReloadSame = new CSVDataManager().getAll(Enquiry.class).size() == after;
+
+        System.out.printf("%d threads, %d s: %,d saves, %,d deletes, %,d reads (%,.0f ops/s), %d errors%n",
+            threads, seconds, saves.get(), deletes.get(), reads.get(),
+            (saves.get() + deletes.get() + reads.get()) / elapsed, errors.size());
+        System.out.println("count kept: " + isCountKept + ", reload same: " + isReloadSame);
+        errors.stream().limit(3).forEach(Throwable::printStackTrace);
+
+        dataManager.deleteAll(Enquiry.class, created);
+        dataManager.flush();
+
+        System.exit(errors.isEmpty() && isCountKept && isReloadSame ? 0 : 1);
+    }
+
+    /**
+     * Saves a new enquiry, or deletes one saved earlier by the same thread.
+     */
+    private static void write(CSVDataManager dataManager, Random random, List<BTOProject> projects, List<User> users,
+                              List<Enquiry> owned, AtomicInteger saves, AtomicInteger deletes) throws DataSavingException{
+        if(owned.size() < 20 || random.nextBoolean()){
+            final Enquiry enquiry = new Enquiry(
+                projects.get(random.nextInt(projects.size())), users.get(random.nextInt(users.size())),
+                "Stress", "Enquiry %d".formatted(random.nextInt())
+            );
+            dataManager.save(enquiry);
+            owned.add(enquiry);
+            saves.incrementAndGet();
+        }
+        else{
+            dataManager.delete(owned.remove(random.nextInt(owned.size())));
+            deletes.incrementAndGet();
+        }
+    }
+
+    /**
+     * Reads the enquiries of a random project in several ways and checks each result.
+     */
+    private static void read(CSVDataManager dataManager, Random random, List<BTOProject> projects){
+        final BTOProject project = projects.get(random.nextInt(projects.size()));
+        final Comparator<Enquiry> order = Enquiry.SORT_BY_CREATED_AT_DESC;
+
+        for(Enquiry enquiry:dataManager.getByForeignKey(Enquiry.class, "btoProject", project)){
+            check(enquiry.getBTOProject() == project, "foreign key lookup returned another project");
+        }
+
+        final List<Enquiry> enquiries = dataManager.getByQuery(new Query<>(Enquiry.class).where("btoProject", project).orderBy(order));
+        for(int i = 1; i < enquiries.size(); i++){
+            check(order.compare(enquiries.get(i - 1), enquiries.get(i)) <= 0, "query result out of order");
+        }
+        for(Enquiry enquiry:enquiries){
+            check(enquiry.getBTOProject() == project, "query returned another project");
+            final Enquiry found = dataManager.getByPK(Enquiry.class, enquiry.getPK());
+            check(found == null || found.getPK().equals(enquiry.getPK()), "primary key lookup returned another enquiry");
+        }
+
+        check(dataManager.countByQuery(new Query<>(Enquiry.class).where("btoProject", project)) >= 0, "negative count");
+        check(dataManager.getPage(new Query<>(Enquiry.class).orderBy(order), random.nextInt(5), 10).getRecords().size() <= 10,
+            "page larger than its size");
+        check(dataManager.stream(new Query<>(Application.class).limit(5)).count() <= 5, "stream over its limit");
+    }
+
+    /**
+     * Fails the current operation with the given message if the condition does not hold.
+     */
+    private static void check(boolean condition, String message){
+        if(!condition){
+            throw new IllegalStateException(message);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package bench;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import manager.CSVDataManager;
+import model.FlatUnit;
+
+/**
+ * Contention benchmark of booking flats from one {@link FlatUnit} at 1 to 64 threads.
+ *
+ * <p>At each thread count, the threads first book units through {@link FlatUnit#adjustFlatNum(int)}
+ * until the unit is sold out, then book a smaller stock through transactions of the data manager,
+ * the way {@code DefaultApplicationService.bookApplication} does. Both print bookings per second,
+ * and check that exactly the stock was booked and the count ended at zero.</p>
+ *
+ * <p>The transactions save to {@code ./data}, so run it from a copy of the working directory.
+ * The original number of units is saved back at the end.
+ * Usage: {@code java -cp <classes> bench.FlatBookingBenchmark [counterStock] [transactionStock]},
+ * 2,000,000 and 2,000 units by default.</p>
+ */
+public class FlatBookingBenchmark {
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64};
+
+    /**
+     * Runs the benchmark and exits with status 1 if any thread count overbooked or underbooked.
+     *
+     * @param args optional stock booked through the counter and through transactions
+     * @throws Exception if a thread cannot be joined or the unit cannot be saved
+     */
+    public static void main(String[] args) throws Exception{
+        final int counterStock = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        final int transactionStock = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+
+        final CSVDataManager dataManager = new CSVDataManager();
+        final FlatUnit flatUnit = dataManager.getAll(FlatUnit.class).get(0);
+        final int originalFlatNum = flatUnit.getFlatNum();
+        boolean isExact = true;
+
+        System.out.println("threads  counter bookings/s  transaction bookings/s  exact");
+        for(int threads:THREAD_COUNTS){
+            flatUnit.setFlatNum(counterStock);
+            final AtomicInteger counterBooked = new AtomicInteger();
+            final double counterRate = run(threads, counterBooked, () -> flatUnit.adjustFlatNum(-1));
+            final boolean isCounterExact = counterBooked.get() == counterStock && flatUnit.getFlatNum() == 0;
+
+            flatUnit.setFlatNum(transactionStock);
+            dataManager.save(flatUnit);
+            final AtomicInteger transactionBooked = new AtomicInteger();
+            final double transactionRate = run(threads, transactionBooked, () -> dataManager.transaction(() -> {
+                dataManager.track(flatUnit);
+                flatUnit.adjustFlatNum(-1);
+                dataManager.save(flatUnit);
+            }));
+            final boolean isTransactionExact = transactionBooked.get() == transactionStock && flatUnit.getFlatNum() == 0;
+
+            System.out.printf("%7d  %,18.0f  %,22.0f  %s%n",
+                threads, counterRate, transactionRate, isCounterExact && isTransactionExact);
+            isExact &= isCounterExact && isTransactionExact;
+        }
+
+        flatUnit.setFlatNum(originalFlatNum);
+        dataManager.save(flatUnit);
+        dataManager.flush();
+
+        System.exit(isExact ? 0 : 1);
+    }
+
+    /**
+     * Books from the given number of threads until every thread fails to book, which happens once
+     * the unit is sold out.
+     *
+     * @param threads the number of threads booking
+     * @param booked  incremented for every successful booking
+     * @param booking a single booking
+     * @return the successful bookings per second
+     * @throws InterruptedException if interrupted while joining the threads
+     */
+    private static double run(int threads, AtomicInteger booked, Booking booking) throws InterruptedException{
+        final Thread[] workers = new Thread[threads];
+        final long start = System.nanoTime();
+        for(int i = 0; i < threads; i++){
+            workers[i] = new Thread(() -> {
+                int count = 0;
+                while(true){
+                    try {
+                        booking.book();
+                        count++;
+                    } catch (Exception e) {
+                        break;
+                    }
+                }
+                booked.addAndGet(count);
+            });
+            workers[i].start();
+        }
+        for(Thread worker:workers){
+            worker.join();
+        }
+        return booked.get() / ((System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * A single booking, failing once there is no unit left.
+     */
+    @FunctionalInterface
+    private interface Booking {
+        void book() throws Exception;
+    }
+}
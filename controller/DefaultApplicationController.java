@@ -2,7 +2,8 @@ package controller;
 
 import java.util.List;
 import java.util.Map;
-import java.util.function.Supplier;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 
 import command.Command;
@@ -21,6 +22,7 @@ import manager.interfaces.SessionManager;
 import model.Application;
 import model.BTOProject;
 import model.User;
+import query.Page;
 import service.ServiceResponse;
 import service.interfaces.ApplicationService;
 import view.interfaces.ApplicationView;
@@ -40,6 +42,8 @@ import view.interfaces.MessageView;
  * @see ApplicationView
  */
 public class DefaultApplicationController extends AbstractDefaultController implements ApplicationController{
+    private static final int PAGE_SIZE = 10;
+
     private final ApplicationService applicationService;
     private final ApplicationView applicationView;
     private final SessionManager sessionManager;
@@ -88,39 +92,47 @@ public class DefaultApplicationController extends AbstractDefaultController impl
     @Override
     public void showAllApplications() {
         final User user = sessionManager.getUser();
+        final AtomicInteger pageNumber = new AtomicInteger();
         menuManager.addCommands("List of All Applications", () -> 
-            generateShowApplicationsCommand(() -> applicationService.getAllApplications(user))
+            generateShowApplicationsCommand(pageNumber, page -> applicationService.getAllApplications(user, page, PAGE_SIZE))
         );
     }
 
     @Override
     public void showApplicationsByUser() {
         final User user = sessionManager.getUser();
+        final AtomicInteger pageNumber = new AtomicInteger();
         menuManager.addCommands("Your Applications", () -> 
-            generateShowApplicationsCommand(() -> applicationService.getApplicationsByUser(user))
+            generateShowApplicationsCommand(pageNumber, page -> applicationService.getApplicationsByUser(user, page, PAGE_SIZE))
         );
     }
 
     @Override
     public void showApplicationsByBTOProject(BTOProject btoProject) {
         User user = sessionManager.getUser();
+        final AtomicInteger pageNumber = new AtomicInteger();
         menuManager.addCommands("Applications of the Project ", () -> 
-            generateShowApplicationsCommand(() -> applicationService.getApplicationsByBTOProject(user, btoProject))
+            generateShowApplicationsCommand(pageNumber, page -> applicationService.getApplicationsByBTOProject(user, btoProject, page, PAGE_SIZE))
         );
     }
 
     /**
-     * Generates a mapping of {@link Command} to show lists of {@link Application}, 
-     * retrieved through the given supplier of {@link ServiceResponse}.
+     * Generates a mapping of {@link Command} to show a page of {@link Application}, 
+     * retrieved through the given function of {@link ServiceResponse}.
      * <p>
      * This method is intended to be passed as a {@code Supplier} to the {@link MenuManager}, allowing it to
-     * dynamically refresh the list of applications each time the menu is displayed. This supports auto-refresh
+     * dynamically refresh the page of applications each time the menu is displayed. This supports auto-refresh
      * behavior without needing to manually update the menu contents elsewhere.
      * <p>
+     * Only the applications of the current page are retrieved. The page number is shared with the
+     * "Next Page" and "Previous Page" commands, and is moved back to the first page if the current page
+     * no longer has any application, for example after applications are withdrawn.
+     * <p>
      * If the service call does not return a successful response or yields no applications, a message will be shown
      * and {@code null} will be returned.
      *
-     * @param serviceResponseSupplier a supplier that provides the latest {@code ServiceResponse} containing a list of applications
+     * @param pageNumber the number of the page to show, updated by the page commands
+     * @param serviceResponseFunction a function that provides the latest {@code ServiceResponse} containing a page of applications, given its page number
      * @return a map of application indexes to their corresponding show-detail {@code Command}, or {@code null} if no data is available
      * 
      * @see MenuManager
@@ -128,20 +140,25 @@ public class DefaultApplicationController extends AbstractDefaultController impl
      * @see Application
      * @see ServiceResponse
      */
-    private Map<Integer, Command> generateShowApplicationsCommand(Supplier<ServiceResponse<List<Application>>> serviceResponseSupplier) {
-        final ServiceResponse<List<Application>> serviceResponse = serviceResponseSupplier.get();
+    private Map<Integer, Command> generateShowApplicationsCommand(AtomicInteger pageNumber, IntFunction<ServiceResponse<Page<Application>>> serviceResponseFunction) {
+        ServiceResponse<Page<Application>> serviceResponse = serviceResponseFunction.apply(pageNumber.get());
+        if(serviceResponse.getResponseStatus() == ResponseStatus.SUCCESS && serviceResponse.getData().isEmpty() && pageNumber.get() > 0){
+            pageNumber.set(0);
+            serviceResponse = serviceResponseFunction.apply(0);
+        }
+
         if(serviceResponse.getResponseStatus() != ResponseStatus.SUCCESS){
             defaultShowServiceResponse(serviceResponse);
             return null;
         }
 
-        final List<Application> applications = serviceResponse.getData();
+        final Page<Application> applications = serviceResponse.getData();
         if(applications.isEmpty()){
             messageView.info("No Applications found.");
             return null;
         }
 
-        return ApplicationCommandFactory.getShowApplicationsCommands(applications);
+        return ApplicationCommandFactory.getShowApplicationsCommands(applications, pageNumber::incrementAndGet, pageNumber::decrementAndGet);
     }
 
     @Override
@@ -255,10 +272,12 @@ public class DefaultApplicationController extends AbstractDefaultController impl
     @Override
     public void generateReport(BTOProject btoProject) {
         final User user = sessionManager.getUser();
-        final ServiceResponse<List<Application>> serviceResponse = applicationService.getApplicationsByBTOProject(user, btoProject);
+        // Read as of the last commit, so the report is not torn by approvals and bookings made meanwhile
+        final ServiceResponse<List<Application>> serviceResponse = applicationService.getApplicationSnapshotsByBTOProject(user, btoProject);
 
         if(serviceResponse.getResponseStatus() != ResponseStatus.SUCCESS){
             defaultShowServiceResponse(serviceResponse);
+            return;
         }
 
         List<Application> applications = serviceResponse.getData();
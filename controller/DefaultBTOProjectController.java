@@ -198,12 +198,14 @@ public class DefaultBTOProjectController extends AbstractDefaultController imple
     @Override
     public void editBTOProject(BTOProject btoProject){
         final User user = sessionManager.getUser();
+        // Read before the form is filled in, so that a save by another user meanwhile is detected
+        final int version = btoProject.getVersion();
 
         formController.setForm(new BTOProjectForm(btoProject));
         final Map<FormField, FieldData<?>> data = formController.getFormData();
         final BTOProjectDTO btoProjectDTO = BTOProjectDTO.fromFormData(data);
 
-        final ServiceResponse<?> editBTOProjectResponse = btoProjectService.editBTOProject(user, btoProjectDTO, btoProject);
+        final ServiceResponse<?> editBTOProjectResponse = btoProjectService.editBTOProject(user, btoProjectDTO, btoProject, version);
         defaultShowServiceResponse(editBTOProjectResponse);
     }
 
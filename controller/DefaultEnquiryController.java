@@ -180,13 +180,15 @@ public class DefaultEnquiryController extends AbstractDefaultController implemen
     @Override
     public void editEnquiry(Enquiry enquiry) {
         final User user = sessionManager.getUser();
+        // Read before the form is filled in, so that a save by another user meanwhile is detected
+        final int version = enquiry.getVersion();
 
         formController.setForm(new EnquiryForm(enquiry));
         final Map<FormField, FieldData<?>> data = formController.getFormData();
         final String subject = (String) data.get(FormField.SUBJECT).getData();
         final String enquiryString = (String) data.get(FormField.ENQUIRY).getData();
 
-        final ServiceResponse<?> serviceResponse = enquiryService.editEnquiry(user, enquiry, subject, enquiryString);
+        final ServiceResponse<?> serviceResponse = enquiryService.editEnquiry(user, enquiry, subject, enquiryString, version);
         defaultShowServiceResponse(serviceResponse);
     }
 
@@ -208,12 +210,13 @@ public class DefaultEnquiryController extends AbstractDefaultController implemen
     @Override
     public void replyEnquiry(Enquiry enquiry){
         final User user = sessionManager.getUser();
+        final int version = enquiry.getVersion();
 
         formController.setForm(new ReplyForm());
         final Map<FormField, FieldData<?>> data = formController.getFormData();
         final String replyString = (String) data.get(FormField.REPLY).getData();
 
-        final ServiceResponse<?> serviceResponse = enquiryService.replyEnquiry(user, enquiry, replyString);
+        final ServiceResponse<?> serviceResponse = enquiryService.replyEnquiry(user, enquiry, replyString, version);
         defaultShowServiceResponse(serviceResponse);
     }
 }
@@ -0,0 +1,20 @@
+package exception;
+
+import manager.interfaces.DataManager;
+import model.DataModel;
+
+/**
+ * Thrown to indicate that a {@link DataModel} was not saved by {@link DataManager} because its record
+ * was changed since the version the caller read, such as by another user editing the same record.
+ * <p>
+ * Nothing is written. The caller is responsible for reverting the changes made to the model,
+ * and may retry the edit against the latest version of the record.
+ * 
+ * @see DataModel#getVersion()
+ * @see DataManager#save(DataModel, int)
+ */
+public class DataConflictException extends DataSavingException{
+    public DataConflictException(String message){
+        super(message);
+    }
+}
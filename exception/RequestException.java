@@ -0,0 +1,28 @@
+package exception;
+
+import server.RequestServer;
+
+/**
+ * Thrown to indicate that a request to the {@link RequestServer} cannot be handled,
+ * such as a missing or malformed parameter, or a record that does not exist.
+ * <p>
+ * The request is answered with the HTTP status code of the exception, and no service is called.
+ * </p>
+ */
+public class RequestException extends RuntimeException{
+    private final int statusCode;
+
+    public RequestException(int statusCode, String message){
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    /**
+     * Returns the HTTP status code the request is answered with.
+     *
+     * @return the status code
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
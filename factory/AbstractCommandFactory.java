@@ -29,6 +29,8 @@ public class AbstractCommandFactory {
     protected static final int LOGOUT_CMD = 9;
     protected static final int SET_FILTER_CMD = -2;
     protected static final int RESET_FILTER_CMD = -3;
+    protected static final int NEXT_PAGE_CMD = -4;
+    protected static final int PREVIOUS_PAGE_CMD = -5;
 
     // Category ID
     protected static final int USER_CMD = 1;
@@ -76,6 +78,8 @@ public class AbstractCommandFactory {
             case LOGOUT_CMD:
             case SET_FILTER_CMD:
             case RESET_FILTER_CMD:
+            case NEXT_PAGE_CMD:
+            case PREVIOUS_PAGE_CMD:
                 throw new IllegalArgumentException("Command ID contradict with reserved ID: %d".formatted(commandID));        
             default:
                 break;
@@ -1,7 +1,6 @@
 package factory;
 
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
 
 import command.Command;
@@ -11,6 +10,7 @@ import controller.interfaces.ApplicationController;
 import model.Application;
 import model.User;
 import policy.interfaces.ApplicationPolicy;
+import query.Page;
 
 /**
  * A factory class for generating {@link Command} instances related to {@link Application}.
@@ -39,27 +39,38 @@ public class ApplicationCommandFactory extends AbstractCommandFactory{
     private static final int REJECT_WITHDRAW_APPLICATION_CMD = getCommandID(APPLICATION_CMD, EDIT_CMD, 5);
 
     /**
-     * Generates a set of {@link Command} to display details for a list of {@link Application}.
+     * Generates a set of {@link Command} to display details for a page of {@link Application}.
      * <p>
-     * Each application is mapped to a numbered command that triggers a view action.
-     * A "Back" command is also included at the end of the list.
+     * Each application of the page is mapped to a numbered command that triggers a view action.
+     * "Next Page" and "Previous Page" commands are included if there are more pages, 
+     * and a "Back" command is also included at the end of the list.
      *
-     * @param applications the list of applications to be displayed
+     * @param page the page of applications to be displayed
+     * @param showNextPage the action moving the listing to the next page
+     * @param showPreviousPage the action moving the listing to the previous page
      * @return a map of command IDs to corresponding commands
      * 
      * @see Command
      * @see Application
+     * @see Page
      */
-    public static Map<Integer, Command> getShowApplicationsCommands(List<Application> applications) {
+    public static Map<Integer, Command> getShowApplicationsCommands(Page<Application> page, Runnable showNextPage, Runnable showPreviousPage) {
         final Map<Integer, Command> commands = new LinkedHashMap<>();
 
         final ApplicationController applicationController = diManager.resolve(ApplicationController.class);
 
         int index = 1;
-        for(Application application:applications){
+        for(Application application:page.getRecords()){
             commands.put(index++, getShowApplicationCommand(application, applicationController));
         }
 
+        if(page.hasNext()){
+            commands.put(NEXT_PAGE_CMD, new LambdaCommand("Next Page", showNextPage));
+        }
+        if(page.hasPrevious()){
+            commands.put(PREVIOUS_PAGE_CMD, new LambdaCommand("Previous Page", showPreviousPage));
+        }
+
         commands.put(BACK_CMD, new MenuBackCommand(menuManager));
 
         return commands;
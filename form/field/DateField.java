@@ -4,6 +4,7 @@ import java.time.LocalDate;
 
 import config.FormField;
 import exception.FieldParsingException;
+import util.DateProvider;
 
 /**
  * Implementation of {@link Field} for {@code LocalDate}.
@@ -80,7 +81,7 @@ public class DateField extends Field<LocalDate>{
      */
     @Override
     public void validate(LocalDate value) throws FieldParsingException{
-        if(!allowPast && value.isBefore(LocalDate.now())){
+        if(!allowPast && value.isBefore(DateProvider.today())){
             throw new FieldParsingException("Date inputted cannot be past.");
         }
     }
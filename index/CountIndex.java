@@ -0,0 +1,120 @@
+package index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import index.interfaces.Index;
+import model.DataModel;
+
+/**
+ * Materialized count of records grouped by the values of several fields.
+ * <p>
+ * Similar to a materialized aggregate view in a database, the number of records of each
+ * combination of field values is kept up to date as records are added, updated or removed,
+ * so counting the records of a combination is a single hash lookup instead of a scan.
+ * </p>
+ * <p>
+ * Unlike {@link HashIndex}, the fields may change while a record is counted, such as the status
+ * of an application being approved. The index remembers the combination each record was last
+ * counted under, so adding the record again moves its count to its current combination.
+ * </p>
+ * <p>
+ * Values are compared with {@link Object#equals(Object)}, and referenced models are matched by identity.
+ * </p>
+ *
+ * @param <T> the type of {@code DataModel} counted
+ *
+ * @see Index
+ */
+public class CountIndex<T extends DataModel> implements Index<T> {
+    private final List<String> fields;
+    private final List<Function<T, Object>> getters;
+    /** Combination each record is currently counted under, by primary key. */
+    private final Map<String, List<Object>> keys = new HashMap<>();
+    private final Map<List<Object>, Integer> counts = new HashMap<>();
+
+    /**
+     * Constructs an empty index.
+     *
+     * @param fields  the names of the fields grouping the records
+     * @param getters the getters of the fields, in the same order
+     */
+    public CountIndex(List<String> fields, List<Function<T, Object>> getters){
+        this.fields = List.copyOf(fields);
+        this.getters = List.copyOf(getters);
+    }
+
+    /**
+     * Returns the names of the fields grouping the records.
+     *
+     * @return the field names, in key order
+     */
+    public List<String> getFields() {
+        return fields;
+    }
+
+    @Override
+    public void add(T model){
+        restore(model, toKey(model));
+    }
+
+    @Override
+    public void remove(T model){
+        restore(model, null);
+    }
+
+    /**
+     * Counts the records with the given combination of field values.
+     *
+     * @param key the field values, in key order
+     * @return the number of records with the combination
+     */
+    public int count(List<Object> key){
+        return counts.getOrDefault(key, 0);
+    }
+
+    /**
+     * Returns the combination a record is currently counted under.
+     *
+     * @param model the record
+     * @return the field values counted for the record, or {@code null} if it is not counted
+     */
+    public List<Object> getCountedKey(T model){
+        return keys.get(model.getPK());
+    }
+
+    /**
+     * Counts a record under a specific combination, regardless of its current field values.
+     * Used to roll the index back to a combination obtained from {@link #getCountedKey(DataModel)}.
+     *
+     * @param model the record
+     * @param key   the combination to count the record under, or {@code null} to stop counting it
+     */
+    public void restore(T model, List<Object> key){
+        final List<Object> previousKey = key == null ? keys.remove(model.getPK()) : keys.put(model.getPK(), key);
+
+        if(previousKey != null){
+            counts.computeIfPresent(previousKey, (_, count) -> count == 1 ? null : count - 1);
+        }
+        if(key != null){
+            counts.merge(key, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Computes the combination of field values of a record.
+     *
+     * @param model the record
+     * @return the field values, in key order
+     */
+    private List<Object> toKey(T model){
+        final List<Object> key = new ArrayList<>(getters.size());
+        for(Function<T, Object> getter:getters){
+            key.add(getter.apply(model));
+        }
+        return key;
+    }
+}
@@ -0,0 +1,85 @@
+package index;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import index.interfaces.Index;
+import model.DataModel;
+
+/**
+ * Secondary index grouping records by a key computed from each record, backed by hash maps.
+ * <p>
+ * Lookups by key take time proportional to the number of matching records, instead of
+ * the size of the table. Within a key, records are stored by primary key, so adding an
+ * already indexed record again simply replaces its entry.
+ * </p>
+ * <p>
+ * The key of a record must not change while it is indexed, since the record is removed
+ * from the bucket of its current key. This holds for foreign keys, which are only assigned
+ * when a model is created.
+ * </p>
+ * <p>
+ * Keys are compared with {@link Object#equals(Object)}. As data models do not override it,
+ * a key that is itself a {@link DataModel} (e.g. the model referenced by a foreign key)
+ * is matched by identity.
+ * </p>
+ *
+ * @param <T> the type of {@code DataModel} indexed
+ * @param <K> the type of the key
+ *
+ * @see Index
+ */
+public class HashIndex<T extends DataModel, K> implements Index<T> {
+    private final Function<? super T, ? extends K> keyExtractor;
+    private final Map<K, Map<String, T>> buckets = new HashMap<>();
+
+    /**
+     * Constructs an empty index.
+     *
+     * @param keyExtractor the function computing the key of a record
+     */
+    public HashIndex(Function<? super T, ? extends K> keyExtractor){
+        this.keyExtractor = keyExtractor;
+    }
+
+    @Override
+    public void add(T model){
+        buckets.computeIfAbsent(keyExtractor.apply(model), _ -> new HashMap<>()).put(model.getPK(), model);
+    }
+
+    @Override
+    public void remove(T model){
+        final K key = keyExtractor.apply(model);
+        final Map<String, T> bucket = buckets.get(key);
+        if(bucket == null) return;
+
+        bucket.remove(model.getPK());
+        if(bucket.isEmpty()){
+            buckets.remove(key);
+        }
+    }
+
+    /**
+     * Retrieves all records with the given key.
+     *
+     * @param key the key to look up
+     * @return a list of records with the key, in no particular order
+     */
+    public List<T> get(K key){
+        final Map<String, T> bucket = buckets.get(key);
+        return bucket == null ? List.of() : List.copyOf(bucket.values());
+    }
+
+    /**
+     * Counts the records with the given key.
+     *
+     * @param key the key to look up
+     * @return the number of records with the key
+     */
+    public int count(K key){
+        final Map<String, T> bucket = buckets.get(key);
+        return bucket == null ? 0 : bucket.size();
+    }
+}
@@ -0,0 +1,389 @@
+package index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+import index.interfaces.Index;
+import model.DataModel;
+
+/**
+ * Secondary index on the period between a start and an end field of each record, answering which
+ * records overlap a given period, optionally within the partition of a composite key such as a manager.
+ * <p>
+ * Each partition is an interval tree: a treap ordered by start, where every node also holds the latest
+ * end of its subtree, so that subtrees ending before the requested period are skipped. Finding the
+ * {@code k} overlapping records of a partition of {@code n} records takes expected {@code O(log n + k)}
+ * time, and adding or removing a record expected {@code O(log n)} time.
+ * </p>
+ * <p>
+ * Unlike {@link HashIndex}, the indexed fields may change: the index remembers the period and partition
+ * each record was indexed under, so an updated record is moved when it is added again. Records whose
+ * start or end is {@code null} overlap no period and are not indexed.
+ * </p>
+ *
+ * @param <T> the type of {@code DataModel} indexed
+ *
+ * @see Index
+ */
+public class IntervalIndex<T extends DataModel> implements Index<T> {
+    /**
+     * A record of the tree, with its period as it was indexed.
+     *
+     * @param <T> the type of {@code DataModel} indexed
+     */
+    private static final class Node<T> {
+        private final T model;
+        private final String PK;
+        private final List<Object> partition;
+        private final Comparable<Object> start;
+        private final Comparable<Object> end;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        /** The latest end of the subtree rooted at this node. */
+        private Comparable<Object> maxEnd;
+        private Node<T> left;
+        private Node<T> right;
+
+        private Node(T model, String PK, List<Object> partition, Comparable<Object> start, Comparable<Object> end){
+            this.model = model;
+            this.PK = PK;
+            this.partition = partition;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+    }
+
+    private final List<String> partitionFields;
+    private final Function<T, List<Object>> partitionExtractor;
+    private final Function<T, Object> startGetter;
+    private final Function<T, Object> endGetter;
+    private final String referenceField;
+    private final Map<List<Object>, Node<T>> roots = new HashMap<>();
+    private final Map<List<Object>, Integer> sizes = new HashMap<>();
+    /** Nodes of the indexed records, by primary key. */
+    private final Map<String, Node<T>> nodes = new HashMap<>();
+
+    /**
+     * Constructs an empty index on a period stored in the records themselves.
+     *
+     * @param partitionFields  the names of the partition fields
+     * @param partitionGetters the getters of the partition fields, in the same order
+     * @param startGetter      the getter of the start of the period
+     * @param endGetter        the getter of the end of the period
+     */
+    public IntervalIndex(List<String> partitionFields, List<Function<T, Object>> partitionGetters, Function<T, Object> startGetter, Function<T, Object> endGetter){
+        this(partitionFields, partitionGetters, startGetter, endGetter, null);
+    }
+
+    /**
+     * Constructs an empty index on a period read through a foreign key, such as the application
+     * period of the project of an officer registration.
+     * <p>
+     * The index cannot observe changes to the referenced model, so the owner of the table has to
+     * add the records referencing a model again whenever the model is saved.
+     * </p>
+     *
+     * @param partitionFields  the names of the partition fields
+     * @param partitionGetters the getters of the partition fields, in the same order
+     * @param startGetter      the getter of the start of the period
+     * @param endGetter        the getter of the end of the period
+     * @param referenceField   the name of the foreign key the period is read through, or {@code null}
+     */
+    public IntervalIndex(List<String> partitionFields, List<Function<T, Object>> partitionGetters, Function<T, Object> startGetter, Function<T, Object> endGetter, String referenceField){
+        final List<Function<T, Object>> getters = List.copyOf(partitionGetters);
+
+        this.partitionFields = List.copyOf(partitionFields);
+        this.partitionExtractor = model -> {
+            final List<Object> key = new ArrayList<>(getters.size());
+            for(Function<T, Object> getter:getters){
+                key.add(getter.apply(model));
+            }
+            return key;
+        };
+        this.startGetter = startGetter;
+        this.endGetter = endGetter;
+        this.referenceField = referenceField;
+    }
+
+    /**
+     * Returns the names of the partition fields.
+     *
+     * @return the field names, in key order
+     */
+    public List<String> getPartitionFields() {
+        return partitionFields;
+    }
+
+    /**
+     * Returns the name of the foreign key the period is read through.
+     *
+     * @return the field name, or {@code null} if the period is stored in the records themselves
+     */
+    public String getReferenceField() {
+        return referenceField;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void add(T model){
+        final Comparable<Object> start = (Comparable<Object>) startGetter.apply(model);
+        final Comparable<Object> end = (Comparable<Object>) endGetter.apply(model);
+
+        if(start == null || end == null){
+            restore(model, null);
+            return;
+        }
+
+        final List<Object> key = partitionExtractor.apply(model);
+        key.add(start);
+        key.add(end);
+        restore(model, key);
+    }
+
+    @Override
+    public void remove(T model){
+        restore(model, null);
+    }
+
+    /**
+     * Counts the records of a partition, overlapping any period.
+     *
+     * @param partition the values of the partition fields, in order
+     * @return the number of records indexed in the partition
+     */
+    public int count(List<Object> partition){
+        return sizes.getOrDefault(partition, 0);
+    }
+
+    /**
+     * Reads the current start of the period of a record, regardless of the period it is indexed under.
+     *
+     * @param model the record
+     * @return the start, or {@code null} if the record has none
+     */
+    public Object getStart(T model){
+        return startGetter.apply(model);
+    }
+
+    /**
+     * Reads the current end of the period of a record, regardless of the period it is indexed under.
+     *
+     * @param model the record
+     * @return the end, or {@code null} if the record has none
+     */
+    public Object getEnd(T model){
+        return endGetter.apply(model);
+    }
+
+    /**
+     * Returns the partition and period a record is currently indexed under.
+     *
+     * @param model the record
+     * @return the values of the partition fields followed by the start and end, or {@code null} if it is not indexed
+     */
+    public List<Object> getIndexedKey(T model){
+        final Node<T> node = nodes.get(model.getPK());
+        if(node == null) return null;
+
+        final List<Object> key = new ArrayList<>(node.partition);
+        key.add(node.start);
+        key.add(node.end);
+        return key;
+    }
+
+    /**
+     * Indexes a record under a specific partition and period, regardless of its current field values.
+     * Used to roll the index back to a key obtained from {@link #getIndexedKey(DataModel)}.
+     *
+     * @param model the record
+     * @param key   the values of the partition fields followed by the start and end, or {@code null} to stop indexing it
+     */
+    @SuppressWarnings("unchecked")
+    public void restore(T model, List<Object> key){
+        final Node<T> previous = nodes.remove(model.getPK());
+        if(previous != null){
+            final Node<T> root = delete(roots.get(previous.partition), previous);
+            if(root == null){
+                roots.remove(previous.partition);
+            }
+            else{
+                roots.put(previous.partition, root);
+            }
+            sizes.computeIfPresent(previous.partition, (_, size) -> size == 1 ? null : size - 1);
+        }
+        if(key == null) return;
+
+        final int partitionSize = key.size() - 2;
+        final Node<T> node = new Node<>(
+            model, model.getPK(), new ArrayList<>(key.subList(0, partitionSize)),
+            (Comparable<Object>) key.get(partitionSize), (Comparable<Object>) key.get(partitionSize + 1)
+        );
+        roots.put(node.partition, insert(roots.get(node.partition), node));
+        sizes.merge(node.partition, 1, Integer::sum);
+        nodes.put(node.PK, node);
+    }
+
+    /**
+     * Retrieves the records of a partition whose period overlaps the given period, bounds included.
+     * That is, the records starting no later than {@code to} and ending no earlier than {@code from}.
+     *
+     * @param partition the values of the partition fields, in order
+     * @param from      the start of the period
+     * @param to        the end of the period
+     * @return a list of the overlapping records, ordered by start
+     */
+    public List<T> getOverlapping(List<Object> partition, Comparable<Object> from, Comparable<Object> to){
+        final List<T> records = new ArrayList<>();
+        collectOverlapping(roots.get(partition), from, to, records);
+        return records;
+    }
+
+    /**
+     * Collects the records of a subtree overlapping a period, in order.
+     *
+     * @param node    the root of the subtree
+     * @param from    the start of the period
+     * @param to      the end of the period
+     * @param records the list collecting the records
+     */
+    private void collectOverlapping(Node<T> node, Comparable<Object> from, Comparable<Object> to, List<T> records){
+        // Nothing in this subtree ends late enough
+        if(node == null || node.maxEnd.compareTo(from) < 0) return;
+
+        collectOverlapping(node.left, from, to, records);
+
+        // This node and its right subtree start too late
+        if(node.start.compareTo(to) > 0) return;
+
+        if(node.end.compareTo(from) >= 0){
+            records.add(node.model);
+        }
+        collectOverlapping(node.right, from, to, records);
+    }
+
+    /**
+     * Inserts a node into a subtree, keeping it ordered by start and heap-ordered by priority.
+     *
+     * @param root the root of the subtree
+     * @param node the node to insert
+     * @return the new root of the subtree
+     */
+    private Node<T> insert(Node<T> root, Node<T> node){
+        if(root == null) return node;
+
+        if(compare(node, root) < 0){
+            root.left = insert(root.left, node);
+            update(root);
+            if(root.left.priority > root.priority) return rotateRight(root);
+        }
+        else{
+            root.right = insert(root.right, node);
+            update(root);
+            if(root.right.priority > root.priority) return rotateLeft(root);
+        }
+
+        return root;
+    }
+
+    /**
+     * Deletes a node from a subtree.
+     *
+     * @param root the root of the subtree
+     * @param node the node to delete
+     * @return the new root of the subtree
+     */
+    private Node<T> delete(Node<T> root, Node<T> node){
+        if(root == null) return null;
+        if(root == node) return merge(root.left, root.right);
+
+        if(compare(node, root) < 0){
+            root.left = delete(root.left, node);
+        }
+        else{
+            root.right = delete(root.right, node);
+        }
+        update(root);
+
+        return root;
+    }
+
+    /**
+     * Merges two subtrees, all nodes of the first ordered before all nodes of the second.
+     *
+     * @param left  the first subtree
+     * @param right the second subtree
+     * @return the root of the merged subtree
+     */
+    private Node<T> merge(Node<T> left, Node<T> right){
+        if(left == null) return right;
+        if(right == null) return left;
+
+        if(left.priority > right.priority){
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    /**
+     * Rotates a subtree to the right, making the left child of its root the new root.
+     *
+     * @param node the root of the subtree
+     * @return the new root of the subtree
+     */
+    private Node<T> rotateRight(Node<T> node){
+        final Node<T> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    /**
+     * Rotates a subtree to the left, making the right child of its root the new root.
+     *
+     * @param node the root of the subtree
+     * @return the new root of the subtree
+     */
+    private Node<T> rotateLeft(Node<T> node){
+        final Node<T> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    /**
+     * Recomputes the latest end of the subtree rooted at a node from its children.
+     *
+     * @param node the node
+     */
+    private void update(Node<T> node){
+        Comparable<Object> maxEnd = node.end;
+        if(node.left != null && node.left.maxEnd.compareTo(maxEnd) > 0) maxEnd = node.left.maxEnd;
+        if(node.right != null && node.right.maxEnd.compareTo(maxEnd) > 0) maxEnd = node.right.maxEnd;
+        node.maxEnd = maxEnd;
+    }
+
+    /**
+     * Orders nodes by start, then by primary key.
+     *
+     * @param a the first node
+     * @param b the second node
+     * @return a negative number, zero, or a positive number as the first node is ordered before, with or after the second
+     */
+    private int compare(Node<T> a, Node<T> b){
+        final int order = a.start.compareTo(b.start);
+        return order != 0 ? order : a.PK.compareTo(b.PK);
+    }
+}
@@ -0,0 +1,124 @@
+package index;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import index.interfaces.Index;
+import model.DataModel;
+
+/**
+ * Secondary index keeping the records of a table in a fixed order, backed by a skip list.
+ * <p>
+ * Adding or removing a record takes logarithmic time, and the records can be read in order
+ * at any time, so sorted listings and "latest N" queries do not sort the table on every call.
+ * Records considered equal by the comparator are ordered by primary key.
+ * </p>
+ * <p>
+ * Optionally, records matching a leading predicate are listed before all other records, each group
+ * in the order of the comparator. Unlike the comparator, the predicate is evaluated when the records
+ * are read, so it may depend on mutable state or on the current date.
+ * </p>
+ * <p>
+ * The fields compared must not change while a record is indexed, since the record is removed
+ * from its current position. This holds for creation times and primary keys.
+ * </p>
+ * <p>
+ * The records are read through a weakly consistent iterator, so they can be streamed while the
+ * index is updated, without failing.
+ * </p>
+ *
+ * @param <T> the type of {@code DataModel} indexed
+ *
+ * @see Index
+ */
+public class SortedIndex<T extends DataModel> implements Index<T> {
+    private final Comparator<T> order;
+    private final Predicate<? super T> leading;
+    private final NavigableSet<T> records;
+
+    /**
+     * Constructs an empty index.
+     *
+     * @param comparator the order of the records
+     */
+    public SortedIndex(Comparator<? super T> comparator){
+        this(comparator, null);
+    }
+
+    /**
+     * Constructs an empty index listing the records matching a predicate first.
+     *
+     * @param comparator the order of the records within each group
+     * @param leading    the predicate of the records listed first, or {@code null} to list all records in one group
+     */
+    public SortedIndex(Comparator<? super T> comparator, Predicate<? super T> leading){
+        final Comparator<T> order = comparator::compare;
+        this.order = order.thenComparing(DataModel::getPK);
+        this.leading = leading;
+        this.records = new ConcurrentSkipListSet<>(this.order);
+    }
+
+    @Override
+    public void add(T model){
+        records.add(model);
+    }
+
+    /**
+     * Adds many records at once, such as all records of a table when the index is built.
+     * <p>
+     * The records are sorted first, then inserted from the last one, so that each of them
+     * is inserted at the head of the skip list instead of at a random position.
+     * </p>
+     *
+     * @param models the records to add
+     */
+    @SuppressWarnings("unchecked")
+    public void addAll(Collection<? extends T> models){
+        final T[] sorted = (T[]) models.toArray(new DataModel[0]);
+        Arrays.sort(sorted, order);
+
+        for(int i = sorted.length - 1; i >= 0; i--){
+            records.add(sorted[i]);
+        }
+    }
+
+    @Override
+    public void remove(T model){
+        records.remove(model);
+    }
+
+    /**
+     * Retrieves all records in order, as they are consumed.
+     *
+     * @return a stream of the records, in order
+     */
+    public Stream<T> stream(){
+        return stream(null);
+    }
+
+    /**
+     * Retrieves the records following a given record in order, as they are consumed.
+     * The starting position is found without reading the records before it.
+     *
+     * @param after the record to start after, which does not need to be indexed, or {@code null} to start from the first record
+     * @return a stream of the records after the given record, in order
+     */
+    public Stream<T> stream(T after){
+        final NavigableSet<T> tail = after == null ? records : records.tailSet(after, false);
+        if(leading == null){
+            return tail.stream();
+        }
+        if(after == null || leading.test(after)){
+            return Stream.concat(
+                tail.stream().filter(leading),
+                records.stream().filter(leading.negate())
+            );
+        }
+        return tail.stream().filter(leading.negate());
+    }
+}
@@ -0,0 +1,450 @@
+package index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import exception.DataSavingException;
+import model.DataModel;
+import parser.ModelCodec;
+
+/**
+ * Secondary indexes of the tables of a data manager.
+ * <p>
+ * Foreign key columns are indexed by a {@link HashIndex}, declared field combinations by a
+ * {@link UniqueIndex} or a {@link CountIndex}, the standard orders of the tables by a {@link SortedIndex},
+ * and declared periods by an {@link IntervalIndex}. Each index is built from the records of its table on its
+ * first lookup, so unused indexes cost nothing at startup, and is kept up to date afterwards by the owner of
+ * the tables through {@link #add(Class, DataModel)} and {@link #remove(Class, DataModel)}.
+ * </p>
+ * <p>
+ * Lookups must be made under the lock of their table, which keeps changes out while an index is built.
+ * The indexes being built are guarded by a lock of their own, taken after the lock of the table,
+ * so that concurrent reads build an index once.
+ * </p>
+ *
+ * @see index.interfaces.Index
+ */
+public class TableIndexes {
+    /** Records of each table, by primary key, shared with the owner of the tables. */
+    private final Map<Class<? extends DataModel>, Map<String, DataModel>> data;
+    private final Map<Class<? extends DataModel>, ModelCodec<?>> codecs;
+    /** Indexes of the foreign key columns of each table built so far, by field name. */
+    private final Map<Class<? extends DataModel>, Map<String, HashIndex<DataModel, DataModel>>> foreignKeyIndexes = new HashMap<>();
+    /** Field combinations of each table that must be unique, declared by {@link #addUniqueKey(Class, List)}. */
+    private final Map<Class<? extends DataModel>, List<List<String>>> uniqueKeys = new HashMap<>();
+    /** Unique indexes of each table built so far, by field combination. */
+    private final Map<Class<? extends DataModel>, Map<List<String>, UniqueIndex<DataModel>>> uniqueIndexes = new HashMap<>();
+    /** Field combinations of each table whose records are counted, declared by {@link #addCountKey(Class, List)}. */
+    private final Map<Class<? extends DataModel>, List<List<String>>> countKeys = new HashMap<>();
+    /** Count indexes of each table built so far, by field combination. */
+    private final Map<Class<? extends DataModel>, Map<List<String>, CountIndex<DataModel>>> countIndexes = new HashMap<>();
+    /** Factories of the sorted indexes of each table, by the comparator they answer. */
+    private final Map<Class<? extends DataModel>, Map<Comparator<?>, Supplier<SortedIndex<?>>>> sortedKeys = new HashMap<>();
+    /** Sorted indexes of each table built so far, by the comparator they answer. */
+    private final Map<Class<? extends DataModel>, Map<Comparator<?>, SortedIndex<DataModel>>> sortedIndexes = new HashMap<>();
+    /** Factories of the interval indexes of each table, by the name of their period. */
+    private final Map<Class<? extends DataModel>, Map<String, Supplier<IntervalIndex<?>>>> intervalPeriods = new HashMap<>();
+    /** Interval indexes of each table built so far, by the name of their period. */
+    private final Map<Class<? extends DataModel>, Map<String, IntervalIndex<DataModel>>> intervalIndexes = new HashMap<>();
+    /** Lock of the indexes being built, taken after the lock of their table. */
+    private final Object lock = new Object();
+
+    /**
+     * Constructs the indexes of the given tables, none of which is built yet.
+     *
+     * @param data   the records of each table, by primary key, filled as the tables are loaded
+     * @param codecs the codec of each table, giving the getters of its fields
+     */
+    public TableIndexes(Map<Class<? extends DataModel>, Map<String, DataModel>> data, Map<Class<? extends DataModel>, ModelCodec<?>> codecs){
+        this.data = data;
+        this.codecs = codecs;
+    }
+
+    /**
+     * Prepares the indexes of a table. The indexes themselves are built on their first lookup.
+     *
+     * @param clazz the class representing the table
+     */
+    public void addTable(Class<? extends DataModel> clazz){
+        foreignKeyIndexes.put(clazz, new HashMap<>());
+        uniqueKeys.put(clazz, new ArrayList<>());
+        uniqueIndexes.put(clazz, new HashMap<>());
+        countKeys.put(clazz, new ArrayList<>());
+        countIndexes.put(clazz, new HashMap<>());
+        sortedKeys.put(clazz, new HashMap<>());
+        sortedIndexes.put(clazz, new HashMap<>());
+        intervalPeriods.put(clazz, new HashMap<>());
+        intervalIndexes.put(clazz, new HashMap<>());
+    }
+
+    /**
+     * Declares a field combination that identifies at most one record of a table,
+     * backed by a {@link UniqueIndex}.
+     *
+     * @param clazz  the class representing the table
+     * @param fields the names of the fields
+     */
+    public void addUniqueKey(Class<? extends DataModel> clazz, List<String> fields){
+        uniqueKeys.get(clazz).add(fields);
+    }
+
+    /**
+     * Declares a field combination whose number of records is maintained by a {@link CountIndex}.
+     *
+     * @param clazz  the class representing the table
+     * @param fields the names of the fields
+     */
+    public void addCountKey(Class<? extends DataModel> clazz, List<String> fields){
+        countKeys.get(clazz).add(fields);
+    }
+
+    /**
+     * Declares a comparator whose order is maintained by a {@link SortedIndex}.
+     * Comparators are matched by identity, so queries have to use the declared constants.
+     *
+     * @param clazz      the class representing the table
+     * @param comparator the comparator answered by the index
+     * @param factory    the factory of the empty index
+     */
+    public void addSortedKey(Class<? extends DataModel> clazz, Comparator<?> comparator, Supplier<SortedIndex<?>> factory){
+        sortedKeys.get(clazz).put(comparator, factory);
+    }
+
+    /**
+     * Declares a period whose overlaps are answered by an {@link IntervalIndex}.
+     *
+     * @param clazz   the class representing the table
+     * @param period  the name of the period
+     * @param factory the factory of the empty index
+     */
+    public void addIntervalPeriod(Class<? extends DataModel> clazz, String period, Supplier<IntervalIndex<?>> factory){
+        intervalPeriods.get(clazz).put(period, factory);
+    }
+
+    /**
+     * Returns the unique field combinations declared for a table.
+     *
+     * @param clazz the class representing the table
+     * @return the field combinations, empty if the table is not configured
+     */
+    public List<List<String>> getUniqueKeys(Class<? extends DataModel> clazz){
+        return uniqueKeys.getOrDefault(clazz, List.of());
+    }
+
+    /**
+     * Returns the counted field combinations declared for a table.
+     *
+     * @param clazz the class representing the table
+     * @return the field combinations, empty if the table is not configured
+     */
+    public List<List<String>> getCountKeys(Class<? extends DataModel> clazz){
+        return countKeys.getOrDefault(clazz, List.of());
+    }
+
+    /**
+     * Checks whether a {@link SortedIndex} is declared for a comparator of a table.
+     *
+     * @param clazz      the class representing the table
+     * @param comparator the comparator
+     * @return {@code true} if the comparator is answered by a sorted index
+     */
+    public boolean hasSortedIndex(Class<? extends DataModel> clazz, Comparator<?> comparator){
+        return sortedKeys.getOrDefault(clazz, Map.of()).containsKey(comparator);
+    }
+
+    /**
+     * Checks whether an {@link IntervalIndex} is declared for a period of a table.
+     *
+     * @param clazz  the class representing the table
+     * @param period the name of the period
+     * @return {@code true} if the period is answered by an interval index
+     */
+    public boolean hasIntervalIndex(Class<? extends DataModel> clazz, String period){
+        return intervalPeriods.getOrDefault(clazz, Map.of()).containsKey(period);
+    }
+
+    /**
+     * Retrieves the index of a foreign key column, building it from the records of the table
+     * if it is looked up for the first time.
+     *
+     * @param clazz The class representing the table.
+     * @param field The name of the foreign key field.
+     * @return the index of the foreign key column
+     * @throws IllegalArgumentException If the field is not a foreign key of the table.
+     */
+    @SuppressWarnings("unchecked")
+    public HashIndex<DataModel, DataModel> getForeignKeyIndex(Class<? extends DataModel> clazz, String field){
+        synchronized(lock){
+            final Map<String, HashIndex<DataModel, DataModel>> indexes = foreignKeyIndexes.get(clazz);
+            if(indexes == null){
+                throw new IllegalArgumentException("%s is not a configured table".formatted(clazz.getSimpleName()));
+            }
+
+            HashIndex<DataModel, DataModel> index = indexes.get(field);
+            if(index == null){
+                final Function<DataModel, DataModel> getter = ((ModelCodec<DataModel>) codecs.get(clazz)).getForeignKeyGetters().get(field);
+                if(getter == null){
+                    throw new IllegalArgumentException("%s is not a foreign key of %s".formatted(field, clazz.getSimpleName()));
+                }
+
+                index = new HashIndex<>(getter);
+                for(DataModel model:data.get(clazz).values()){
+                    index.add(model);
+                }
+                indexes.put(field, index);
+            }
+
+            return index;
+        }
+    }
+
+    /**
+     * Retrieves the unique index of a field combination, building it from the records of the table
+     * if it is used for the first time.
+     *
+     * @param clazz  The class representing the table.
+     * @param fields The field combination, as declared by {@link #addUniqueKey(Class, List)}.
+     * @return the unique index of the field combination
+     */
+    @SuppressWarnings("unchecked")
+    public UniqueIndex<DataModel> getUniqueIndex(Class<? extends DataModel> clazz, List<String> fields){
+        synchronized(lock){
+            final Map<List<String>, UniqueIndex<DataModel>> indexes = uniqueIndexes.get(clazz);
+
+            UniqueIndex<DataModel> index = indexes.get(fields);
+            if(index == null){
+                final ModelCodec<DataModel> codec = (ModelCodec<DataModel>) codecs.get(clazz);
+                index = new UniqueIndex<>(fields, fields.stream().map(codec::getGetter).toList());
+                for(DataModel model:data.get(clazz).values()){
+                    index.add(model);
+                }
+                indexes.put(fields, index);
+            }
+
+            return index;
+        }
+    }
+
+    /**
+     * Retrieves the count index of a field combination, building it from the records of the table
+     * if it is used for the first time.
+     *
+     * @param clazz  The class representing the table.
+     * @param fields The field combination, as declared by {@link #addCountKey(Class, List)}.
+     * @return the count index of the field combination
+     */
+    @SuppressWarnings("unchecked")
+    public CountIndex<DataModel> getCountIndex(Class<? extends DataModel> clazz, List<String> fields){
+        synchronized(lock){
+            final Map<List<String>, CountIndex<DataModel>> indexes = countIndexes.get(clazz);
+
+            CountIndex<DataModel> index = indexes.get(fields);
+            if(index == null){
+                final ModelCodec<DataModel> codec = (ModelCodec<DataModel>) codecs.get(clazz);
+                index = new CountIndex<>(fields, fields.stream().map(codec::getGetter).toList());
+                for(DataModel model:data.get(clazz).values()){
+                    index.add(model);
+                }
+                indexes.put(fields, index);
+            }
+
+            return index;
+        }
+    }
+
+    /**
+     * Retrieves the sorted index answering a comparator, building it from the records of the table
+     * if it is used for the first time.
+     *
+     * @param clazz      The class representing the table.
+     * @param comparator The comparator, as declared by {@link #addSortedKey(Class, Comparator, Supplier)}.
+     * @return the sorted index answering the comparator, or {@code null} if none is declared
+     */
+    @SuppressWarnings("unchecked")
+    public SortedIndex<DataModel> getSortedIndex(Class<? extends DataModel> clazz, Comparator<?> comparator){
+        synchronized(lock){
+            final Map<Comparator<?>, SortedIndex<DataModel>> indexes = sortedIndexes.get(clazz);
+
+            SortedIndex<DataModel> index = indexes.get(comparator);
+            if(index == null){
+                final Supplier<SortedIndex<?>> factory = sortedKeys.get(clazz).get(comparator);
+                if(factory == null) return null;
+
+                index = (SortedIndex<DataModel>) factory.get();
+                index.addAll(data.get(clazz).values());
+                indexes.put(comparator, index);
+            }
+
+            return index;
+        }
+    }
+
+    /**
+     * Retrieves the interval index of a period, building it from the records of the table
+     * if it is used for the first time.
+     *
+     * @param clazz  The class representing the table.
+     * @param period The name of the period, as declared by {@link #addIntervalPeriod(Class, String, Supplier)}.
+     * @return the interval index of the period
+     */
+    @SuppressWarnings("unchecked")
+    public IntervalIndex<DataModel> getIntervalIndex(Class<? extends DataModel> clazz, String period){
+        synchronized(lock){
+            final Map<String, IntervalIndex<DataModel>> indexes = intervalIndexes.get(clazz);
+
+            IntervalIndex<DataModel> index = indexes.get(period);
+            if(index == null){
+                index = (IntervalIndex<DataModel>) intervalPeriods.get(clazz).get(period).get();
+                for(DataModel model:data.get(clazz).values()){
+                    index.add(model);
+                }
+                indexes.put(period, index);
+            }
+
+            return index;
+        }
+    }
+
+    /**
+     * Records the partitions and periods a model is currently indexed under in the built interval indexes
+     * of its table, so that they can be restored if saving the model fails.
+     *
+     * @param clazz The class representing the table.
+     * @param model The model about to be saved.
+     * @return the key indexed for the model in each interval index, {@code null} if not indexed
+     */
+    public Map<IntervalIndex<DataModel>, List<Object>> getIndexedPeriods(Class<? extends DataModel> clazz, DataModel model){
+        final Map<IntervalIndex<DataModel>, List<Object>> indexedPeriods = new HashMap<>();
+
+        for(IntervalIndex<DataModel> index:intervalIndexes.get(clazz).values()){
+            indexedPeriods.put(index, index.getIndexedKey(model));
+        }
+
+        return indexedPeriods;
+    }
+
+    /**
+     * Records the combinations a model is currently counted under in the built count indexes of its table,
+     * so that they can be restored if saving the model fails.
+     *
+     * @param clazz The class representing the table.
+     * @param model The model about to be saved.
+     * @return the combination counted for the model in each count index, {@code null} if not counted
+     */
+    public Map<CountIndex<DataModel>, List<Object>> getCountedKeys(Class<? extends DataModel> clazz, DataModel model){
+        final Map<CountIndex<DataModel>, List<Object>> countedKeys = new HashMap<>();
+
+        for(CountIndex<DataModel> index:countIndexes.get(clazz).values()){
+            countedKeys.put(index, index.getCountedKey(model));
+        }
+
+        return countedKeys;
+    }
+
+    /**
+     * Returns the tables with a foreign key referencing a table, whose interval indexes may read
+     * their periods through it.
+     *
+     * @param clazz The class representing the referenced table.
+     * @return the referencing tables
+     */
+    public List<Class<? extends DataModel>> getReferencingTables(Class<? extends DataModel> clazz){
+        final List<Class<? extends DataModel>> tables = new ArrayList<>();
+
+        for(Class<? extends DataModel> table:intervalIndexes.keySet()){
+            if(codecs.get(table).getForeignKeyClasses().contains(clazz)){
+                tables.add(table);
+            }
+        }
+
+        return tables;
+    }
+
+    /**
+     * Indexes again the records of a table whose period is read through a foreign key referencing a model,
+     * since their interval indexes cannot observe the changes of the model.
+     *
+     * @param clazz The class representing the referencing table, whose write lock is held.
+     * @param model The saved or restored model.
+     */
+    public void reindexReferencing(Class<? extends DataModel> clazz, DataModel model){
+        for(IntervalIndex<DataModel> index:intervalIndexes.get(clazz).values()){
+            final String field = index.getReferenceField();
+            if(field == null) continue;
+
+            for(DataModel record:getForeignKeyIndex(clazz, field).get(model)){
+                index.add(record);
+            }
+        }
+    }
+
+    /**
+     * Checks that a model does not duplicate any unique field combination of another record of its table.
+     *
+     * @param clazz The class representing the table.
+     * @param model The model to be saved.
+     * @throws DataSavingException If another record has the same values for a unique field combination.
+     */
+    public void checkUniqueness(Class<? extends DataModel> clazz, DataModel model) throws DataSavingException{
+        for(List<String> fields:uniqueKeys.get(clazz)){
+            if(getUniqueIndex(clazz, fields).isConflicting(model)){
+                throw new DataSavingException("Duplicate %s of %s: %s".formatted(
+                    String.join(", ", fields), clazz.getSimpleName(), model.getPK()
+                ));
+            }
+        }
+    }
+
+    /**
+     * Adds a model to all built indexes of its table, or updates its entries if it is already indexed.
+     *
+     * @param clazz The class representing the table.
+     * @param model The model to index.
+     */
+    public void add(Class<? extends DataModel> clazz, DataModel model){
+        for(HashIndex<DataModel, DataModel> index:foreignKeyIndexes.get(clazz).values()){
+            index.add(model);
+        }
+        for(UniqueIndex<DataModel> index:uniqueIndexes.get(clazz).values()){
+            index.add(model);
+        }
+        for(CountIndex<DataModel> index:countIndexes.get(clazz).values()){
+            index.add(model);
+        }
+        for(SortedIndex<DataModel> index:sortedIndexes.get(clazz).values()){
+            index.add(model);
+        }
+        for(IntervalIndex<DataModel> index:intervalIndexes.get(clazz).values()){
+            index.add(model);
+        }
+    }
+
+    /**
+     * Removes a model from all built indexes of its table.
+     *
+     * @param clazz The class representing the table.
+     * @param model The model to remove.
+     */
+    public void remove(Class<? extends DataModel> clazz, DataModel model){
+        for(HashIndex<DataModel, DataModel> index:foreignKeyIndexes.get(clazz).values()){
+            index.remove(model);
+        }
+        for(UniqueIndex<DataModel> index:uniqueIndexes.get(clazz).values()){
+            index.remove(model);
+        }
+        for(CountIndex<DataModel> index:countIndexes.get(clazz).values()){
+            index.remove(model);
+        }
+        for(SortedIndex<DataModel> index:sortedIndexes.get(clazz).values()){
+            index.remove(model);
+        }
+        for(IntervalIndex<DataModel> index:intervalIndexes.get(clazz).values()){
+            index.remove(model);
+        }
+    }
+}
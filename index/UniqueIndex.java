@@ -0,0 +1,98 @@
+package index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import model.DataModel;
+
+/**
+ * Secondary index on a composite key of several fields, whose combination should be unique.
+ * <p>
+ * The composite key of a record is the list of its field values, in the order the fields are declared,
+ * so an existence check on all the fields is a single hash lookup. Like {@link HashIndex}, values are
+ * compared with {@link Object#equals(Object)}, and referenced models are matched by identity.
+ * </p>
+ * <p>
+ * The index does not reject duplicates by itself, so it still answers correctly for data
+ * that was already duplicated. The owner of the table enforces uniqueness by checking
+ * {@link #isConflicting(DataModel)} before a record is saved.
+ * </p>
+ *
+ * @param <T> the type of {@code DataModel} indexed
+ *
+ * @see HashIndex
+ */
+public class UniqueIndex<T extends DataModel> extends HashIndex<T, List<Object>> {
+    private final List<String> fields;
+    private final Function<T, List<Object>> keyExtractor;
+
+    /**
+     * Constructs an empty index.
+     *
+     * @param fields  the names of the fields forming the composite key
+     * @param getters the getters of the fields, in the same order
+     */
+    public UniqueIndex(List<String> fields, List<Function<T, Object>> getters){
+        this(List.copyOf(fields), toKeyExtractor(List.copyOf(getters)));
+    }
+
+    /**
+     * Constructs an empty index with a pre-built key extractor.
+     *
+     * @param fields       the names of the fields forming the composite key
+     * @param keyExtractor the function computing the composite key of a record
+     */
+    private UniqueIndex(List<String> fields, Function<T, List<Object>> keyExtractor){
+        super(keyExtractor);
+        this.fields = fields;
+        this.keyExtractor = keyExtractor;
+    }
+
+    /**
+     * Builds the function computing the composite key of a record.
+     *
+     * @param <T>     the type of {@code DataModel} indexed
+     * @param getters the getters of the fields
+     * @return the function computing the composite key
+     */
+    private static <T> Function<T, List<Object>> toKeyExtractor(List<Function<T, Object>> getters){
+        return model -> {
+            final List<Object> key = new ArrayList<>(getters.size());
+            for(Function<T, Object> getter:getters){
+                key.add(getter.apply(model));
+            }
+            return key;
+        };
+    }
+
+    /**
+     * Returns the names of the fields forming the composite key.
+     *
+     * @return the field names, in key order
+     */
+    public List<String> getFields() {
+        return fields;
+    }
+
+    /**
+     * Checks whether a record with the given composite key exists.
+     *
+     * @param key the field values, in key order
+     * @return {@code true} if at least one record has the key
+     */
+    public boolean exists(List<Object> key){
+        return count(key) > 0;
+    }
+
+    /**
+     * Checks whether saving a record would duplicate the composite key of another record.
+     *
+     * @param model the record to be saved
+     * @return {@code true} if a record with another primary key has the same composite key
+     */
+    public boolean isConflicting(T model){
+        return get(keyExtractor.apply(model)).stream()
+            .anyMatch(other -> !other.getPK().equals(model.getPK()));
+    }
+}
@@ -0,0 +1,32 @@
+package index.interfaces;
+
+import model.DataModel;
+
+/**
+ * Interface for a secondary index over the records of one {@link DataModel} type.
+ * <p>
+ * Similar to an index in a database, a secondary index maintains an additional lookup
+ * structure next to the table, so that queries on the indexed columns do not need to
+ * scan every record. The index must be kept up to date by the owner of the table
+ * whenever a record is added, updated or removed.
+ * </p>
+ *
+ * @param <T> the type of {@code DataModel} indexed
+ *
+ * @see DataModel
+ */
+public interface Index<T extends DataModel> {
+    /**
+     * Adds a record to the index, or updates its entry if the record is already indexed.
+     *
+     * @param model the record to add or update
+     */
+    void add(T model);
+
+    /**
+     * Removes a record from the index. Removing a record that is not indexed has no effect.
+     *
+     * @param model the record to remove
+     */
+    void remove(T model);
+}
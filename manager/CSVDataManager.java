@@ -1,53 +1,110 @@
 package manager;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import exception.DataConflictException;
 import exception.DataParsingException;
 import exception.DataSavingException;
+import index.CountIndex;
+import index.HashIndex;
+import index.IntervalIndex;
+import index.SortedIndex;
+import index.TableIndexes;
+import index.UniqueIndex;
 import manager.interfaces.DataManager;
+import manager.interfaces.Transaction;
 import model.Application;
 import model.BTOProject;
-import model.CSVField;
 import model.DataModel;
 import model.Enquiry;
 import model.FlatUnit;
 import model.OfficerRegistration;
 import model.User;
 import parser.DataParser;
+import parser.ModelCodec;
+import parser.ValueInterner;
+import query.Page;
+import query.Query;
+import query.QueryPlanner;
 import relationship.*;
 import relationship.resolver.*;
-import util.CSVFileReader;
-import util.CSVFileWriter;
+import util.CSVTableStore;
+import util.UUIDKeyedTable;
+import util.VersionStore;
 
 /**
  * Default implementation of {@link DataManager} that operates on CSV files as the data source.
  * <p>
- * This class loads and persists {@link DataModel} instances using reflection and field-level annotations,
- * based on pre-configured CSV file paths. It automates object creation and field mapping from CSV data,
- * and supports primitive types and enums pre-config in {@link DataParser}.
+ * This class loads and persists {@link DataModel} instances using field-level annotations,
+ * based on pre-configured CSV file paths. It automates object creation and field mapping from CSV data
+ * through a {@link ModelCodec} built once per model, and supports primitive types and enums pre-config 
+ * in {@link DataParser}. While a table is loaded, the repeated values of its low-cardinality columns,
+ * such as neighbourhoods and dates, are shared through a {@link ValueInterner}, and the tables keyed by
+ * UUIDs keep their primary keys in binary form, in a {@link UUIDKeyedTable}.
  * </p>
  * 
  * <p>
  * It also supports single-object foreign key references. 
  * Foreign key fields referencing another {@code DataModel} are automatically resolved during data loading.
+ * Foreign key columns, the standard orders of the tables and a few declared field combinations and periods
+ * are indexed by {@link TableIndexes}, kept up to date on every {@code save()} and {@code delete()}.
  * To support more advanced relationships, such as cascading operations, developers can register custom
  * {@link LoadResolver}, {@link SaveResolver}, and {@link DeleteResolver} implementations.
  * These resolvers allow the injection of custom behaviors for loading, saving, and deleting related models.
  * </p>
+ * 
+ * <p>
+ * Changes are written by a {@link CSVTableStore}, which appends them to a change log per table, compacted back
+ * into the CSV files in the background. All records of one operation, cascades included, are group-committed:
+ * each dirty table is written once at the end of the outermost operation, or once per commit window configured
+ * through the {@value #GROUP_COMMIT_INTERVAL_PROPERTY} system property (in milliseconds). A
+ * {@link #transaction(Transaction)} writing several tables is committed through a journal, and its in-memory
+ * changes are rolled back if it fails. Binary snapshots of the CSV files, for faster startup, are enabled
+ * through the {@value #BINARY_SNAPSHOT_PROPERTY} system property.
+ * </p>
+ *
+ * <p>
+ * The manager can be shared by several sessions at once. Each table has its own read/write lock: reads share
+ * the read lock of their table, while operations run one at a time and hold the write lock of every table they
+ * change until the outermost operation or transaction ends. Filters and comparators given to a read run under
+ * the read lock of its table, so they must not read another table through the manager.
+ * </p>
+ *
+ * <p>
+ * Every record carries a version column, incremented by each {@code save()} except those cascaded by the
+ * resolvers; {@link #save(DataModel, int)} rejects an edit with a {@link DataConflictException} if another
+ * save came in between. Long reads can read a table as of the last commit through
+ * {@link #getSnapshotByQuery(Class, Predicate)}, from its {@link VersionStore}, without taking its lock.
+ * </p>
  *
  * @see DataManager
  * @see DataModel
@@ -57,8 +114,64 @@ import util.CSVFileWriter;
  * @see DeleteResolver
  */
 public class CSVDataManager implements DataManager{
+    /** Delay between two rounds of background compaction. */
+    private static final long COMPACTION_INTERVAL_SECONDS = 60;
+
+    /** System property configuring the group-commit interval in milliseconds, {@code 0} to write at the end of every operation. */
+    public static final String GROUP_COMMIT_INTERVAL_PROPERTY = "data.groupCommitIntervalMillis";
+
+    /** System property enabling the report of the load time of each table at startup. */
+    public static final String LOAD_TIME_REPORT_PROPERTY = "data.reportLoadTime";
+
+    /** System property enabling binary snapshots of the CSV files for faster startup. */
+    public static final String BINARY_SNAPSHOT_PROPERTY = "data.binarySnapshot";
+
+
     private final Map<Class<? extends DataModel>, String> filePaths = new LinkedHashMap<>();
-    private final Map<Class<? extends DataModel>, Map<String, DataModel>> data = new HashMap<>();
+    private final Map<Class<? extends DataModel>, Map<String, DataModel>> data = new ConcurrentHashMap<>();
+    private final Map<Class<? extends DataModel>, ModelCodec<?>> codecs = new HashMap<>();
+    /** Secondary indexes of the tables, built on their first lookup. */
+    private final TableIndexes indexes = new TableIndexes(data, codecs);
+    private final QueryPlanner planner = new QueryPlanner(data, codecs, indexes);
+    /** Read/write lock of each table, shared by its reads and held exclusively by the operation writing it. */
+    private final Map<Class<? extends DataModel>, ReentrantReadWriteLock> tableLocks = new HashMap<>();
+    /** Tables whose write locks are held by the running operation, released once the outermost operation ends. */
+    private final List<Class<? extends DataModel>> writeLockedTables = new ArrayList<>();
+    /** Immutable list of the records of each table, returned by {@link #getAll(Class)} until the table is written. */
+    private final Map<Class<? extends DataModel>, List<? extends DataModel>> tableSnapshots = new ConcurrentHashMap<>();
+    /** Committed versions of the tables read through snapshots so far, detached from the live models. */
+    private final Map<Class<? extends DataModel>, VersionStore<DataModel>> versionStores = new ConcurrentHashMap<>();
+    /** Number of the last commit published to the version stores. */
+    private volatile long committedVersion = 0;
+    /** Number of snapshot reads in progress at each commit, so that the versions they read are kept. */
+    private final ConcurrentSkipListMap<Long, Integer> snapshotReads = new ConcurrentSkipListMap<>();
+    private final Map<Class<? extends DataModel>, Long> loadTimes = new ConcurrentHashMap<>();
+    /** Estimated bytes saved by interning the repeated values of each table at startup. */
+    private final Map<Class<? extends DataModel>, Long> internedBytes = new ConcurrentHashMap<>();
+
+    private final boolean isSnapshotEnabled = Boolean.getBoolean(BINARY_SNAPSHOT_PROPERTY);
+    /** Files of the tables: CSV files, change logs, journal and binary snapshots. */
+    private final CSVTableStore tableStore = new CSVTableStore(filePaths, codecs, isSnapshotEnabled);
+    /** Tables keyed by UUID primary keys, stored in a {@link UUIDKeyedTable}. */
+    private final Set<Class<? extends DataModel>> uuidKeyedTables = new HashSet<>();
+    private final long groupCommitIntervalMillis = Long.getLong(GROUP_COMMIT_INTERVAL_PROPERTY, 0);
+    /** Records staged by the operation in progress, merged into {@link #dirtyRecords} once it succeeds. */
+    private final Map<Class<? extends DataModel>, Map<String, List<String>>> stagedRecords = new LinkedHashMap<>();
+    /** Records of committed operations that are not yet written, grouped by dirty table. */
+    private final Map<Class<? extends DataModel>, Map<String, List<String>>> dirtyRecords = new LinkedHashMap<>();
+    private int operationDepth = 0;
+    /** Number of resolvers running, whose saves write related records back without incrementing their versions. */
+    private int cascadeDepth = 0;
+    private int transactionDepth = 0;
+    /** Actions undoing the changes made to the tables by the running transaction, in the order they were made. */
+    private final List<Runnable> transactionUndos = new ArrayList<>();
+    /** Rows of the models tracked by the running transaction, recorded when they were first tracked. */
+    private final Map<DataModel, List<String>> trackedRows = new IdentityHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "csv-data-manager");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private final List<LoadResolver> loadResolvers = new ArrayList<>();
     private final Map<Class<? extends DataModel>, DeleteResolver<?>> deleteResolvers = new HashMap<>();
@@ -69,10 +182,21 @@ public class CSVDataManager implements DataManager{
      */
     public CSVDataManager(){
         configFilePath();
+        configCodec();
+        configIndex();
+        configTableLock();
+        configUniqueIndex();
+        configCountIndex();
+        configSortedIndex();
+        configIntervalIndex();
+        configUUIDKeyedTable();
         configLoadResolver();
         configDeleteResolver();
         configSaveResolver();
+        recoverJournal();
         loadData();
+        configCompaction();
+        configGroupCommit();
     }
 
     /**
@@ -87,6 +211,105 @@ public class CSVDataManager implements DataManager{
         filePaths.put(Application.class, "./data/ApplicationList.csv");
     }
 
+    /**
+     * Builds the {@link ModelCodec} of each data model class once, so that loading and saving
+     * rows does not need any reflective lookup.
+     */
+    private void configCodec(){
+        for(Class<? extends DataModel> clazz:filePaths.keySet()){
+            codecs.put(clazz, new ModelCodec<>(clazz, this::getByPK));
+        }
+    }
+
+    /**
+     * Prepares the indexes of each data model class.
+     * The indexes themselves are built on their first lookup.
+     */
+    private void configIndex(){
+        for(Class<? extends DataModel> clazz:filePaths.keySet()){
+            indexes.addTable(clazz);
+        }
+    }
+
+    /**
+     * Creates the read/write lock of each table. The locks are not fair: operations are serialized,
+     * so at most one writer ever waits for a table.
+     */
+    private void configTableLock(){
+        for(Class<? extends DataModel> clazz:filePaths.keySet()){
+            tableLocks.put(clazz, new ReentrantReadWriteLock());
+        }
+    }
+
+    /**
+     * Declares the field combinations that identify at most one record of a table.
+     * Each combination is backed by a {@link UniqueIndex}, built on its first lookup or save.
+     */
+    private void configUniqueIndex(){
+        indexes.addUniqueKey(Application.class, List.of("applicant", "btoProject"));
+        indexes.addUniqueKey(OfficerRegistration.class, List.of("HDBOfficer", "btoProject"));
+    }
+
+    /**
+     * Declares the field combinations whose number of records is maintained by a {@link CountIndex},
+     * so that counting them does not scan the table. Each index is built on its first count.
+     */
+    private void configCountIndex(){
+        indexes.addCountKey(Application.class, List.of("btoProject", "flatType", "applicationStatus"));
+        indexes.addCountKey(Application.class, List.of("applicant", "applicationStatus"));
+    }
+
+    /**
+     * Declares the comparators whose order is maintained by a {@link SortedIndex}, so that queries sorted by
+     * them read the index in order instead of sorting. Each index is built on its first sorted query.
+     * <p>
+     * Comparators are matched by identity, so queries have to use the declared constants.
+     * </p>
+     */
+    private void configSortedIndex(){
+        indexes.addSortedKey(Application.class, Application.SORT_BY_CREATED_AT_DESC,
+            () -> new SortedIndex<Application>(Application.SORT_BY_CREATED_AT_DESC));
+        indexes.addSortedKey(Enquiry.class, Enquiry.SORT_BY_CREATED_AT_DESC,
+            () -> new SortedIndex<Enquiry>(Enquiry.SORT_BY_CREATED_AT_DESC));
+        indexes.addSortedKey(OfficerRegistration.class, OfficerRegistration.SORT_BY_CREATED_AT_DESC,
+            () -> new SortedIndex<OfficerRegistration>(OfficerRegistration.SORT_BY_CREATED_AT_DESC));
+        // Whether a project is active depends on the current date, so it is only checked when reading the index
+        indexes.addSortedKey(BTOProject.class, BTOProject.DEFAULT_COMPARATOR,
+            () -> new SortedIndex<BTOProject>(Comparator.comparing(BTOProject::getName), BTOProject::isActive));
+    }
+
+    /**
+     * Declares the periods whose overlaps are answered by an {@link IntervalIndex}, so that queries with
+     * {@link Query#whereOverlapping(String, Comparable, Comparable)} and {@code EQUALS} conditions on the
+     * partition fields do not compare every record. Each index is built on its first query.
+     */
+    private void configIntervalIndex(){
+        indexes.addIntervalPeriod(BTOProject.class, "applicationPeriod",
+            () -> new IntervalIndex<BTOProject>(
+                List.of("HDBManager"), List.of(BTOProject::getHDBManager),
+                BTOProject::getOpeningDate, BTOProject::getClosingDate
+            ));
+        // Registrations take the period of their project, so they are indexed again whenever it is saved
+        indexes.addIntervalPeriod(OfficerRegistration.class, "applicationPeriod",
+            () -> new IntervalIndex<OfficerRegistration>(
+                List.of("HDBOfficer"), List.of(OfficerRegistration::getHDBOfficer),
+                registration -> registration.getBTOProject().getOpeningDate(),
+                registration -> registration.getBTOProject().getClosingDate(),
+                "btoProject"
+            ));
+    }
+
+    /**
+     * Declares the tables whose primary keys are generated by {@link java.util.UUID#randomUUID()},
+     * so that they are stored in a {@link UUIDKeyedTable}, which keeps the keys in binary form.
+     */
+    private void configUUIDKeyedTable(){
+        uuidKeyedTables.add(Application.class);
+        uuidKeyedTables.add(Enquiry.class);
+        uuidKeyedTables.add(FlatUnit.class);
+        uuidKeyedTables.add(OfficerRegistration.class);
+    }
+
     /**
      * Configures any load-time resolvers for handling relationships.
      */
@@ -109,13 +332,40 @@ public class CSVDataManager implements DataManager{
         saveResolvers.put(Application.class, new ApplicationRelationshipResolver());
     }
 
+    /**
+     * Schedules the background compaction of change logs into their CSV files.
+     * The compaction thread is a daemon thread so that it never keeps the application alive.
+     */
+    private void configCompaction(){
+        scheduler.scheduleWithFixedDelay(this::compactAll, COMPACTION_INTERVAL_SECONDS, COMPACTION_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Schedules the periodic flush of dirty tables if a group-commit interval is configured.
+     * Dirty tables are also flushed when the application exits.
+     */
+    private void configGroupCommit(){
+        if(groupCommitIntervalMillis <= 0) return;
+
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, groupCommitIntervalMillis, groupCommitIntervalMillis, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flushQuietly));
+    }
+
     /**
      * Loads and parses all CSV data into memory, initializing {@link DataModel} instances 
      * and resolving defined object relationships.
      * <p>
-     * This method reads from pre-configured CSV file paths, transforms raw data into model
-     * objects using reflection and annotations, and applies any {@code LoadResolver} logic 
-     * to establish relationships.
+     * This method reads from pre-configured CSV file paths, replays their change logs, 
+     * transforms raw data into model objects using their {@link ModelCodec}, 
+     * and applies any {@code LoadResolver} logic to establish relationships.
+     * </p>
+     * <p>
+     * Tables are read and parsed concurrently on a thread pool. Only the order given by
+     * foreign keys is enforced: a table is parsed once every table it references is parsed.
+     * </p>
+     * <p>
+     * If binary snapshots are enabled, a table with an up-to-date snapshot is decoded from it
+     * instead of its CSV file, and its change log is replayed on the decoded models.
      * </p>
      * 
      * @throws DataParsingException at runtime if loading or parsing fails.
@@ -123,35 +373,263 @@ public class CSVDataManager implements DataManager{
      *                              that may require terminating the application.
      */
     private void loadData(){
+        final ExecutorService executor = Executors.newFixedThreadPool(
+            Math.min(filePaths.size(), Runtime.getRuntime().availableProcessors())
+        );
+
         try{
-            for(Entry<Class<? extends DataModel>, String> filePath:filePaths.entrySet()){
+            final Map<Class<? extends DataModel>, CompletableFuture<Void>> loads = new HashMap<>();
+
+            for(Class<? extends DataModel> clazz:getLoadOrder()){
                 /**
-                 * Reads raw data for each model.
+                 * Raw data of every table is read concurrently, with its change log applied. 
+                 * Parsing a table waits until the tables referenced by its foreign keys are parsed.
                  */
-                List<List<String>> rawData = CSVFileReader.readFile(filePath.getValue());
-                    
-                Class<? extends DataModel> clazz = filePath.getKey();
-                data.put(clazz, parseData(clazz, rawData));
+                final CompletableFuture<?>[] dependencies = codecs.get(clazz).getForeignKeyClasses().stream()
+                    .filter(foreignKeyClass -> foreignKeyClass != clazz)
+                    .map(loads::get)
+                    .toArray(CompletableFuture<?>[]::new);
+
+                final boolean isFromSnapshot = isSnapshotEnabled && tableStore.isSnapshotUpToDate(clazz);
+
+                final CompletableFuture<Void> load = CompletableFuture
+                    .supplyAsync(() -> isFromSnapshot ? List.<List<String>>of() : timeLoad(clazz, () -> tableStore.readTableFromCSV(clazz)), executor)
+                    .thenCombineAsync(CompletableFuture.allOf(dependencies), (rawData, _) -> {
+                        data.put(clazz, timeLoad(clazz, () -> isFromSnapshot ? readSnapshot(clazz) : parseData(clazz, rawData)));
+                        return null;
+                    }, executor);
+
+                loads.put(clazz, load);
             }
+
+            CompletableFuture.allOf(loads.values().toArray(CompletableFuture<?>[]::new)).join();
+            reportLoadTimes();
             
             /**
              * This loop is where each LoadResolver instance is invoked after all data has been read and parsed. 
-             * The LoadResolver implementations are responsible for linking related objects together in memory 
+             * The LoadResolver implementations are responsible for linking related objects together in memory,
+             * reading the records of other tables from the load groups filled beforehand.
              */
+            fillLoadGroups();
             for(LoadResolver loadResolver:loadResolvers){
                 loadResolver.resolveLoad(this);
+                loadResolver.getLoadGroups().forEach(LoadGroup::clear);
             }
+        } catch (CompletionException e){
+            throw new DataParsingException(e.getCause().getMessage());
         } catch (Exception e){
             throw new DataParsingException(e.getMessage());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Fills the {@link LoadGroup}s declared by all load resolvers, as the build side of a hash join.
+     * <p>
+     * Each table is read once, however many groups are declared on it, so resolving the relationships takes
+     * time linear in the size of the tables. No index is built, so unused indexes still cost nothing at startup.
+     * </p>
+     *
+     * @throws IllegalArgumentException If a group is declared on a field that is not a foreign key of its table.
+     */
+    @SuppressWarnings("unchecked")
+    private void fillLoadGroups(){
+        final Map<Class<? extends DataModel>, Map<LoadGroup<DataModel>, Function<DataModel, DataModel>>> groups = new LinkedHashMap<>();
+
+        for(LoadResolver loadResolver:loadResolvers){
+            for(LoadGroup<?> group:loadResolver.getLoadGroups()){
+                final Class<? extends DataModel> clazz = group.getModelClass();
+                final Function<DataModel, DataModel> getter = ((ModelCodec<DataModel>) codecs.get(clazz)).getForeignKeyGetters().get(group.getField());
+                if(getter == null){
+                    throw new IllegalArgumentException("%s is not a foreign key of %s".formatted(group.getField(), clazz.getSimpleName()));
+                }
+
+                groups.computeIfAbsent(clazz, _ -> new LinkedHashMap<>()).put((LoadGroup<DataModel>) group, getter);
+            }
+        }
+
+        for(Entry<Class<? extends DataModel>, Map<LoadGroup<DataModel>, Function<DataModel, DataModel>>> table:groups.entrySet()){
+            for(DataModel model:data.get(table.getKey()).values()){
+                table.getValue().forEach((group, getter) -> group.add(getter.apply(model), model));
+            }
+        }
+    }
+
+    /**
+     * Creates the empty storage of a table: a {@link UUIDKeyedTable} if the table is keyed by UUIDs,
+     * or a hash map otherwise.
+     *
+     * @param <T>          The type of {@code DataModel} stored.
+     * @param clazz        The class representing the table.
+     * @param expectedSize The number of records expected in the table.
+     * @return the storage of the table, mapping primary keys to records
+     */
+    private <T extends DataModel> Map<String, DataModel> newTable(Class<T> clazz, int expectedSize){
+        if(uuidKeyedTables.contains(clazz)){
+            return new UUIDKeyedTable(expectedSize);
+        }
+
+        return new HashMap<>(expectedSize * 4 / 3 + 1);
+    }
+
+    /**
+     * Orders the tables so that every table comes after the tables referenced by its foreign keys.
+     * <p>
+     * The dependency graph is built from the {@code @CSVField(foreignKey = true)} declarations
+     * of each model. A table referencing itself does not depend on any other table.
+     * </p>
+     *
+     * @return the tables in dependency order
+     * @throws DataParsingException if a foreign key references a table that is not configured,
+     *                              or if the foreign keys form a cycle
+     */
+    private List<Class<? extends DataModel>> getLoadOrder(){
+        final List<Class<? extends DataModel>> loadOrder = new ArrayList<>();
+        final Set<Class<? extends DataModel>> visiting = new HashSet<>();
+
+        for(Class<? extends DataModel> clazz:filePaths.keySet()){
+            addToLoadOrder(clazz, loadOrder, visiting);
+        }
+
+        return loadOrder;
+    }
+
+    /**
+     * Adds a table to the load order after all of its dependencies, using depth-first search.
+     *
+     * @param clazz     the table to add
+     * @param loadOrder the load order built so far
+     * @param visiting  the tables on the current search path, used to detect cycles
+     */
+    private void addToLoadOrder(Class<? extends DataModel> clazz, List<Class<? extends DataModel>> loadOrder, Set<Class<? extends DataModel>> visiting){
+        if(loadOrder.contains(clazz)) return;
+
+        if(!filePaths.containsKey(clazz)){
+            throw new DataParsingException("Foreign key references a table without file path. Class: %s".formatted(clazz));
+        }
+        if(!visiting.add(clazz)){
+            throw new DataParsingException("Foreign keys form a cycle. Class: %s".formatted(clazz));
+        }
+
+        for(Class<? extends DataModel> foreignKeyClass:codecs.get(clazz).getForeignKeyClasses()){
+            if(foreignKeyClass != clazz){
+                addToLoadOrder(foreignKeyClass, loadOrder, visiting);
+            }
+        }
+
+        visiting.remove(clazz);
+        loadOrder.add(clazz);
+    }
+
+    /**
+     * Runs a step of loading a table and adds its duration to the load time of the table.
+     *
+     * @param <R>   the result type of the step
+     * @param clazz the table being loaded
+     * @param step  the step to run
+     * @return the result of the step
+     * @throws UncheckedIOException if the step fails to read the table
+     */
+    private <R> R timeLoad(Class<? extends DataModel> clazz, Callable<R> step){
+        final long start = System.nanoTime();
+
+        try {
+            return step.call();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DataParsingException(e.getMessage());
+        } finally {
+            loadTimes.merge(clazz, System.nanoTime() - start, Long::sum);
+        }
+    }
+
+    /**
+     * Prints the time spent loading each table, excluding time spent waiting for other tables,
+     * and the memory saved by interning its repeated values,
+     * if enabled through the {@value #LOAD_TIME_REPORT_PROPERTY} system property.
+     */
+    private void reportLoadTimes(){
+        if(!Boolean.getBoolean(LOAD_TIME_REPORT_PROPERTY)) return;
+
+        for(Class<? extends DataModel> clazz:filePaths.keySet()){
+            System.out.println("Loaded %s: %d records in %d ms, %d KB saved by interning".formatted(
+                clazz.getSimpleName(), data.get(clazz).size(), loadTimes.get(clazz) / 1_000_000,
+                internedBytes.getOrDefault(clazz, 0L) / 1024
+            ));
         }
     }
 
     /**
-     * Parses raw CSV data into a map of {@link DataModel} instances using reflection and custom annotations.
+     * Returns the time spent loading each table at startup, excluding time spent waiting
+     * for the tables it depends on.
+     *
+     * @return the load time of each table in nanoseconds
+     */
+    public Map<Class<? extends DataModel>, Long> getLoadTimes() {
+        return Map.copyOf(loadTimes);
+    }
+
+    /**
+     * Returns the memory saved at startup by sharing the repeated values of each table,
+     * such as neighbourhoods and dates, instead of keeping one instance per row.
+     *
+     * @return the estimated bytes saved for each table
+     * @see ValueInterner
+     */
+    public Map<Class<? extends DataModel>, Long> getInternedBytes() {
+        return Map.copyOf(internedBytes);
+    }
+
+    /**
+     * Decodes a table from its binary snapshot, and replays its change log on the decoded models.
+     * The snapshot is assumed to be checked by {@link CSVTableStore#isSnapshotUpToDate(Class)}.
+     * If the snapshot turns out to be corrupted, the table is loaded from its CSV file instead.
+     *
+     * @param <T>   the type of {@code DataModel} being decoded
+     * @param clazz the class representing the table
+     * @return a map of primary keys to their decoded model instances
+     * @throws IOException if the snapshot or the change log cannot be read
+     * @throws DataParsingException if a row cannot be decoded, or the change log contains an unknown record
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends DataModel> Map<String, DataModel> readSnapshot(Class<T> clazz) throws IOException{
+        final ModelCodec<T> codec = (ModelCodec<T>) codecs.get(clazz);
+        final ByteBuffer snapshot = tableStore.openSnapshot(clazz);
+        final ValueInterner interner = codec.newInterner();
+
+        final Map<String, DataModel> data;
+        try {
+            if(snapshot == null){
+                return parseData(clazz, tableStore.readTableFromCSV(clazz));
+            }
+
+            final int rowCount = snapshot.getInt();
+            data = newTable(clazz, rowCount);
+
+            for(int i = 0; i < rowCount; i++){
+                T obj = codec.decodeBinary(snapshot, interner);
+                data.put(obj.getPK(), obj);
+            }
+        } catch (RuntimeException e) {
+            return parseData(clazz, tableStore.readTableFromCSV(clazz));
+        }
+
+        tableStore.replayLog(clazz, data, row -> codec.decode(row, interner));
+
+        internedBytes.merge(clazz, interner.getSavedBytes(), Long::sum);
+        return data;
+    }
+
+    /**
+     * Parses raw CSV data into a map of {@link DataModel} instances using the {@link ModelCodec} of the model.
      * <p>
-     * This method dynamically constructs objects of the specified {@code DataModel} class by reading 
-     * values from the provided CSV rows. It uses annotations to map CSV columns to the corresponding 
-     * fields in the model class. Each resulting object is stored in a map using its primary key as the key.
+     * Each resulting object is stored in a map using its primary key as the key.
+     * Foreign key columns are resolved against the tables loaded before this one,
+     * and repeated values are shared through a {@link ValueInterner}.
      * </p>
      *
      * @param <T>      the type of {@code DataModel} being parsed.
@@ -160,109 +638,326 @@ public class CSVDataManager implements DataManager{
      * 
      * @return a map of {@code DataModel} instances indexed by their primary key for fast lookup.
      * 
-     * @throws NoSuchMethodException        If a required constructor is not found in the model class.
-     * @throws SecurityException            If access to the model class or its members is denied.
-     * @throws InstantiationException       If the model class cannot be instantiated.
-     * @throws IllegalAccessException       If the model constructor or fields are not accessible.
-     * @throws IllegalArgumentException     If an invalid argument is used during instantiation or field assignment.
-     * @throws InvocationTargetException    If the constructor or field accessors throw an exception.
+     * @throws DataParsingException if a row cannot be decoded into the model.
      */
     @SuppressWarnings("unchecked")
-    private <T extends DataModel> Map<String, DataModel> parseData(Class<T> clazz, List<List<String>> rawData) throws NoSuchMethodException, SecurityException, InstantiationException, IllegalAccessException, IllegalArgumentException, InvocationTargetException{
-        Map<String, DataModel> data = new HashMap<>();
-
-        Constructor<T> constructor = clazz.getDeclaredConstructor();
-        // set constructor to be assessible if it is private
-        constructor.setAccessible(true);
-
-        Field[] fields = clazz.getDeclaredFields();
+    private <T extends DataModel> Map<String, DataModel> parseData(Class<T> clazz, List<List<String>> rawData){
+        final ModelCodec<T> codec = (ModelCodec<T>) codecs.get(clazz);
+        final Map<String, DataModel> data = newTable(clazz, rawData.size());
+        final ValueInterner interner = codec.newInterner();
 
         for(List<String> values:rawData){
-            T obj = constructor.newInstance();
-
-            for(Field field:fields) {
-                if (field.isAnnotationPresent(CSVField.class)) {
-                    CSVField annotation = field.getAnnotation(CSVField.class);
-                    int index = annotation.index();
-                    boolean isForeignKey = annotation.foreignKey();
-                    
-                    field.setAccessible(true);
-                    String value = values.get(index);
-                    
-                    if(isForeignKey){
-                        if(!DataModel.class.isAssignableFrom(field.getType())){
-                            throw new DataParsingException("Foreign key should be class implementing DataModel. Class: %s".formatted(field.getType()));
-                        }
-
-                        field.set(obj, getByPK((Class<T>) field.getType(), value));
-                    }
-                    else{
-                        field.set(obj, DataParser.parse(field.getType(), value));
-                    }
-                }
-            }
-
+            T obj = codec.decode(values, interner);
             data.put(obj.getPK(), obj);
         }
 
+        internedBytes.merge(clazz, interner.getSavedBytes(), Long::sum);
         return data;
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public <T extends DataModel> List<T> getAll(Class<T> clazz){
-        return (List<T>) List.copyOf(data.get(clazz).values());
+        // The running operation reads its own changes, while other sessions keep reading the last snapshot
+        final boolean isWriting = tableLocks.containsKey(clazz) && tableLocks.get(clazz).isWriteLockedByCurrentThread();
+        final List<? extends DataModel> snapshot = tableSnapshots.get(clazz);
+        if(snapshot != null && !isWriting) return (List<T>) snapshot;
+
+        return read(clazz, () -> {
+            final List<T> records = (List<T>) List.copyOf(data.get(clazz).values());
+            if(!isWriting){
+                tableSnapshots.put(clazz, records);
+            }
+            return records;
+        });
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public <T extends DataModel> List<T> getAll(Class<T> clazz, Comparator<T> comparator){
-        Stream<T> stream = (Stream<T>) data.get(clazz).values().stream();
-        return stream.sorted(comparator).toList();
+        return read(clazz, () -> planner.plan(new Query<>(clazz).orderBy(comparator)).execute()
+                .toList());
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public <T extends DataModel> T getByPK(Class<T> clazz, String PK){
-        return (T) data.get(clazz).get(PK);
+        return read(clazz, () -> (T) data.get(clazz).get(PK));
     }
 
     @Override
     public <T extends DataModel> List<T> getByQuery(Class<T> clazz, Predicate<T> query) {
-        return getStreamByQueries(clazz, List.of(query))
-                .collect(Collectors.toList());
+        return read(clazz, () -> getStreamByQueries(clazz, List.of(query))
+                .collect(Collectors.toList()));
     }
 
     @Override
     public <T extends DataModel> List<T> getByQuery(Class<T> clazz, Predicate<T> query, Comparator<T> comparator) {
-        return getStreamByQueries(clazz, List.of(query))
-                .sorted(comparator)
-                .collect(Collectors.toList());
+        return read(clazz, () -> getStreamByQueries(clazz, List.of(query), comparator)
+                .collect(Collectors.toList()));
     }
 
     @Override
     public <T extends DataModel> List<T> getByQueries(Class<T> clazz, List<Predicate<T>> queries) {
-        return getStreamByQueries(clazz, queries)
-                .collect(Collectors.toList());
+        return read(clazz, () -> getStreamByQueries(clazz, queries)
+                .collect(Collectors.toList()));
     }
 
     @Override
     public <T extends DataModel> List<T> getByQueries(Class<T> clazz, List<Predicate<T>> queries, Comparator<T> comparator) {
-        return getStreamByQueries(clazz, queries)
-                .sorted(comparator)
-                .collect(Collectors.toList());
+        return read(clazz, () -> getStreamByQueries(clazz, queries, comparator)
+                .collect(Collectors.toList()));
     }
 
     @Override
     public <T extends DataModel> long countByQuery(Class<T> clazz, Predicate<T> query) {
-        return getStreamByQueries(clazz, List.of(query))
-                .count();
+        return read(clazz, () -> getStreamByQueries(clazz, List.of(query))
+                .count());
     }
 
     @Override
     public <T extends DataModel> long countByQueries(Class<T> clazz, List<Predicate<T>> queries) {
-        return getStreamByQueries(clazz, queries)
-                .count();
+        return read(clazz, () -> getStreamByQueries(clazz, queries)
+                .count());
+    }
+
+    @Override
+    public <T extends DataModel> List<T> getByQuery(Query<T> query) {
+        return read(query.getModelClass(), () -> planner.plan(query).execute()
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>A query made only of {@code EQUALS} and {@code IN} conditions on exactly the fields of a
+     * {@link CountIndex} is answered from the index, without retrieving any record.</p>
+     */
+    @Override
+    public <T extends DataModel> long countByQuery(Query<T> query) {
+        return read(query.getModelClass(), () -> {
+            final long count = planner.countByIndex(query);
+            if(count >= 0) return count;
+
+            return planner.plan(query).execute()
+                    .count();
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>The plan stops at the first matching record, so a query covering the fields of a
+     * {@link UniqueIndex} is answered with a single hash lookup. A query on the fields of a
+     * {@link CountIndex} is answered from the index, as in {@link #countByQuery(Query)}.</p>
+     */
+    @Override
+    public <T extends DataModel> boolean exists(Query<T> query) {
+        return read(query.getModelClass(), () -> {
+            final long count = planner.countByIndex(query);
+            if(count >= 0) return count > 0;
+
+            return planner.plan(query).execute()
+                    .findAny()
+                    .isPresent();
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>The matching records are collected under the read lock of the table. A sorted and limited query
+     * only keeps the records up to its limit while selecting them.</p>
+     */
+    @Override
+    public <T extends DataModel> Stream<T> stream(Query<T> query) {
+        return read(query.getModelClass(), () -> planner.plan(query).execute()
+                .toList())
+                .stream();
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>One more record than the page size is looked up to find out whether there is a next page,
+     * so only the records of the page are kept in memory.</p>
+     */
+    @Override
+    public <T extends DataModel> Page<T> getPage(Query<T> query, int pageNumber, int pageSize) {
+        if(pageNumber < 0 || pageSize <= 0){
+            throw new IllegalArgumentException("Invalid page %d of size %d".formatted(pageNumber, pageSize));
+        }
+
+        final List<T> records = read(query.getModelClass(), () -> planner.plan(query, Math.multiplyExact(pageNumber, pageSize), pageSize + 1).execute()
+                .collect(Collectors.toList()));
+
+        final boolean hasNext = records.size() > pageSize;
+        return new Page<>(hasNext ? records.subList(0, pageSize) : records, pageNumber, hasNext);
+    }
+
+    @Override
+    public <T extends DataModel> String explain(Query<T> query) {
+        return read(query.getModelClass(), () -> planner.plan(query).explain());
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>The records are read from the {@link VersionStore} of the table at the number of the last commit,
+     * so neither the read nor the predicate takes the lock of the table. Only the matching records are copied.</p>
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends DataModel> List<T> getSnapshotByQuery(Class<T> clazz, Predicate<T> predicate) {
+        final ModelCodec<T> codec = (ModelCodec<T>) codecs.get(clazz);
+        final VersionStore<DataModel> store = getVersionStore(clazz);
+
+        final long version = openSnapshot();
+        try {
+            return store.read(version, record -> predicate.test((T) record)).stream()
+                .map(record -> codec.copy((T) record))
+                .collect(Collectors.toList());
+        } finally {
+            closeSnapshot(version);
+        }
+    }
+
+    /**
+     * Retrieves the version store of a table, building it from the records of the table
+     * if it is read through a snapshot for the first time.
+     * <p>
+     * The store is built under the read lock of the table, so it holds the table as of the last commit,
+     * and is in place before the next operation writing the table publishes its versions.
+     * </p>
+     *
+     * @param clazz The class representing the table.
+     * @return the version store of the table
+     * @throws IllegalArgumentException If the class is not a configured table.
+     */
+    @SuppressWarnings("unchecked")
+    private VersionStore<DataModel> getVersionStore(Class<? extends DataModel> clazz){
+        final VersionStore<DataModel> existing = versionStores.get(clazz);
+        if(existing != null) return existing;
+        if(!tableLocks.containsKey(clazz)){
+            throw new IllegalArgumentException("%s is not a configured table".formatted(clazz.getSimpleName()));
+        }
+
+        return read(clazz, () -> {
+            synchronized(versionStores){
+                VersionStore<DataModel> store = versionStores.get(clazz);
+                if(store == null){
+                    final ModelCodec<DataModel> codec = (ModelCodec<DataModel>) codecs.get(clazz);
+                    final long version = committedVersion;
+
+                    store = new VersionStore<>();
+                    for(DataModel model:data.get(clazz).values()){
+                        store.publish(model.getPK(), codec.copy(model), version, version);
+                    }
+                    versionStores.put(clazz, store);
+                }
+                return store;
+            }
+        });
+    }
+
+    /**
+     * Registers a snapshot read at the number of the last commit, so that the versions it reads are kept.
+     * The number is read again once registered, in case a commit was published in between and did not see it.
+     *
+     * @return the number of the commit to read at
+     */
+    private long openSnapshot(){
+        while(true){
+            final long version = committedVersion;
+            snapshotReads.merge(version, 1, Integer::sum);
+            if(version == committedVersion) return version;
+
+            closeSnapshot(version);
+        }
+    }
+
+    /**
+     * Unregisters a snapshot read.
+     *
+     * @param version the number of the commit it read at
+     */
+    private void closeSnapshot(long version){
+        snapshotReads.computeIfPresent(version, (_, count) -> count == 1 ? null : count - 1);
+    }
+
+    /**
+     * Returns the number of the oldest commit that a snapshot read in progress, or about to start, may read at.
+     *
+     * @return the number of the oldest commit still read
+     */
+    private long getOldestSnapshot(){
+        final long version = committedVersion;
+        final Entry<Long, Integer> oldest = snapshotReads.firstEntry();
+
+        return oldest == null ? version : Math.min(oldest.getKey(), version);
+    }
+
+    /**
+     * Publishes the records of a commit to the version stores of their tables, under a new commit number.
+     * The new versions are all in place before the number is, so a snapshot read sees either none or all of them.
+     *
+     * @param records The committed records of each table, by primary key.
+     */
+    @SuppressWarnings("unchecked")
+    private void publishVersion(Map<Class<? extends DataModel>, Map<String, List<String>>> records){
+        if(versionStores.isEmpty()) return;
+
+        final long version = committedVersion + 1;
+        final long oldestSnapshot = getOldestSnapshot();
+        for(Entry<Class<? extends DataModel>, Map<String, List<String>>> tableRecords:records.entrySet()){
+            final VersionStore<DataModel> store = versionStores.get(tableRecords.getKey());
+            if(store == null) continue;
+
+            final ModelCodec<DataModel> codec = (ModelCodec<DataModel>) codecs.get(tableRecords.getKey());
+            for(Entry<String, List<String>> record:tableRecords.getValue().entrySet()){
+                final List<String> row = record.getValue();
+                final DataModel committed = row.get(0).equals(CSVTableStore.UPSERT_RECORD) ? codec.decode(row.subList(1, row.size())) : null;
+                store.publish(record.getKey(), committed, version, oldestSnapshot);
+            }
+        }
+        committedVersion = version;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>Records are looked up in the {@link HashIndex} of the foreign key column, without scanning the table.
+     * The first lookup of a foreign key column builds its index with a single scan.</p>
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends DataModel> List<T> getByForeignKey(Class<T> clazz, String field, DataModel foreignModel) {
+        return read(clazz, () -> (List<T>) indexes.getForeignKeyIndex(clazz, field).get(foreignModel));
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>Records are looked up in the {@link HashIndex} of the foreign key column, without scanning the table.</p>
+     */
+    @Override
+    public <T extends DataModel> List<T> getByForeignKey(Class<T> clazz, String field, DataModel foreignModel, Comparator<T> comparator) {
+        return getByForeignKey(clazz, field, foreignModel).stream()
+                .sorted(comparator)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Indexes again the records whose period is read through a foreign key referencing a model,
+     * since their interval indexes cannot observe the changes of the model.
+     *
+     * @param model The saved or restored model.
+     */
+    private void reindexReferencing(DataModel model){
+        for(Class<? extends DataModel> clazz:indexes.getReferencingTables(model.getClass())){
+            lockForWrite(clazz);
+            indexes.reindexReferencing(clazz, model);
+        }
     }
 
     /**
@@ -270,7 +965,7 @@ public class CSVDataManager implements DataManager{
      * all given query predicates.
      * <p>
      * This is a helper method designed to streamline query-based operations
-     * by applying a composite filter built from a list of {@link Predicate} conditions.
+     * by running a {@link Query} made of the given {@link Predicate} conditions as residual filters.
      * The stream returned allows further functional-style processing of the filtered results
      * such as {@code count()} or {@code collect()}.
      * </p>
@@ -280,148 +975,518 @@ public class CSVDataManager implements DataManager{
      * @param queries A list of predicates that models must satisfy. All predicates will be combined with logical AND.
      * @return A {@code Stream<T>} of matching models, or an empty stream if no data is found for the given class.
      */
-    @SuppressWarnings("unchecked")
     private <T extends DataModel> Stream<T> getStreamByQueries(Class<T> clazz, List<Predicate<T>> queries){
-        Map<String, T> classData = (Map<String, T>) data.get(clazz);
+        return getStreamByQueries(clazz, queries, null);
+    }
 
-        if (classData == null) {
-            return Stream.empty();
+    /**
+     * Retrieves a sorted stream of {@link DataModel} instances of the specified type that match
+     * all given query predicates.
+     * <p>
+     * Sorting by a comparator declared in {@link #configSortedIndex()} reads the records in order
+     * from its {@link SortedIndex}, instead of sorting them.
+     * </p>
+     *
+     * @param <T>        The type of {@code DataModel} to query.
+     * @param clazz      The class representing the model type (used to look up the corresponding data "table").
+     * @param queries    A list of predicates that models must satisfy. All predicates will be combined with logical AND.
+     * @param comparator The comparator used to sort the models, or {@code null} to leave them unsorted.
+     * @return A {@code Stream<T>} of matching models, or an empty stream if no data is found for the given class.
+     */
+    private <T extends DataModel> Stream<T> getStreamByQueries(Class<T> clazz, List<Predicate<T>> queries, Comparator<T> comparator){
+        final Query<T> query = new Query<>(clazz).orderBy(comparator);
+
+        for(Predicate<T> predicate:queries){
+            query.filter(predicate);
         }
-        return classData.values().stream()
-                .filter(queries.stream().reduce(Predicate::and).orElse(_ -> true));
+
+        return planner.plan(query).execute();
     }
     
     /**
      * {@inheritDoc}
      * 
      * <p><strong>Note:</strong> Since data is stored in CSV format, locating and overwriting a specific line 
-     * is non-trivial. For simplicity and maintainability (at the cost of efficiency), the entire dataset is 
-     * rewritten whenever this method is called.</p>
+     * is non-trivial. Instead of rewriting the entire dataset, an upsert record is appended to the change
+     * log of the table, which is merged back into the CSV file during compaction.</p>
      */
     @Override
     @SuppressWarnings("unchecked")
-    public <T extends DataModel> void save(T model) throws DataSavingException {
-        Class<T> clazz = (Class<T>) model.getClass();
+    public synchronized <T extends DataModel> void save(T model) throws DataSavingException {
+        final Class<T> clazz = (Class<T>) model.getClass();
+        lockForWrite(clazz);
+        try {
+            saveLocked(clazz, model);
+        } finally {
+            unlockTables();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The version is checked against the record held by the table, under the write lock of the table,
+     * so no other save can come in between.</p>
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized <T extends DataModel> void save(T model, int expectedVersion) throws DataSavingException {
+        final Class<T> clazz = (Class<T>) model.getClass();
+        lockForWrite(clazz);
+        try {
+            final DataModel stored = data.get(clazz).get(model.getPK());
+            if(stored == null){
+                throw new DataConflictException("%s %s no longer exists.".formatted(clazz.getSimpleName(), model.getPK()));
+            }
+            if(stored.getVersion() != expectedVersion){
+                throw new DataConflictException("%s %s was changed by another user (version %d, edited from version %d)."
+                    .formatted(clazz.getSimpleName(), model.getPK(), stored.getVersion(), expectedVersion));
+            }
+            saveLocked(clazz, model);
+        } finally {
+            unlockTables();
+        }
+    }
+
+    /**
+     * Saves a model once the write lock of its table is held, incrementing the version of its record
+     * unless the save is cascaded from another by a resolver.
+     *
+     * @param <T>   The type of {@code DataModel} to save.
+     * @param clazz The class type of the model.
+     * @param model The model to save.
+     * @throws DataSavingException If the model conflicts with another record or cannot be written.
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends DataModel> void saveLocked(Class<T> clazz, T model) throws DataSavingException {
+        indexes.checkUniqueness(clazz, model);
 
-        boolean isAdding = !data.get(clazz).containsKey(model.getPK());
+        final ModelCodec<T> codec = (ModelCodec<T>) codecs.get(clazz);
+        final DataModel stored = data.get(clazz).get(model.getPK());
+        boolean isAdding = stored == null;
+        final int previousVersion = model.getVersion();
+        final Map<CountIndex<DataModel>, List<Object>> countedKeys = indexes.getCountedKeys(clazz, model);
+        final Map<IntervalIndex<DataModel>, List<Object>> indexedPeriods = indexes.getIndexedPeriods(clazz, model);
         if(isAdding) data.get(clazz).put(model.getPK(), model);
+        indexes.add(clazz, model);
+        // Counted from the stored record, in case the model saved is a copy of it.
+        // A cascaded save only writes a related record back, such as the project of a saved application, so it is not an edit of its own
+        if(isAdding) codec.setVersion(model, previousVersion + 1);
+        else codec.setVersion(model, cascadeDepth > 0 ? stored.getVersion() : stored.getVersion() + 1);
 
+        operationDepth++;
         try {
             SaveResolver<T> saveResolver = (SaveResolver<T>) saveResolvers.get(clazz);
 
             if(saveResolver != null){
-                saveResolver.resolveSave(model, this);
+                cascadeDepth++;
+                try {
+                    saveResolver.resolveSave(model, this);
+                } finally {
+                    cascadeDepth--;
+                }
             }
             
-            saveData(clazz);
-        } catch (DataSavingException e) {
-            if(isAdding) data.get(clazz).remove(model.getPK());
+            stageRecord(clazz, model.getPK(), toUpsertRecord(clazz, model));
+            commitOperation();
+            reindexReferencing(model);
+
+            if(isAdding && transactionDepth > 0){
+                transactionUndos.add(() -> {
+                    data.get(clazz).remove(model.getPK());
+                    indexes.remove(clazz, model);
+                });
+            }
+        } catch (DataSavingException | RuntimeException e) {
+            if(isAdding){
+                data.get(clazz).remove(model.getPK());
+                indexes.remove(clazz, model);
+            }
+            codec.setVersion(model, previousVersion);
+            // The model itself is restored by the caller, so its counts are moved back to their previous values
+            countedKeys.forEach((index, key) -> index.restore(model, key));
+            indexedPeriods.forEach((index, key) -> index.restore(model, key));
+            abortOperation();
             throw e;
+        } finally {
+            operationDepth--;
         }
     }
 
     /**
-     * Saves all in-memory data of the specified {@link DataModel} type to its associated CSV file.
-     * <p>
-     * Converts the model data to raw CSV format and writes it to the file path mapped to the given class.
-     * </p>
+     * Converts a model into an upsert record of the change log.
      *
-     * <p><strong>Note:</strong> Since data is stored in CSV format, locating and overwriting a specific line 
-     * is non-trivial. For simplicity and maintainability (at the cost of efficiency), the entire dataset is 
-     * rewritten whenever this method is called.</p>
+     * @param <T>   The type of {@code DataModel} to convert.
+     * @param clazz The class type of the model.
+     * @param model The model to convert.
+     * @return the upsert record, consisting of the record type followed by the CSV row of the model
+     * @throws DataSavingException If the model cannot be converted.
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends DataModel> List<String> toUpsertRecord(Class<T> clazz, T model) throws DataSavingException{
+        try {
+            List<String> record = new ArrayList<>();
+            record.add(CSVTableStore.UPSERT_RECORD);
+            record.addAll(((ModelCodec<T>) codecs.get(clazz)).encode(model));
+            return record;
+        } catch (DataParsingException e) {
+            throw new DataSavingException(e.getMessage());
+        }
+    }
+
+    /**
+     * Converts a model into a delete record of the change log.
      *
+     * @param model The model to convert.
+     * @return the delete record, consisting of the record type followed by the primary key of the model
+     */
+    private List<String> toDeleteRecord(DataModel model){
+        return List.of(CSVTableStore.DELETE_RECORD, model.getPK());
+    }
+
+    /**
+     * Stages a change log record for the operation in progress.
      * <p>
-     * If performance becomes a concern or frequent small updates are needed, consider refactoring 
-     * this logic to support more efficient line-level modifications, or migrating to a more update-friendly 
-     * format (e.g., structured binary file).
+     * Only the latest record of each primary key is kept, since replaying the 
+     * change log only depends on the last record of each row.
      * </p>
      *
-     * @param <T>   The type of {@code DataModel} to save.
-     * @param clazz The class type of the model to save.
-     * @throws DataSavingException If any error occurs during the conversion or file writing process.
+     * @param clazz  The class type of the table.
+     * @param PK     The primary key of the changed model.
+     * @param record The record to stage.
      */
-    @SuppressWarnings("unchecked")
-    private <T extends DataModel> void saveData(Class<T> clazz) throws DataSavingException{
-        String filePath = filePaths.get(clazz);
-        Collection<T> data = (Collection<T>) this.data.get(clazz).values();
+    private void stageRecord(Class<? extends DataModel> clazz, String PK, List<String> record){
+        stagedRecords.computeIfAbsent(clazz, _ -> new LinkedHashMap<>()).put(PK, record);
+    }
+
+    /**
+     * Completes an operation. If it is the outermost operation, its staged records are
+     * committed by marking their tables dirty, and the dirty tables are flushed 
+     * immediately unless a group-commit interval is configured. The committed records
+     * are then published to the snapshot reads.
+     *
+     * @throws DataSavingException If the dirty tables cannot be flushed.
+     */
+    private void commitOperation() throws DataSavingException{
+        if(operationDepth > 1) return;
+
+        final Map<Class<? extends DataModel>, Map<String, List<String>>> committedRecords = new LinkedHashMap<>(stagedRecords);
+        for(Entry<Class<? extends DataModel>, Map<String, List<String>>> records:stagedRecords.entrySet()){
+            dirtyRecords.computeIfAbsent(records.getKey(), _ -> new LinkedHashMap<>()).putAll(records.getValue());
+        }
+        stagedRecords.clear();
+
+        if(groupCommitIntervalMillis <= 0){
+            try {
+                flush();
+            } catch (DataSavingException e) {
+                // The caller is notified of the failure, so its records must not be written later.
+                dirtyRecords.clear();
+                throw e;
+            }
+        }
+        publishVersion(committedRecords);
+    }
+
+    /**
+     * Aborts an operation. If it is the outermost operation, all records staged 
+     * by it, including those of cascaded operations, are discarded.
+     */
+    private void abortOperation(){
+        if(operationDepth > 1) return;
+
+        stagedRecords.clear();
+    }
+
+    /**
+     * Runs a read of a table under its read lock, so that it never observes an operation half done.
+     * The result must be complete when returned, such as a list rather than a lazy stream, since the lock
+     * is released right away. Reads by the running operation itself go through, as it holds the write lock.
+     *
+     * @param <R>   The type of the result.
+     * @param clazz The class representing the table.
+     * @param read  The read to run.
+     * @return the result of the read
+     */
+    private <R> R read(Class<? extends DataModel> clazz, Supplier<R> read){
+        final ReentrantReadWriteLock lock = tableLocks.get(clazz);
+        if(lock == null) return read.get();
 
+        lock.readLock().lock();
         try {
-            List<List<String>> rawData = toRawData(clazz, data);
-            CSVFileWriter.writeFile(filePath, rawData);
+            return read.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Takes the write lock of a table about to be changed by the running operation, unless already held.
+     * The lock is held until the outermost operation or transaction ends, so that no read observes
+     * a cascade or a transaction half done.
+     *
+     * @param clazz The class representing the table.
+     */
+    private void lockForWrite(Class<? extends DataModel> clazz){
+        final ReentrantReadWriteLock lock = tableLocks.get(clazz);
+        if(lock == null || lock.isWriteLockedByCurrentThread()) return;
+
+        lock.writeLock().lock();
+        writeLockedTables.add(clazz);
+    }
+
+    /**
+     * Releases the write locks of the tables changed by the outermost operation or transaction once it ends,
+     * discarding their snapshots, which may no longer match the tables.
+     */
+    private void unlockTables(){
+        if(operationDepth > 0 || transactionDepth > 0) return;
+
+        for(Class<? extends DataModel> clazz:writeLockedTables){
+            tableSnapshots.remove(clazz);
+            tableLocks.get(clazz).writeLock().unlock();
+        }
+        writeLockedTables.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>
+     * The transaction is run as one operation, like a {@code save()} with all its cascades, so all its records
+     * are staged together and written by a single flush, through the journal if several tables are involved.
+     * </p>
+     */
+    @Override
+    public synchronized <E extends Exception> void transaction(Transaction<E> work) throws E, DataSavingException {
+        transactionDepth++;
+        operationDepth++;
+        try {
+            work.run();
+            commitOperation();
         } catch (Exception e) {
-            throw new DataSavingException(e.getMessage());
+            if(transactionDepth == 1){
+                rollbackTransaction();
+            }
+            abortOperation();
+            throw e;
+        } finally {
+            operationDepth--;
+            if(--transactionDepth == 0){
+                transactionUndos.clear();
+                trackedRows.clear();
+            }
+            unlockTables();
         }
     }
-    
+
     /**
-     * Converts a collection of data objects into a list of CSV rows (raw data),
-     * using reflection to read fields annotated with {@link CSVField}.
+     * {@inheritDoc}
+     * 
+     * <p>The state of a model is recorded as the row its {@link ModelCodec} would write.</p>
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized void track(DataModel... models) {
+        if(transactionDepth == 0) return;
+
+        for(DataModel model:models){
+            trackedRows.computeIfAbsent(model, _ -> ((ModelCodec<DataModel>) codecs.get(model.getClass())).encode(model));
+        }
+    }
+
+    /**
+     * Rolls back the in-memory changes of the running transaction.
+     * Models added or deleted by the transaction are removed from or put back into their tables,
+     * then tracked models are restored to their recorded rows and re-indexed.
+     */
+    @SuppressWarnings("unchecked")
+    private void rollbackTransaction(){
+        for(int i = transactionUndos.size() - 1; i >= 0; i--){
+            transactionUndos.get(i).run();
+        }
+
+        for(Entry<DataModel, List<String>> trackedRow:trackedRows.entrySet()){
+            final DataModel model = trackedRow.getKey();
+            final Class<? extends DataModel> clazz = model.getClass();
+
+            lockForWrite(clazz);
+            ((ModelCodec<DataModel>) codecs.get(clazz)).assign(model, trackedRow.getValue());
+            if(data.get(clazz).get(model.getPK()) == model){
+                indexes.add(clazz, model);
+                reindexReferencing(model);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
      * <p>
-     * The fields are ordered by their {@code index()} attribute in the {@link CSVField} annotation.
-     * Supports serialization of foreign key references by storing only their primary keys.
+     * Each dirty table is written with a single append to its change log, no matter 
+     * how many times its models were saved or deleted since the last flush.
+     * Tables that fail to be written stay dirty.
      * </p>
-     *
-     * @param <T>   The type of the data objects.
-     * @param clazz The class of the data objects being serialized.
-     * @param data  The collection of objects to convert.
-     * @return A list of CSV rows, each representing one object.
-     * @throws IllegalArgumentException If reflection fails due to type mismatch.
-     * @throws IllegalAccessException   If access to a field is denied.
-     * @throws DataParsingException     If a foreign key field is not a valid {@code DataModel}.
-     */
-    private <T> List<List<String>> toRawData(Class<T> clazz, Collection<T> data) throws IllegalArgumentException, IllegalAccessException{
-        List<List<String>> lines = new ArrayList<>();
-
-        Field[] fields = clazz.getDeclaredFields();
-        List<Field> savedFields = Arrays.stream(fields)
-                                    .filter(field -> field.isAnnotationPresent(CSVField.class))
-                                    .sorted(Comparator.comparingInt(f -> f.getAnnotation(CSVField.class).index()))
-                                    .toList();
-
-        for(T obj:data){
-            List<String> line = new ArrayList<>();
-
-            for(Field field:savedFields){
-                field.setAccessible(true);
-                CSVField annotation = field.getAnnotation(CSVField.class);
-
-                if(annotation.foreignKey()){
-                    if(!DataModel.class.isAssignableFrom(field.getType())){
-                        throw new DataParsingException("Foreign key should be class implementing DataModel. Class: %s".formatted(field.getType()));
-                    }
+     * <p>
+     * If several tables are dirty, their records are first written together into a journal, which
+     * commits them atomically. The journal is then applied to the change logs and removed; a journal
+     * left behind by a failure or a crash is applied again by the next flush, or at the next startup.
+     * </p>
+     */
+    @Override
+    public synchronized void flush() throws DataSavingException{
+        tableStore.applyJournal();
 
-                    DataModel dataModel = (DataModel) field.get(obj);
-                    line.add(dataModel.getPK());
-                }
-                else{
-                    line.add(DataParser.toString(field.get(obj)));
-                }
+        if(dirtyRecords.size() > 1){
+            tableStore.writeJournal(dirtyRecords);
+            dirtyRecords.clear();
+
+            try {
+                tableStore.applyJournal();
+            } catch (DataSavingException e) {
+                // The records are committed in the journal, which is applied again by the next flush or at startup.
             }
+            return;
+        }
+
+        Iterator<Entry<Class<? extends DataModel>, Map<String, List<String>>>> iterator = dirtyRecords.entrySet().iterator();
+
+        while(iterator.hasNext()){
+            Entry<Class<? extends DataModel>, Map<String, List<String>>> records = iterator.next();
+            tableStore.appendLog(records.getKey(), List.copyOf(records.getValue().values()));
+            iterator.remove();
+        }
+    }
 
-            lines.add(line);
+    /**
+     * Applies a journal left behind by a crash before the tables are loaded, so that a transaction
+     * committed in the journal is never partially lost.
+     *
+     * @throws DataParsingException If the journal cannot be applied.
+     */
+    private void recoverJournal(){
+        try {
+            tableStore.applyJournal();
+        } catch (DataSavingException e) {
+            throw new DataParsingException("Unable to recover transaction journal: %s".formatted(e.getMessage()));
+        }
+    }
+
+    /**
+     * Flushes dirty tables for background tasks, which have no caller to report to.
+     * Tables that fail to be written stay dirty and are retried in the next round.
+     */
+    private void flushQuietly(){
+        try {
+            flush();
+        } catch (DataSavingException e) {
+            // Dirty tables are kept, flushing is retried in the next round.
         }
+    }
+
+    /**
+     * Compacts the change logs of all tables into their CSV files.
+     * <p>
+     * This method is run periodically by the background compaction thread.
+     * The versions left behind by snapshot reads that have since ended are dropped as well.
+     * </p>
+     */
+    private synchronized void compactAll(){
+        tableStore.compactAll();
 
-        return lines;
+        final long oldestSnapshot = getOldestSnapshot();
+        for(VersionStore<DataModel> store:versionStores.values()){
+            store.prune(oldestSnapshot);
+        }
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized <T extends DataModel> void delete(T model) throws DataSavingException {
+        deleteAll((Class<T>) model.getClass(), List.of(model));
     }
 
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>
+     * All models are removed from the table and its indexes before any delete resolver runs, and their
+     * delete records are staged together, so the change log of each affected table is appended once.
+     * </p>
+     */
     @Override
     @SuppressWarnings("unchecked")
-    public <T extends DataModel> void delete(T model) throws DataSavingException {
-        Class<T> clazz = (Class<T>) model.getClass();
-        
-        data.get(clazz).remove(model.getPK());
-        
+    public synchronized <T extends DataModel> void deleteAll(Class<T> clazz, Collection<? extends T> models) throws DataSavingException {
+        if(models.isEmpty()) return;
+
+        lockForWrite(clazz);
+        try {
+            deleteAllLocked(clazz, models);
+        } finally {
+            unlockTables();
+        }
+    }
+
+    /**
+     * Deletes models once the write lock of their table is held.
+     *
+     * @param <T>    The type of {@code DataModel} to delete.
+     * @param clazz  The class type of the models.
+     * @param models The models to delete.
+     * @throws DataSavingException If the deletion cannot be written.
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends DataModel> void deleteAllLocked(Class<T> clazz, Collection<? extends T> models) throws DataSavingException {
+        final List<T> deletedModels = List.copyOf(models);
+        final Map<String, DataModel> table = data.get(clazz);
+
+        for(T model:deletedModels){
+            table.remove(model.getPK());
+            indexes.remove(clazz, model);
+        }
+
+        operationDepth++;
         try {
             DeleteResolver<T> deleteResolver = (DeleteResolver<T>) deleteResolvers.get(clazz);
 
             if(deleteResolver != null){
-                deleteResolver.resolveDelete(model, this);
+                cascadeDepth++;
+                try {
+                    for(T model:deletedModels){
+                        deleteResolver.resolveDelete(model, this);
+                    }
+                } finally {
+                    cascadeDepth--;
+                }
             }
             
-            saveData(clazz);
-        } catch (DataSavingException e) {
-            data.get(clazz).put(model.getPK(), model);
+            for(T model:deletedModels){
+                stageRecord(clazz, model.getPK(), toDeleteRecord(model));
+            }
+            commitOperation();
+
+            if(transactionDepth > 0){
+                transactionUndos.add(() -> restoreDeleted(clazz, deletedModels));
+            }
+        } catch (DataSavingException | RuntimeException e) {
+            restoreDeleted(clazz, deletedModels);
+            abortOperation();
             throw e;
+        } finally {
+            operationDepth--;
+        }
+    }
+
+    /**
+     * Puts deleted models back into their table and indexes.
+     *
+     * @param clazz  The class representing the table.
+     * @param models The deleted models.
+     */
+    private void restoreDeleted(Class<? extends DataModel> clazz, List<? extends DataModel> models){
+        for(DataModel model:models){
+            data.get(clazz).put(model.getPK(), model);
+            indexes.add(clazz, model);
         }
     }
 }
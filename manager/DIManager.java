@@ -108,9 +108,16 @@ public class DIManager{
      * would provide more flexibility and truly adhere to OCP,
      * hardcoding minimizes the complexity of managing and 
      * reading multiple configuration files or dealing with potential configuration errors at runtime.
+     * The application runs as a headless server instead of in the terminal if the
+     * {@value ServerApplicationManager#SERVER_PORT_PROPERTY} system property is set.
      */
     private void config() {
-        container.register(ApplicationManager.class, DefaultApplicationManager.class);
+        if(Integer.getInteger(ServerApplicationManager.SERVER_PORT_PROPERTY) != null){
+            container.register(ApplicationManager.class, ServerApplicationManager.class);
+        }
+        else{
+            container.register(ApplicationManager.class, DefaultApplicationManager.class);
+        }
         container.register(SessionManager.class, DefaultSessionManager.class);
         container.register(MenuManager.class, DefaultMenuManager.class);
         container.register(DataManager.class, CSVDataManager.class);
@@ -8,6 +8,7 @@ import command.Command;
 import controller.interfaces.CommandController;
 import factory.DashboardCommandFactory;
 import manager.interfaces.MenuManager;
+import util.DateProvider;
 
 /**
  * Default implementation of {@link MenuManager} that manages the command menus
@@ -41,19 +42,28 @@ public class DefaultMenuManager implements MenuManager{
         addCommands("Dashboard", () -> DashboardCommandFactory.getCommands());
         
         while(!commandGeneratorsStack.isEmpty()){
-            final Supplier<Map<Integer, Command>> commandGenerator = commandGeneratorsStack.peek();
-            final Map<Integer, Command> commands = commandGenerator.get();
+            // The menu and the chosen command agree on the current date, even across midnight
+            DateProvider.runOnFixedDate(this::showCurrentMenu);
+        }
+    }
 
-            if(commands == null || commands.isEmpty()){
-                back();
-                continue;
-            }
-            
-            commandController.setCommandsTitle(commandsTitleStack.peek());
-            commandController.setCommands(commands);
+    /**
+     * Generates the commands of the menu on top of the stack and executes the one chosen,
+     * or goes back to the previous menu if there is no command.
+     */
+    private void showCurrentMenu(){
+        final Supplier<Map<Integer, Command>> commandGenerator = commandGeneratorsStack.peek();
+        final Map<Integer, Command> commands = commandGenerator.get();
 
-            commandController.executeCommand();
+        if(commands == null || commands.isEmpty()){
+            back();
+            return;
         }
+        
+        commandController.setCommandsTitle(commandsTitleStack.peek());
+        commandController.setCommands(commands);
+
+        commandController.executeCommand();
     }
 
     public void addCommands(String commandTitle, Supplier<Map<Integer, Command>> commandGenerator){
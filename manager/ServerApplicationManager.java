@@ -0,0 +1,87 @@
+package manager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CountDownLatch;
+
+import manager.interfaces.ApplicationManager;
+import manager.interfaces.DataManager;
+import server.RequestServer;
+import server.ServiceRoutes;
+import server.SessionStore;
+import service.interfaces.ApplicationService;
+import service.interfaces.AuthService;
+import service.interfaces.BTOProjectService;
+import service.interfaces.EnquiryService;
+import service.interfaces.OfficerRegistrationService;
+
+/**
+ * Implementation of {@link ApplicationManager} running the application as a headless server,
+ * selected by setting the {@value #SERVER_PORT_PROPERTY} system property.
+ * <p>
+ * Instead of the terminal menus, the service layer is exposed through a {@link RequestServer}, where each
+ * client has its own session, so that many users share the in-memory data of one {@link DataManager}.
+ * The application runs until the JVM is stopped, which stops the server first.
+ * </p>
+ *
+ * @see ApplicationManager
+ * @see RequestServer
+ */
+public class ServerApplicationManager implements ApplicationManager{
+    /** System property setting the port the server listens on, which runs the application as a server. */
+    public static final String SERVER_PORT_PROPERTY = "server.port";
+
+    private final ServiceRoutes serviceRoutes;
+    private final SessionStore sessionStore = new SessionStore();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    /**
+     * Constructs a ServerApplicationManager with the services it exposes.
+     *
+     * @param dataManager                Looks up the records referred to by requests.
+     * @param authService                Handles authentication.
+     * @param applicationService         Handles applications.
+     * @param btoProjectService          Handles BTO projects.
+     * @param enquiryService             Handles enquiries.
+     * @param officerRegistrationService Handles officer registrations.
+     */
+    public ServerApplicationManager(DataManager dataManager, AuthService authService, ApplicationService applicationService,
+            BTOProjectService btoProjectService, EnquiryService enquiryService, OfficerRegistrationService officerRegistrationService){
+        this.serviceRoutes = new ServiceRoutes(dataManager, authService, applicationService, btoProjectService, enquiryService, officerRegistrationService);
+    }
+
+    /**
+     * Starts the server on the configured port, and waits until the JVM is stopped.
+     *
+     * @throws UncheckedIOException if the port cannot be bound
+     */
+    public void startApplication() {
+        final RequestServer server;
+        try {
+            server = new RequestServer(Integer.getInteger(SERVER_PORT_PROPERTY), sessionStore);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to start server: %s".formatted(e.getMessage()), e);
+        }
+        serviceRoutes.register(server);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            stopped.countDown();
+        }));
+        server.start();
+        System.out.println("Serving requests on http://localhost:%d".formatted(server.getPort()));
+
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Logs every client out, as the server has no session of its own.
+     */
+    public void logout(){
+        sessionStore.closeAll();
+    }
+}
@@ -1,11 +1,16 @@
 package manager.interfaces;
 
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
 
+import exception.DataConflictException;
 import exception.DataSavingException;
 import model.DataModel;
+import query.Page;
+import query.Query;
 
 /**
  * Interface for managing data access and operations on various types of {@link DataModel}.
@@ -25,13 +30,24 @@ import model.DataModel;
  * <ul>
  *   <li>{@link #getByPK(String PK)} — Retrieve a specific model by its primary key.</li>
  *   <li>{@link #getByQuery(Class, Predicate)} — Retrieve a list of models matching a query.</li>
+ *   <li>{@link #getByForeignKey(Class, String, DataModel)} — Retrieve the records referencing a specific model.</li>
  *   <li>{@link #countByQuery(Class, Predicate)} — Count the number of matching records.</li>
+ *   <li>{@link #exists(Query)} — Check whether any record matches a {@link Query}.</li>
+ *   <li>{@link #getByQuery(Query)} — Retrieve records matching a declarative {@link Query}, which can use indexes.</li>
+ *   <li>{@link #getPage(Query, int, int)} and {@link #stream(Query)} — Retrieve matching records page by page, or as a stream.</li>
+ *   <li>{@link #explain(Query)} — Describe how a {@code Query} would be executed.</li>
+ *   <li>{@link #getSnapshotByQuery(Class, Predicate)} — Retrieve matching records as of the last commit, for long reads.</li>
  * </ul>
  * <p>
  * Sorting are supported via {@code Comparator}, enabling flexible order for different query
  * </p>
  * <p>
  * Data edited or deleted through the manager can be persisted back to file, supporting a file-based persistence model.
+ * Changes spanning several models can be grouped with {@link #transaction(Transaction)}, so that they are
+ * persisted or rolled back together.
+ * Every save increments the version of the record, so that {@link #save(DataModel, int)} can reject
+ * an edit made from a version of the record that another user has since replaced. Saves cascaded from
+ * another record, which only write related records back, keep the version.
  * 
  * @param <T> the type of the {@code DataModel}
  * 
@@ -109,6 +125,35 @@ public interface DataManager {
      */
     <T extends DataModel> List<T> getByQueries(Class<T> clazz, List<Predicate<T>> predicates, Comparator<T> comparator);
 
+    /**
+     * Retrieves records whose foreign key references a specific model.
+     * <p>
+     * Equivalent to {@code getByQuery(clazz, model -> model.getField() == foreignModel)},
+     * but implementations should look up an index of the foreign key instead of scanning all records.
+     * </p>
+     *
+     * @param <T>          the type of data model
+     * @param clazz        the class object of the data model
+     * @param field        the name of the foreign key field, as declared in the data model
+     * @param foreignModel the referenced model
+     * @return a list of records referencing the model
+     * @throws IllegalArgumentException if the field is not a foreign key of the data model
+     */
+    <T extends DataModel> List<T> getByForeignKey(Class<T> clazz, String field, DataModel foreignModel);
+
+    /**
+     * Retrieves records whose foreign key references a specific model and sorts them.
+     *
+     * @param <T>          the type of data model
+     * @param clazz        the class object of the data model
+     * @param field        the name of the foreign key field, as declared in the data model
+     * @param foreignModel the referenced model
+     * @param comparator   a comparator used to sort the records
+     * @return a sorted list of records referencing the model
+     * @throws IllegalArgumentException if the field is not a foreign key of the data model
+     */
+    <T extends DataModel> List<T> getByForeignKey(Class<T> clazz, String field, DataModel foreignModel, Comparator<T> comparator);
+
     /**
      * Counts records that match a specific query condition.
      *
@@ -129,15 +174,127 @@ public interface DataManager {
      */
     <T extends DataModel> long countByQueries(Class<T> clazz, List<Predicate<T>> predicates);
 
+    /**
+     * Retrieves records matching a declarative query, sorted and limited as specified by the query.
+     * <p>
+     * Unlike the {@code Predicate} overloads, the field conditions of the query can be answered
+     * through an index, and are evaluated before its predicate filters.
+     * </p>
+     *
+     * @param <T>   the type of data model
+     * @param query the query to run
+     * @return a list of records matching the query
+     * @throws IllegalArgumentException if the query tests a field that is not a column of the data model
+     */
+    <T extends DataModel> List<T> getByQuery(Query<T> query);
+
+    /**
+     * Counts records matching a declarative query, up to its limit.
+     *
+     * @param <T>   the type of data model
+     * @param query the query to run
+     * @return a number of records matching the query
+     * @throws IllegalArgumentException if the query tests a field that is not a column of the data model
+     */
+    <T extends DataModel> long countByQuery(Query<T> query);
+
+    /**
+     * Retrieves records matching a declarative query as a stream, sorted, offset and limited as specified by the query.
+     * <p>
+     * The matching records are collected when this method is called, so the stream no longer reads the tables
+     * and can be consumed at any time. Consuming only part of it does not save reading the rest: a caller that
+     * only needs part of the records should limit the query, or use {@link #getPage(Query, int, int)}.
+     * </p>
+     *
+     * @param <T>   the type of data model
+     * @param query the query to run
+     * @return a stream of the records matching the query
+     * @throws IllegalArgumentException if the query tests a field that is not a column of the data model
+     */
+    <T extends DataModel> Stream<T> stream(Query<T> query);
+
+    /**
+     * Retrieves one page of the records matching a declarative query, in the order of the query.
+     * The offset and limit of the query are replaced by those of the page.
+     *
+     * @param <T>        the type of data model
+     * @param query      the query to run
+     * @param pageNumber the number of the page, starting from {@code 0}
+     * @param pageSize   the maximum number of records in a page
+     * @return the page of records, which tells whether there is a next page
+     * @throws IllegalArgumentException if the query tests a field that is not a column of the data model,
+     *                                  or if the page number is negative or the page size is not positive
+     */
+    <T extends DataModel> Page<T> getPage(Query<T> query, int pageNumber, int pageSize);
+
+    /**
+     * Checks whether any record matches a declarative query.
+     * <p>
+     * Implementations should stop at the first matching record, and answer queries on a unique
+     * combination of fields, such as an applicant and a BTO project, with a single index lookup.
+     * </p>
+     *
+     * @param <T>   the type of data model
+     * @param query the query to run
+     * @return {@code true} if at least one record matches the query
+     * @throws IllegalArgumentException if the query tests a field that is not a column of the data model
+     */
+    <T extends DataModel> boolean exists(Query<T> query);
+
+    /**
+     * Describes the plan chosen to run a declarative query, such as whether an index
+     * is used and in which order the conditions are evaluated, without running it.
+     *
+     * @param <T>   the type of data model
+     * @param query the query to explain
+     * @return a readable description of the query plan
+     * @throws IllegalArgumentException if the query tests a field that is not a column of the data model
+     */
+    <T extends DataModel> String explain(Query<T> query);
+
+    /**
+     * Retrieves records that match a specific query condition as they were at the last committed change,
+     * so that long reads, such as reports, see a consistent table while it is being written.
+     * <p>
+     * Implementations should neither wait for nor delay the operations writing the table. The records
+     * returned are detached copies, which are not updated by later changes and must not be saved;
+     * the models their foreign keys reference are the current ones.
+     * </p>
+     *
+     * @param <T>       the type of data model
+     * @param clazz     the class object of the data model
+     * @param predicate a predicate that defines the query condition
+     * @return a list of copies of the records matching the condition, in no particular order
+     */
+    <T extends DataModel> List<T> getSnapshotByQuery(Class<T> clazz, Predicate<T> predicate);
+
     /**
      * Saves a new or updated data model to the storage.
      *
      * @param <T>   the type of data model
      * @param model the data model to be saved
-     * @throws DataSavingException if saving fails due to I/O or other error
+     * @throws DataSavingException if saving fails due to I/O or other error, or if the model duplicates
+     *                             a combination of fields that must be unique
      */
     <T extends DataModel> void save(T model) throws DataSavingException;
 
+    /**
+     * Saves an updated data model to the storage, only if its record is still at the version the caller
+     * read before editing the model, as returned by {@link DataModel#getVersion()}.
+     * <p>
+     * The check and the save are done atomically, so that of two users editing the same record from
+     * the same version, only the first to save succeeds, instead of the second silently overwriting it.
+     * </p>
+     *
+     * @param <T>             the type of data model
+     * @param model           the data model to be saved
+     * @param expectedVersion the version of the record read before the model was edited
+     * @throws DataConflictException if the record was saved or deleted since that version
+     * @throws DataSavingException   if saving fails due to I/O or other error, or if the model duplicates
+     *                               a combination of fields that must be unique
+     */
+    <T extends DataModel> void save(T model, int expectedVersion) throws DataSavingException;
+
     /**
      * Deletes a specific data model from storage.
      *
@@ -147,4 +304,59 @@ public interface DataManager {
      * @throws Exception if the model cannot be deleted due to I/O or other error
      */
     <T extends DataModel> void delete(T model) throws DataSavingException;
+
+    /**
+     * Deletes several data models of the same type from storage as one operation.
+     * <p>
+     * Equivalent to deleting each model in turn within a {@link #transaction(Transaction)}, but implementations
+     * should remove all of them in memory first, then persist the affected tables once, so that deleting
+     * the many dependents of a model, such as the applications of a BTO project, costs one write per table.
+     * </p>
+     *
+     * @param <T>    the type of data model
+     * @param clazz  the class object of the data model
+     * @param models the data models to delete
+     * @throws DataSavingException if deletion fails due to saving issues, in which case none of the models is deleted
+     */
+    <T extends DataModel> void deleteAll(Class<T> clazz, Collection<? extends T> models) throws DataSavingException;
+
+    /**
+     * Runs a unit of work as a single transaction.
+     * <p>
+     * The records of all models saved or deleted by the work are buffered, and written only once the work
+     * completes, atomically across all the tables involved: after a crash, either all of them or none of them
+     * are persisted. If the work throws, nothing is written, models added or deleted by the work are removed
+     * from or restored to their tables, and models passed to {@link #track(DataModel...)} are restored to
+     * their state at the time they were tracked.
+     * </p>
+     * <p>
+     * A transaction started within another transaction is part of the outer transaction.
+     * </p>
+     *
+     * @param <E>  the type of checked exception thrown by the work
+     * @param work the work to run
+     * @throws E                   if the work fails, after the transaction is rolled back
+     * @throws DataSavingException if saving, deleting or committing fails, after the transaction is rolled back
+     */
+    <E extends Exception> void transaction(Transaction<E> work) throws E, DataSavingException;
+
+    /**
+     * Records the current state of models about to be modified by the running transaction,
+     * so that they are restored if it fails. Only the first state recorded for a model in a
+     * transaction is kept. Has no effect outside of a transaction.
+     *
+     * @param models the models to track
+     */
+    void track(DataModel... models);
+
+    /**
+     * Persists all changes that have been saved or deleted but not yet written to storage.
+     * <p>
+     * Implementations may group the writes of several operations together; 
+     * calling this method forces them to be written immediately.
+     * </p>
+     *
+     * @throws DataSavingException if writing the pending changes fails due to I/O or other error
+     */
+    void flush() throws DataSavingException;
 }
@@ -0,0 +1,27 @@
+package manager.interfaces;
+
+import exception.DataSavingException;
+
+/**
+ * A unit of work run by {@link DataManager#transaction(Transaction)}.
+ * <p>
+ * All models saved or deleted while the work runs are committed together once it completes,
+ * or not at all if it throws. Models modified by the work should be passed to
+ * {@link DataManager#track(model.DataModel...)} before they are modified, so that their state
+ * is restored if the transaction fails.
+ * </p>
+ *
+ * @param <E> the type of checked exception thrown by the work, such as a validation failure of a model
+ *
+ * @see DataManager
+ */
+@FunctionalInterface
+public interface Transaction<E extends Exception> {
+    /**
+     * Runs the work of the transaction.
+     *
+     * @throws E                   if the work fails, which rolls the transaction back
+     * @throws DataSavingException if saving or deleting a model fails, which rolls the transaction back
+     */
+    void run() throws E, DataSavingException;
+}
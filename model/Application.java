@@ -30,8 +30,10 @@ public class Application implements DataModel{
     public static final Comparator<Application> SORT_BY_CREATED_AT_DESC =
         Comparator.comparing(Application::getCreatedAt).reversed();
 
-    @CSVField(index = 0)
-    private String uuid;
+    @CSVField(index = 0, primaryKey = true)
+    private UUID uuid;
+    /** String form of {@link #uuid}, formatted once on first use. */
+    private String PK;
 
     @CSVField(index = 1, foreignKey = true)
     private User applicant;
@@ -53,6 +55,9 @@ public class Application implements DataModel{
     @CSVField(index = 6)
     private LocalDateTime createdAt;
 
+    @CSVField(index = 7, version = true)
+    private int version;
+
     /**
      * Default no-argument constructor used exclusively for reflective instantiation.
      * This constructor is necessary for classes like {@link CSVDataManager} 
@@ -81,8 +86,7 @@ public class Application implements DataModel{
         this.btoProject = btoProject;
         this.flatType = flatType;
 
-        UUID uuid = UUID.randomUUID();
-        this.uuid = uuid.toString();
+        this.uuid = UUID.randomUUID();
 
         this.applicationStatus = ApplicationStatus.PENDING;
         this.withdrawalStatus = WithdrawalStatus.NOT_APPLICABLE;
@@ -350,7 +354,14 @@ public class Application implements DataModel{
 
     @Override
     public String getPK() {
-        return uuid;
+        // The primary key is read by every lookup, index update and comparison, so it is not formatted each time
+        if(PK == null) PK = uuid.toString();
+        return PK;
+    }
+
+    @Override
+    public int getVersion() {
+        return version;
     }
 
     @Override
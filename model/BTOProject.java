@@ -1,17 +1,18 @@
 package model;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import config.FlatType;
 import config.UserRole;
 import dto.BTOProjectDTO;
 import exception.DataModelException;
 import manager.CSVDataManager;
+import util.DateProvider;
 
 /**
  * Represents a Build-To-Order (BTO) project managed by HDB.
@@ -29,6 +30,8 @@ public class BTOProject implements DataModel{
      * Default comparator for sorting BTO projects.
      * Projects are sorted with active ones first (descending by isActive),
      * and then alphabetically by project name.
+     * Sorting should be done within {@link DateProvider#runOnFixedDate(Runnable)}, so that no project
+     * becomes active or inactive during the sort.
      */
     public static final Comparator<BTOProject> DEFAULT_COMPARATOR = 
         Comparator.comparing(BTOProject::isActive, Comparator.reverseOrder())
@@ -37,7 +40,7 @@ public class BTOProject implements DataModel{
     public static final int MIN_HDB_OFFICER_LIMIT = 1;
     public static final int MAX_HDB_OFFICER_LIMIT = 10;
 
-    @CSVField(index = 0)
+    @CSVField(index = 0, primaryKey = true)
     private String name;
     @CSVField(index = 1)
     private String neighborhood;
@@ -54,11 +57,15 @@ public class BTOProject implements DataModel{
 
     @CSVField(index = 5)
     private int HDBOfficerLimit;
-    private final List<User> HDBOfficers = new ArrayList<>();
+    /** Copied on write, so that sessions reading the officers never see the list while an officer is added. */
+    private final List<User> HDBOfficers = new CopyOnWriteArrayList<>();
 
     @CSVField(index = 6)
     private boolean visible = false;
 
+    @CSVField(index = 7, version = true)
+    private int version;
+
     private Memento memento;
 
      /**
@@ -103,7 +110,7 @@ public class BTOProject implements DataModel{
             throw new DataModelException("Access Denied. Only HDB Manager can open new project.");
         }
 
-        if(btoProjectDTO.getClosingDate().isBefore(LocalDate.now())){
+        if(btoProjectDTO.getClosingDate().isBefore(DateProvider.today())){
             throw new DataModelException("Closing date cannot be past.");
         }
         
@@ -270,6 +277,8 @@ public class BTOProject implements DataModel{
 
     /**
      * Books one unit of the specified flat type by decrementing its available count.
+     * The count is decremented atomically, so the last unit cannot be booked twice,
+     * even by bookings that both saw it available.
      *
      * @param flatType the type of flat to book
      * @throws DataModelException if the specified flat type does not exist or is unavailable
@@ -338,9 +347,15 @@ public class BTOProject implements DataModel{
         visible = visible ? false : true;
     }
 
-    /** @return true if the project is currently active and visible. */
+    /**
+     * Checks whether the project is currently active and visible.
+     * The current date is read from {@link DateProvider}, so the result is consistent within a unit of work.
+     *
+     * @return true if the project is currently active and visible.
+     */
     public boolean isActive(){
-        return isOverlappingWith(LocalDate.now(), LocalDate.now()) && visible;
+        final LocalDate today = DateProvider.today();
+        return visible && isOverlappingWith(today, today);
     }
 
     /**
@@ -467,6 +482,11 @@ public class BTOProject implements DataModel{
         return name;
     }
 
+    @Override
+    public int getVersion() {
+        return version;
+    }
+
     /**
      * Creates a backup of the current state of the BTOProject.
      * <p>
@@ -35,4 +35,30 @@ public @interface CSVField {
      * @return {@code true} if this field is a resolved foreign object, {@code false} otherwise
      */
     boolean foreignKey() default false;
+
+    /**
+     * Indicates whether this field holds the primary key of the model.
+     * <p>
+     * The value stored in this column must be the same value returned by
+     * {@link DataModel#getPK()}. It allows raw CSV rows to be identified
+     * without instantiating the model, e.g. when merging change logs.
+     * </p>
+     * Default is {@code false}.
+     *
+     * @return {@code true} if this field is the primary key, {@code false} otherwise
+     */
+    boolean primaryKey() default false;
+
+    /**
+     * Indicates whether this field holds the version of the model.
+     * <p>
+     * The version is an {@code int} counting the saves of the record, maintained by
+     * the data manager to detect concurrent edits. It should be the last column, so that
+     * rows written before the column existed are read with version {@code 0}.
+     * </p>
+     * Default is {@code false}.
+     *
+     * @return {@code true} if this field is the version, {@code false} otherwise
+     */
+    boolean version() default false;
 }
\ No newline at end of file
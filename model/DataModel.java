@@ -48,4 +48,17 @@ public interface DataModel {
      * </p>
      */
     void restore();
+
+    /**
+     * Returns the version of the data model instance, the number of times its record was saved,
+     * not counting the saves cascaded from related records.
+     * <p>
+     * The version is set by the data manager on every save and must not be changed by the model.
+     * Reading it before editing the model allows a save to be rejected if another user saved
+     * the record in between.
+     * </p>
+     *
+     * @return the version of the record, {@code 0} if it was never saved
+     */
+    int getVersion();
 }
\ No newline at end of file
@@ -30,8 +30,10 @@ public class Enquiry implements DataModel{
     public static final Comparator<Enquiry> SORT_BY_CREATED_AT_DESC =
         Comparator.comparing(Enquiry::getCreatedAt).reversed();
 
-    @CSVField(index = 0)
-    private String uuid;
+    @CSVField(index = 0, primaryKey = true)
+    private UUID uuid;
+    /** String form of {@link #uuid}, formatted once on first use. */
+    private String PK;
 
     @CSVField(index = 1, foreignKey = true)
     private BTOProject btoProject;
@@ -58,6 +60,9 @@ public class Enquiry implements DataModel{
     @CSVField(index = 7)
     private LocalDateTime createdAt;
 
+    @CSVField(index = 8, version = true)
+    private int version;
+
     /**
      * Default no-argument constructor used exclusively for reflective instantiation.
      * This constructor is necessary for classes like {@link CSVDataManager} 
@@ -75,8 +80,7 @@ public class Enquiry implements DataModel{
      * @param enquiry the content of the enquiry
      */
     public Enquiry(BTOProject btoProject, User enquirer, String subject, String enquiry){
-        UUID uuid = UUID.randomUUID();
-        this.uuid = uuid.toString();
+        this.uuid = UUID.randomUUID();
 
         this.btoProject = btoProject;
 
@@ -148,6 +152,25 @@ public class Enquiry implements DataModel{
         this.enquiry = enquiry;
     }
 
+    /**
+     * Updates both the subject and the content of the enquiry at once.
+     * The current state is backup once and can be revert by {@link #restore()},
+     * which setting them one by one would not allow, as each setter backs up again.
+     *
+     * @param subject the new subject
+     * @param enquiry the new enquiry message
+     * @throws DataModelException if this enquiry cannot be edited
+     */
+    public void edit(String subject, String enquiry) throws DataModelException {
+        if(!canBeAltered()){
+            throw new DataModelException("This enquiry cannot be edited.");
+        }
+
+        backup();
+        this.subject = subject;
+        this.enquiry = enquiry;
+    }
+
     /**
      * Returns the reply to the enquiry, if any.
      *
@@ -212,7 +235,14 @@ public class Enquiry implements DataModel{
 
     @Override
     public String getPK() {
-        return uuid;
+        // The primary key is read by every lookup, index update and comparison, so it is not formatted each time
+        if(PK == null) PK = uuid.toString();
+        return PK;
+    }
+
+    @Override
+    public int getVersion() {
+        return version;
     }
 
     @Override
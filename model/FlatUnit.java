@@ -1,5 +1,7 @@
 package model;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.UUID;
 
 import config.FlatType;
@@ -18,9 +20,23 @@ import manager.CSVDataManager;
  * It ensures that the application state and behaviors are consistent with the 
  * domain rules, and manipulates its data through methods that enforce business 
  * rules rather than relying solely on external procedures.
+ * <p>
+ * The number of available flats is updated with a compare-and-set, so that bookings made by several
+ * officers at once can neither overbook the unit nor lose an update, without locking.
+ * </p>
  */
 public class FlatUnit implements DataModel{
-    @CSVField(index = 0)
+    private static final VarHandle FLAT_NUM;
+
+    static {
+        try {
+            FLAT_NUM = MethodHandles.lookup().findVarHandle(FlatUnit.class, "flatNum", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @CSVField(index = 0, primaryKey = true)
     private String uuid;
 
     @CSVField(index = 1, foreignKey = true)
@@ -30,13 +46,16 @@ public class FlatUnit implements DataModel{
     private FlatType flatType;
 
     @CSVField(index = 3)
-    private int flatNum;
+    private volatile int flatNum;
     private int backupFlatNum;
 
     @CSVField(index = 4)
     private int flatPrice;
     private int backupFlatPrice;
 
+    @CSVField(index = 5, version = true)
+    private int version;
+
     /**
      * Default no-argument constructor used exclusively for reflective instantiation.
      * This constructor is necessary for classes like {@link CSVDataManager} 
@@ -89,16 +108,22 @@ public class FlatUnit implements DataModel{
 
     /**
      * Updates the flat number by adding a change.
+     * <p>
+     * The check and the update are applied atomically, retrying if another thread changed
+     * the flat number in between, so concurrent changes never take it below zero.
+     * </p>
      *
-     * @param flatNum the change to add, can be negative
+     * @param change the change to add, can be negative
      * @throws DataModelException if new flat number is negative
      */
     public void adjustFlatNum(int change) throws DataModelException {
-        if(flatNum + change < 0) {
-            throw new DataModelException("Flat number cannot be negative.");
-        }
-
-        this.flatNum += change;
+        int current;
+        do {
+            current = flatNum;
+            if(current + change < 0) {
+                throw new DataModelException("Flat number cannot be negative.");
+            }
+        } while(!FLAT_NUM.compareAndSet(this, current, current + change));
     }
 
     /**
@@ -153,6 +178,11 @@ public class FlatUnit implements DataModel{
         return uuid;
     }
 
+    @Override
+    public int getVersion() {
+        return version;
+    }
+
     public void backup(){
         this.backupFlatNum = this.flatNum;
         this.backupFlatPrice = this.flatPrice;
@@ -28,8 +28,10 @@ public class OfficerRegistration implements DataModel{
     public static final Comparator<OfficerRegistration> SORT_BY_CREATED_AT_DESC =
         Comparator.comparing(OfficerRegistration::getCreatedAt).reversed();
 
-    @CSVField(index = 0)
-    private String uuid;
+    @CSVField(index = 0, primaryKey = true)
+    private UUID uuid;
+    /** String form of {@link #uuid}, formatted once on first use. */
+    private String PK;
 
     @CSVField(index = 1, foreignKey = true)
     private BTOProject btoProject;
@@ -44,6 +46,9 @@ public class OfficerRegistration implements DataModel{
     @CSVField(index = 4)
     private LocalDateTime createdAt;
 
+    @CSVField(index = 5, version = true)
+    private int version;
+
     /**
      * Default no-argument constructor used exclusively for reflective instantiation.
      * This constructor is necessary for classes like {@link CSVDataManager} 
@@ -60,8 +65,7 @@ public class OfficerRegistration implements DataModel{
      * @throws DataModelException if the user is not an HDB officer
      */
     public OfficerRegistration(BTOProject btoProject, User HDBOfficer) {
-        UUID uuid = UUID.randomUUID();
-        this.uuid = uuid.toString();
+        this.uuid = UUID.randomUUID();
         this.registrationStatus = RegistrationStatus.PENDING;
         this.createdAt = LocalDateTime.now();
         
@@ -144,7 +148,14 @@ public class OfficerRegistration implements DataModel{
 
     @Override
     public String getPK() {
-        return uuid;
+        // The primary key is read by every lookup, index update and comparison, so it is not formatted each time
+        if(PK == null) PK = uuid.toString();
+        return PK;
+    }
+
+    @Override
+    public int getVersion() {
+        return version;
     }
 
     @Override
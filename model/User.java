@@ -12,7 +12,7 @@ public class User implements DataModel{
     @CSVField(index = 0) 
     private String name;
 
-    @CSVField(index = 1)
+    @CSVField(index = 1, primaryKey = true)
     private String NRIC;
 
     @CSVField(index = 2)
@@ -28,6 +28,9 @@ public class User implements DataModel{
     @CSVField(index = 5)
     private UserRole userRole;
 
+    @CSVField(index = 6, version = true)
+    private int version;
+
     /**
      * Default no-argument constructor used exclusively for reflective instantiation.
      * This constructor is necessary for classes like {@link CSVDataManager} 
@@ -122,6 +125,11 @@ public class User implements DataModel{
         return NRIC;
     }
 
+    @Override
+    public int getVersion() {
+        return version;
+    }
+
     @Override
     public void backup(){
         this.backupPassword = password;
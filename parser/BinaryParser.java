@@ -0,0 +1,173 @@
+package parser;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import exception.DataParsingException;
+
+/**
+ * Utility class for reading and writing typed values in a compact binary form.
+ * Supports primitive types, standard types like LocalDate, and any enum.
+ *
+ * <p>Used mainly for binary snapshots, as a faster alternative to the string form of {@link DataParser}.
+ * Values are written to a {@link DataOutput} and read back from a {@link ByteBuffer}, typically a
+ * memory-mapped file, so reading a value is a plain memory access. All values are big-endian:</p>
+ * <ul>
+ *   <li>Strings are length-prefixed UTF-8 bytes.</li>
+ *   <li>Dates are stored as epoch days, and date-times as epoch seconds (UTC) with nanoseconds.</li>
+ *   <li>UUIDs are stored as their most significant and least significant halves.</li>
+ *   <li>Enums are stored as their ordinal.</li>
+ * </ul>
+ */
+public class BinaryParser {
+    /**
+     * Reads a value of a specific type from binary input.
+     *
+     * @param <T> The type to read
+     */
+    @FunctionalInterface
+    public interface BinaryReader<T> {
+        T read(ByteBuffer in);
+    }
+
+    /**
+     * Writes a value of a specific type to binary output.
+     *
+     * @param <T> The type to write
+     */
+    @FunctionalInterface
+    public interface BinaryWriter<T> {
+        void write(DataOutput out, T value) throws IOException;
+    }
+
+    /** Internal map linking classes to their corresponding binary readers */
+    private final static Map<Class<?>, BinaryReader<?>> readers = new HashMap<>();
+    /** Internal map linking classes to their corresponding binary writers */
+    private final static Map<Class<?>, BinaryWriter<?>> writers = new HashMap<>();
+
+    // Static initializer block for setting up readers and writers
+    static {
+        configReadersAndWriters();
+    }
+
+    /**
+     * Registers all readers and writers of supported non-enum types.
+     */
+    private static void configReadersAndWriters(){
+        add(int.class, ByteBuffer::getInt, DataOutput::writeInt);
+        add(boolean.class, in -> in.get() != 0, DataOutput::writeBoolean);
+        add(String.class, BinaryParser::readString, BinaryParser::writeString);
+
+        add(LocalDate.class,
+            in -> LocalDate.ofEpochDay(in.getLong()),
+            (out, date) -> out.writeLong(date.toEpochDay())
+        );
+        add(LocalDateTime.class,
+            in -> LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC),
+            (out, dateTime) -> {
+                out.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(dateTime.getNano());
+            }
+        );
+        add(UUID.class,
+            in -> new UUID(in.getLong(), in.getLong()),
+            (out, uuid) -> {
+                out.writeLong(uuid.getMostSignificantBits());
+                out.writeLong(uuid.getLeastSignificantBits());
+            }
+        );
+    }
+
+    /**
+     * Registers a reader and a writer for a specific class.
+     *
+     * @param <T>    The type to be read and written
+     * @param clazz  The class representing the type
+     * @param reader A function that reads the given type
+     * @param writer A function that writes the given type
+     */
+    private static <T> void add(Class<T> clazz, BinaryReader<T> reader, BinaryWriter<T> writer){
+        readers.put(clazz, reader);
+        writers.put(clazz, writer);
+    }
+
+    /**
+     * Retrieves the binary reader of the given type.
+     * Enums are read from their ordinal.
+     *
+     * @param <T>   The type to read
+     * @param clazz The class of the type
+     * @return A reader of the given type
+     * @throws DataParsingException If the type is unsupported
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> BinaryReader<T> getReader(Class<T> clazz){
+        if(clazz.isEnum()){
+            final T[] constants = clazz.getEnumConstants();
+            return in -> constants[Byte.toUnsignedInt(in.get())];
+        }
+
+        BinaryReader<T> reader = (BinaryReader<T>) readers.get(clazz);
+        if (reader == null) throw new DataParsingException("Unsupported Binary Data Type: %s".formatted(clazz.getName()));
+
+        return reader;
+    }
+
+    /**
+     * Retrieves the binary writer of the given type.
+     * Enums are written as their ordinal, which must fit in a byte.
+     *
+     * @param <T>   The type to write
+     * @param clazz The class of the type
+     * @return A writer of the given type
+     * @throws DataParsingException If the type is unsupported
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> BinaryWriter<T> getWriter(Class<T> clazz){
+        if(clazz.isEnum()){
+            if(clazz.getEnumConstants().length > 256){
+                throw new DataParsingException("Enum has too many constants for binary data: %s".formatted(clazz.getName()));
+            }
+            return (out, value) -> out.writeByte(((Enum<?>) value).ordinal());
+        }
+
+        BinaryWriter<T> writer = (BinaryWriter<T>) writers.get(clazz);
+        if (writer == null) throw new DataParsingException("Unsupported Binary Data Type: %s".formatted(clazz.getName()));
+
+        return writer;
+    }
+
+    /**
+     * Reads a length-prefixed UTF-8 string.
+     *
+     * @param in The binary input
+     * @return The string read
+     */
+    public static String readString(ByteBuffer in){
+        final byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a length-prefixed UTF-8 string.
+     * Unlike {@link DataOutput#writeUTF(String)}, the length of the string is not limited to 64KB.
+     *
+     * @param out The binary output
+     * @param s   The string to write
+     * @throws IOException If the output cannot be written
+     */
+    public static void writeString(DataOutput out, String s) throws IOException{
+        final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
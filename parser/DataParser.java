@@ -4,6 +4,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 import config.ApplicationStatus;
@@ -17,9 +18,11 @@ import exception.DataParsingException;
 
 /**
  * Utility class for parsing string data into objects and vice versa.
- * Supports parsing for primitive types, standard types like LocalDate, and application-specific enums.
+ * Supports parsing for primitive types, standard types like LocalDate and UUID, and application-specific enums.
  * 
- * <p>Used mainly for converting between CSV string values and strongly-typed objects.</p>
+ * <p>Used mainly for converting between CSV string values and strongly-typed objects.
+ * Escaping of CSV delimiters is handled by {@code CSVFileReader} and {@code CSVFileWriter},
+ * so strings are passed through unchanged.</p>
  */
 public class DataParser {
     /** Internal map linking classes to their corresponding string-to-object parsers */
@@ -39,10 +42,11 @@ public class DataParser {
     private static void configParsers(){
         addParser(int.class, Integer::parseInt);
         addParser(boolean.class, s -> s.equals("1"));
-        addParser(String.class, s -> desanitize(s));
+        addParser(String.class, s -> s);
 
         addParser(LocalDate.class, LocalDate::parse);
         addParser(LocalDateTime.class, LocalDateTime::parse);
+        addParser(UUID.class, UUID::fromString);
 
         addParser(MaritalStatus.class, MaritalStatus::parseMaritalStatus);
         addParser(UserRole.class, UserRole::parseUserRole);
@@ -70,10 +74,11 @@ public class DataParser {
     private static void configStringifiers(){
         addStringifiers(Integer.class, String::valueOf);
         addStringifiers(Boolean.class, b -> b?"1":"0");
-        addStringifiers(String.class, s -> sanitize(s));
+        addStringifiers(String.class, s -> s);
         
         addStringifiers(LocalDate.class, LocalDate::toString);
         addStringifiers(LocalDateTime.class, LocalDateTime::toString);
+        addStringifiers(UUID.class, UUID::toString);
         
         addStringifiers(MaritalStatus.class, MaritalStatus::getStoredString);
         addStringifiers(UserRole.class, UserRole::getStoredString);
@@ -104,12 +109,8 @@ public class DataParser {
      * @return The parsed object of type T
      * @throws DataParsingException If parsing is unsupported or fails
      */
-    @SuppressWarnings("unchecked")
     public static <T> T parse(Class<T> clazz, String data){
-        Function<String, T> parser = (Function<String, T>) parsers.get(clazz);
-        if (parser == null) throw new DataParsingException("Unsupported Parsing Data Type: %s".formatted(clazz.getName()));
-        
-        return parser.apply(data);
+        return getParser(clazz).apply(data);
     }
 
     /**
@@ -125,29 +126,52 @@ public class DataParser {
         Class<?> clazz = data.getClass();
         if(clazz.getEnclosingClass() != null && clazz.getEnclosingClass().isEnum()) clazz = clazz.getEnclosingClass();
 
-        Function<T, String> stringifier = (Function<T, String>) stringifiers.get(clazz);
-        if (stringifier == null) throw new DataParsingException("Unsupported Stringifying Data Type: %s".formatted(clazz.getName()));
-        
-        return stringifier.apply(data);
+        return getStringifier((Class<T>) clazz).apply(data);
     }
 
     /**
-     * Escapes commas in strings so they don't break CSV formatting.
-     * 
-     * @param s Original string
-     * @return Sanitized string
+     * Retrieves the parser of the given type, so that it can be resolved once and applied repeatedly.
+     *
+     * @param <T>   The type to parse into
+     * @param clazz The class of the type
+     * @return A function that parses a string into the given type
+     * @throws DataParsingException If parsing is unsupported
      */
-    private static String sanitize(String s){
-        return s.replace(",", "\\,");
+    @SuppressWarnings("unchecked")
+    public static <T> Function<String, T> getParser(Class<T> clazz){
+        Function<String, T> parser = (Function<String, T>) parsers.get(clazz);
+        if (parser == null) throw new DataParsingException("Unsupported Parsing Data Type: %s".formatted(clazz.getName()));
+
+        return parser;
     }
 
     /**
-     * Reverts escaped commas back to normal for proper parsing.
-     * 
-     * @param s Sanitized string
-     * @return Original string
+     * Retrieves the stringifier of the given type, so that it can be resolved once and applied repeatedly.
+     * Primitive types are resolved to the stringifier of their wrapper type.
+     *
+     * @param <T>   The type to stringify
+     * @param clazz The class of the type
+     * @return A function that converts the given type to a string
+     * @throws DataParsingException If conversion is unsupported
      */
-    private static String desanitize(String s){
-        return s.replace("\\,", ",");
+    @SuppressWarnings("unchecked")
+    public static <T> Function<T, String> getStringifier(Class<T> clazz){
+        Function<T, String> stringifier = (Function<T, String>) stringifiers.get(toWrapperClass(clazz));
+        if (stringifier == null) throw new DataParsingException("Unsupported Stringifying Data Type: %s".formatted(clazz.getName()));
+
+        return stringifier;
+    }
+
+    /**
+     * Converts a primitive type into its wrapper type, as stringifiers are registered with wrapper types.
+     *
+     * @param clazz The class of the type
+     * @return The wrapper class if the type is primitive, otherwise the class itself
+     */
+    private static Class<?> toWrapperClass(Class<?> clazz){
+        if(clazz == int.class) return Integer.class;
+        if(clazz == boolean.class) return Boolean.class;
+
+        return clazz;
     }
 }
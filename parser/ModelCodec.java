@@ -0,0 +1,559 @@
+package parser;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.nio.ByteBuffer;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.function.Function;
+
+import exception.DataParsingException;
+import model.CSVField;
+import model.DataModel;
+import parser.BinaryParser.BinaryReader;
+import parser.BinaryParser.BinaryWriter;
+
+/**
+ * Converts {@link DataModel} instances of one class from and to CSV rows.
+ * <p>
+ * A codec is built once per model class from its {@link CSVField} metadata.
+ * Fields are accessed through pre-resolved {@link MethodHandle}s, and each column
+ * holds the parser and stringifier of its type, looked up once from {@link DataParser}.
+ * Converting a row is therefore a plain loop over the columns, without any reflective
+ * lookup or map lookup per value.
+ * </p>
+ * <p>
+ * Rows can also be converted to the binary form of {@link BinaryParser}, where each value is
+ * stored by its type instead of as text, and decoded back without any text parsing.
+ * </p>
+ * <p>
+ * While a table is loaded, decoded values can be passed through a {@link ValueInterner} from
+ * {@link #newInterner()}, so that rows repeating a value share one instance.
+ * </p>
+ * <p>
+ * The version column, declared last, may be missing from rows written before it existed,
+ * such as older CSV files and change logs; such rows are decoded with version {@code 0}.
+ * </p>
+ *
+ * @param <T> the type of {@code DataModel} handled by this codec
+ *
+ * @see CSVField
+ * @see DataParser
+ * @see BinaryParser
+ */
+public class ModelCodec<T extends DataModel> {
+    /**
+     * Resolves the model referenced by a foreign key column during decoding.
+     */
+    @FunctionalInterface
+    public interface ForeignKeyResolver {
+        /**
+         * Retrieves the referenced model by its primary key.
+         *
+         * @param clazz the class of the referenced model
+         * @param PK    the primary key of the referenced model
+         * @return the referenced model, or {@code null} if not found
+         */
+        DataModel resolve(Class<? extends DataModel> clazz, String PK);
+    }
+
+    /**
+     * A single CSV column mapped to a field of the model.
+     */
+    private static class Column {
+        private final String name;
+        private final Class<?> type;
+        private final boolean isForeignKey;
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+        private final Function<String, ?> parser;
+        private final Function<Object, String> stringifier;
+        private final BinaryReader<?> binaryReader;
+        private final BinaryWriter<Object> binaryWriter;
+
+        @SuppressWarnings("unchecked")
+        private Column(Field field, MethodHandles.Lookup lookup) throws IllegalAccessException{
+            final CSVField annotation = field.getAnnotation(CSVField.class);
+
+            this.name = field.getName();
+            this.type = field.getType();
+            this.isForeignKey = annotation.foreignKey();
+            this.getter = lookup.unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class));
+            this.setter = lookup.unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, Object.class));
+
+            if(isForeignKey){
+                if(!DataModel.class.isAssignableFrom(type)){
+                    throw new DataParsingException("Foreign key should be class implementing DataModel. Class: %s".formatted(type));
+                }
+                this.parser = null;
+                this.stringifier = null;
+                this.binaryReader = null;
+                this.binaryWriter = null;
+            }
+            else{
+                this.parser = DataParser.getParser(type);
+                this.stringifier = (Function<Object, String>) DataParser.getStringifier(type);
+                this.binaryReader = BinaryParser.getReader(type);
+                this.binaryWriter = (BinaryWriter<Object>) BinaryParser.getWriter(type);
+            }
+        }
+    }
+
+    private final Class<T> clazz;
+    private final MethodHandle constructor;
+    private final Column[] columns;
+    private final int pkIndex;
+    private final int versionIndex;
+    private final ForeignKeyResolver foreignKeyResolver;
+
+    /**
+     * Builds a codec for the specified model class.
+     *
+     * @param clazz              the class of the model, with a no-argument constructor
+     * @param foreignKeyResolver the resolver of foreign key columns during decoding
+     * @throws DataParsingException if the class is not a valid CSV model, such as missing a
+     *                              primary key or an {@code int} version as its last column, or declaring a field type not supported by {@link DataParser}
+     */
+    public ModelCodec(Class<T> clazz, ForeignKeyResolver foreignKeyResolver){
+        this.clazz = clazz;
+        this.foreignKeyResolver = foreignKeyResolver;
+
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(clazz, MethodHandles.lookup());
+            this.constructor = lookup.findConstructor(clazz, MethodType.methodType(void.class))
+                                    .asType(MethodType.methodType(Object.class));
+
+            final List<Field> fields = Arrays.stream(clazz.getDeclaredFields())
+                                    .filter(field -> field.isAnnotationPresent(CSVField.class))
+                                    .sorted(Comparator.comparingInt(field -> field.getAnnotation(CSVField.class).index()))
+                                    .toList();
+
+            this.columns = new Column[fields.size()];
+            int pkIndex = -1;
+            int versionIndex = -1;
+            for(int i = 0; i < columns.length; i++){
+                final Field field = fields.get(i);
+                columns[i] = new Column(field, lookup);
+
+                if(field.getAnnotation(CSVField.class).primaryKey()){
+                    pkIndex = i;
+                }
+                if(field.getAnnotation(CSVField.class).version()){
+                    versionIndex = i;
+                }
+            }
+
+            if(pkIndex < 0){
+                throw new DataParsingException("Primary key should be declared with CSVField. Class: %s".formatted(clazz));
+            }
+            this.pkIndex = pkIndex;
+
+            if(versionIndex != columns.length - 1 || columns[versionIndex].type != int.class){
+                throw new DataParsingException("Version should be declared with CSVField as the last column, of type int. Class: %s".formatted(clazz));
+            }
+            this.versionIndex = versionIndex;
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new DataParsingException("Unable to access model %s: %s".formatted(clazz.getName(), e.getMessage()));
+        }
+    }
+
+    /**
+     * Returns the class of the model handled by this codec.
+     *
+     * @return the model class
+     */
+    public Class<T> getModelClass() {
+        return clazz;
+    }
+
+    /**
+     * Returns the model classes referenced by the foreign key columns of this model.
+     * The referenced models must be available before rows of this model can be decoded.
+     *
+     * @return the set of referenced model classes
+     */
+    @SuppressWarnings("unchecked")
+    public Set<Class<? extends DataModel>> getForeignKeyClasses() {
+        final Set<Class<? extends DataModel>> foreignKeyClasses = new LinkedHashSet<>();
+
+        for(Column column:columns){
+            if(column.isForeignKey){
+                foreignKeyClasses.add((Class<? extends DataModel>) column.type);
+            }
+        }
+
+        return foreignKeyClasses;
+    }
+
+    /**
+     * Returns the getters of the foreign key columns of this model, by field name.
+     * Each getter returns the model referenced by the foreign key.
+     *
+     * @return the map of field names to foreign key getters, ordered by column index
+     */
+    public Map<String, Function<T, DataModel>> getForeignKeyGetters() {
+        final Map<String, Function<T, DataModel>> getters = new LinkedHashMap<>();
+
+        for(Column column:columns){
+            if(column.isForeignKey){
+                final Function<T, Object> getter = toGetter(column);
+                getters.put(column.name, model -> (DataModel) getter.apply(model));
+            }
+        }
+
+        return getters;
+    }
+
+    /**
+     * Returns the getter of a column, by field name.
+     *
+     * @param field the name of the field
+     * @return the getter of the field, or {@code null} if the field is not a column of this model
+     */
+    public Function<T, Object> getGetter(String field) {
+        for(Column column:columns){
+            if(column.name.equals(field)){
+                return toGetter(column);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Checks whether a field is a foreign key column.
+     *
+     * @param field the name of the field
+     * @return {@code true} if the field is a foreign key column of this model
+     */
+    public boolean isForeignKey(String field) {
+        for(Column column:columns){
+            if(column.name.equals(field)){
+                return column.isForeignKey;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Wraps the getter handle of a column into a function.
+     *
+     * @param column the column
+     * @return a function reading the column from a model
+     * @throws DataParsingException at runtime if the column cannot be read
+     */
+    private Function<T, Object> toGetter(Column column) {
+        return model -> {
+            try {
+                return column.getter.invokeExact((Object) model);
+            } catch (Throwable e) {
+                throw new DataParsingException("Unable to read %s of %s: %s".formatted(column.name, clazz.getSimpleName(), e.getMessage()));
+            }
+        };
+    }
+
+    /**
+     * Returns the column index of the primary key.
+     *
+     * @return the index of the primary key column
+     */
+    public int getPKIndex() {
+        return pkIndex;
+    }
+
+    /**
+     * Reads the version of a model.
+     *
+     * @param model the model
+     * @return the version of the model
+     * @throws DataParsingException if the version cannot be read
+     */
+    public int getVersion(T model) {
+        try {
+            final Object version = columns[versionIndex].getter.invokeExact((Object) model);
+            return (int) version;
+        } catch (Throwable e) {
+            throw new DataParsingException("Unable to read version of %s: %s".formatted(clazz.getSimpleName(), e.getMessage()));
+        }
+    }
+
+    /**
+     * Overwrites the version of a model.
+     *
+     * @param model   the model
+     * @param version the new version
+     * @throws DataParsingException if the version cannot be assigned
+     */
+    public void setVersion(T model, int version) {
+        try {
+            columns[versionIndex].setter.invokeExact((Object) model, (Object) version);
+        } catch (Throwable e) {
+            throw new DataParsingException("Unable to assign version of %s: %s".formatted(clazz.getSimpleName(), e.getMessage()));
+        }
+    }
+
+    /**
+     * Returns a hash of the column layout of this model, including the type of every column
+     * and the constants of enum columns.
+     * <p>
+     * Binary data written with a different hash has an incompatible layout and must not be decoded.
+     * </p>
+     *
+     * @return the hash of the column layout
+     */
+    public int getSchemaHash() {
+        final StringBuilder schema = new StringBuilder(clazz.getName());
+
+        for(Column column:columns){
+            schema.append(',').append(column.type.getName());
+            if(column.isForeignKey){
+                schema.append("->FK");
+            }
+            if(column.type.isEnum()){
+                schema.append(Arrays.toString(column.type.getEnumConstants()));
+            }
+        }
+
+        return schema.toString().hashCode();
+    }
+
+    /**
+     * Creates an interner for the values of this model, for the duration of a load.
+     * Foreign key columns are resolved to shared models already, and primary keys are unique,
+     * so neither is interned.
+     *
+     * @return a new interner for the columns of this model
+     */
+    public ValueInterner newInterner() {
+        final Set<Integer> skippedColumns = IntStream.range(0, columns.length)
+            .filter(i -> i == pkIndex || columns[i].isForeignKey)
+            .boxed()
+            .collect(Collectors.toSet());
+
+        return new ValueInterner(getColumnTypes(), skippedColumns);
+    }
+
+    /**
+     * Instantiates a model from a CSV row.
+     *
+     * @param values the values of the row, ordered by column index
+     * @return the decoded model
+     * @throws DataParsingException if a value cannot be parsed or assigned
+     */
+    public T decode(List<String> values){
+        return decode(values, null);
+    }
+
+    /**
+     * Instantiates a model from a CSV row, sharing repeated values through an interner.
+     *
+     * @param values   the values of the row, ordered by column index
+     * @param interner the interner of the values, or {@code null} to keep every value decoded
+     * @return the decoded model
+     * @throws DataParsingException if a value cannot be parsed or assigned
+     */
+    @SuppressWarnings("unchecked")
+    public T decode(List<String> values, ValueInterner interner){
+        final Object model;
+        try {
+            model = constructor.invokeExact();
+        } catch (Throwable e) {
+            throw new DataParsingException("Unable to decode %s: %s".formatted(clazz.getSimpleName(), e.getMessage()));
+        }
+
+        assign((T) model, values, interner);
+        return (T) model;
+    }
+
+    /**
+     * Overwrites the fields of an existing model with the values of a CSV row.
+     * Used to restore a model in place to a row previously obtained from {@link #encode(DataModel)}.
+     *
+     * @param model  the model to overwrite
+     * @param values the values of the row, ordered by column index
+     * @throws DataParsingException if a value cannot be parsed or assigned
+     */
+    public void assign(T model, List<String> values){
+        assign(model, values, null);
+    }
+
+    /**
+     * Overwrites the fields of a model with the values of a CSV row, sharing repeated values through an interner.
+     *
+     * @param model    the model to overwrite
+     * @param values   the values of the row, ordered by column index
+     * @param interner the interner of the values, or {@code null} to keep every value decoded
+     * @throws DataParsingException if a value cannot be parsed or assigned
+     */
+    @SuppressWarnings("unchecked")
+    private void assign(T model, List<String> values, ValueInterner interner){
+        try {
+            for(int i = 0; i < columns.length; i++){
+                final Column column = columns[i];
+                final String value = valueAt(values, i);
+                Object parsed = column.isForeignKey
+                    ? foreignKeyResolver.resolve((Class<? extends DataModel>) column.type, value)
+                    : column.parser.apply(value);
+                if(interner != null){
+                    parsed = interner.intern(i, parsed);
+                }
+
+                column.setter.invokeExact((Object) model, parsed);
+            }
+        } catch (DataParsingException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new DataParsingException("Unable to decode %s: %s".formatted(clazz.getSimpleName(), e.getMessage()));
+        }
+    }
+
+    /**
+     * Converts a model into a CSV row.
+     * Foreign key columns are stored as the primary key of the referenced model.
+     *
+     * @param model the model to encode
+     * @return the values of the row, ordered by column index
+     * @throws DataParsingException if a value cannot be read or converted
+     */
+    public List<String> encode(T model){
+        final List<String> values = new ArrayList<>(columns.length);
+
+        try {
+            for(int i = 0; i < columns.length; i++){
+                final Column column = columns[i];
+                final Object value = column.getter.invokeExact((Object) model);
+
+                values.add(column.isForeignKey
+                    ? ((DataModel) value).getPK()
+                    : column.stringifier.apply(value));
+            }
+        } catch (DataParsingException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new DataParsingException("Unable to encode %s: %s".formatted(clazz.getSimpleName(), e.getMessage()));
+        }
+
+        return values;
+    }
+
+    /**
+     * Returns the types of the columns of this model, ordered by column index.
+     * The type of a foreign key column is the class of the referenced model.
+     *
+     * @return the column types
+     */
+    public List<Class<?>> getColumnTypes() {
+        final List<Class<?>> types = new ArrayList<>(columns.length);
+
+        for(Column column:columns){
+            types.add(column.type);
+        }
+
+        return types;
+    }
+
+    /**
+     * Instantiates a copy of a model, sharing the values of its columns, including the models its foreign keys
+     * reference. Fields that are not columns, such as those filled in by a load resolver, are left unset.
+     *
+     * @param model the model to copy
+     * @return the copy of the model
+     * @throws DataParsingException if a value cannot be read or assigned
+     */
+    @SuppressWarnings("unchecked")
+    public T copy(T model){
+        try {
+            final Object copy = constructor.invokeExact();
+
+            for(Column column:columns){
+                column.setter.invokeExact(copy, column.getter.invokeExact((Object) model));
+            }
+
+            return (T) copy;
+        } catch (Throwable e) {
+            throw new DataParsingException("Unable to copy %s: %s".formatted(clazz.getSimpleName(), e.getMessage()));
+        }
+    }
+
+    /**
+     * Instantiates a model from its binary form, written by {@link #encodeBinary(List, DataOutput)}.
+     * The position of the input is advanced to the start of the next row.
+     *
+     * @param in       the binary input, positioned at the start of the row
+     * @param interner the interner of the values, or {@code null} to keep every value decoded
+     * @return the decoded model
+     * @throws DataParsingException if the input is truncated, or a value cannot be assigned
+     */
+    @SuppressWarnings("unchecked")
+    public T decodeBinary(ByteBuffer in, ValueInterner interner){
+        try {
+            final Object model = constructor.invokeExact();
+
+            for(int i = 0; i < columns.length; i++){
+                final Column column = columns[i];
+                Object value = column.isForeignKey
+                    ? foreignKeyResolver.resolve((Class<? extends DataModel>) column.type, BinaryParser.readString(in))
+                    : column.binaryReader.read(in);
+                if(interner != null){
+                    value = interner.intern(i, value);
+                }
+
+                column.setter.invokeExact(model, value);
+            }
+
+            return (T) model;
+        } catch (DataParsingException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new DataParsingException("Unable to decode %s: %s".formatted(clazz.getSimpleName(), e.getMessage()));
+        }
+    }
+
+    /**
+     * Writes a CSV row in binary form.
+     * Each value is parsed and written by its type, while foreign key columns are written
+     * as the primary key of the referenced model, so no model needs to be instantiated.
+     *
+     * @param values the values of the row, ordered by column index
+     * @param out    the binary output
+     * @throws IOException if the output cannot be written
+     * @throws DataParsingException if a value cannot be parsed
+     */
+    public void encodeBinary(List<String> values, DataOutput out) throws IOException{
+        for(int i = 0; i < columns.length; i++){
+            final Column column = columns[i];
+            final String value = valueAt(values, i);
+
+            if(column.isForeignKey){
+                BinaryParser.writeString(out, value);
+            }
+            else{
+                column.binaryWriter.write(out, column.parser.apply(value));
+            }
+        }
+    }
+
+    /**
+     * Reads a value of a CSV row, reading a missing version column as version {@code 0}.
+     *
+     * @param values the values of the row, ordered by column index
+     * @param index  the index of the column
+     * @return the value of the column
+     */
+    private String valueAt(List<String> values, int index){
+        return index == versionIndex && index >= values.size() ? "0" : values.get(index);
+    }
+}
@@ -0,0 +1,118 @@
+package parser;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Deduplicates the values decoded for the columns of one table while it is loaded,
+ * so that rows repeating a value, such as a neighbourhood or an opening date, share one instance.
+ * <p>
+ * Each column of an immutable reference type, such as {@link String} or {@link LocalDate}, has its own
+ * bounded interning table. The first {@value #SAMPLE_SIZE} values of a column are sampled: if more than
+ * one in {@value #MIN_REPEATS_PER_VALUE} of them are distinct, the column is deemed of high cardinality,
+ * such as a creation timestamp or a free-text message, and its table is dropped, so that it costs nothing
+ * for the rest of the load. A table never holds more than {@value #MAX_ENTRIES} values; once full, new values
+ * are passed through unchanged while the values already held are still shared.
+ * </p>
+ * <p>
+ * Primitive columns, such as prices, are stored in the model itself and enums are singletons,
+ * so neither gains anything from interning.
+ * </p>
+ * <p>
+ * The memory saved is estimated from the shallow size of the duplicates dropped, assuming compressed
+ * object pointers and Latin-1 strings. This class is not thread-safe: each load uses its own interner.
+ * </p>
+ */
+public class ValueInterner {
+    /** Number of values of a column sampled before deciding whether the column is worth interning. */
+    private static final int SAMPLE_SIZE = 1024;
+    /** Minimum number of times each distinct value of a sampled column must repeat on average. */
+    private static final int MIN_REPEATS_PER_VALUE = 4;
+    /** Maximum number of distinct values held for one column. */
+    private static final int MAX_ENTRIES = 4096;
+    /** Types whose instances are immutable, and so can be shared between rows. */
+    private static final Set<Class<?>> INTERNABLE_TYPES = Set.of(String.class, LocalDate.class, LocalDateTime.class);
+
+    /** Interning table of each column, {@code null} for a column that is not interned. */
+    private final Map<Object, Object>[] tables;
+    private final int[] sampledCounts;
+    private long savedBytes = 0;
+
+    /**
+     * Constructs an interner for the columns of a table.
+     *
+     * @param columnTypes    the types of the columns, ordered by column index
+     * @param skippedColumns the indexes of the columns never interned, such as the primary key
+     */
+    @SuppressWarnings("unchecked")
+    public ValueInterner(List<Class<?>> columnTypes, Set<Integer> skippedColumns){
+        this.tables = (Map<Object, Object>[]) new Map<?, ?>[columnTypes.size()];
+        this.sampledCounts = new int[columnTypes.size()];
+
+        for(int i = 0; i < tables.length; i++){
+            if(!skippedColumns.contains(i) && INTERNABLE_TYPES.contains(columnTypes.get(i))){
+                tables[i] = new HashMap<>();
+            }
+        }
+    }
+
+    /**
+     * Returns the shared instance of a value of a column, adding it to the table of the column if needed.
+     *
+     * @param <V>    the type of the value
+     * @param column the index of the column
+     * @param value  the decoded value
+     * @return the shared instance equal to the value, or the value itself if the column is not interned
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V intern(int column, V value){
+        final Map<Object, Object> table = tables[column];
+        if(table == null || value == null) return value;
+
+        final Object shared = table.get(value);
+        if(shared != null){
+            savedBytes += sizeOf(value);
+        }
+        else if(table.size() < MAX_ENTRIES){
+            table.put(value, value);
+        }
+
+        if(sampledCounts[column] < SAMPLE_SIZE && ++sampledCounts[column] == SAMPLE_SIZE
+                && table.size() * MIN_REPEATS_PER_VALUE > SAMPLE_SIZE){
+            tables[column] = null;
+        }
+
+        return shared == null ? value : (V) shared;
+    }
+
+    /**
+     * Returns the estimated number of bytes no longer allocated, as duplicates were replaced by shared instances.
+     *
+     * @return the memory saved so far, in bytes
+     */
+    public long getSavedBytes(){
+        return savedBytes;
+    }
+
+    /**
+     * Estimates the shallow size of a value of an internable type, including the objects it owns.
+     *
+     * @param value the value
+     * @return the estimated size in bytes
+     */
+    private static long sizeOf(Object value){
+        if(value instanceof String string){
+            // String object, then its byte array header and content, padded to 8 bytes
+            return 24 + ((16 + string.length() + 7) & ~7);
+        }
+        if(value instanceof LocalDateTime){
+            // Date-time object, and the date and time objects it references
+            return 24 + 24 + 24;
+        }
+        return 24;
+    }
+}
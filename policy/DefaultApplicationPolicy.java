@@ -1,6 +1,6 @@
 package policy;
 
-import java.util.List;
+import java.util.EnumSet;
 
 import config.ApplicationStatus;
 import config.FlatType;
@@ -11,6 +11,7 @@ import model.BTOProject;
 import model.OfficerRegistration;
 import model.User;
 import policy.interfaces.ApplicationPolicy;
+import query.Query;
 
 
 /**
@@ -300,10 +301,10 @@ public class DefaultApplicationPolicy implements ApplicationPolicy{
      */
     private boolean hasAppliedForBTOProject(User requestedUser, BTOProject btoProject) {
         // Checks if an application already exists for the specified user and project
-        return dataManager.countByQueries(Application.class, List.of(
-            application -> application.getBTOProject() == btoProject,
-            application -> application.getApplicant() == requestedUser
-        )) > 0;
+        return dataManager.exists(new Query<>(Application.class)
+            .where("applicant", requestedUser)
+            .where("btoProject", btoProject)
+        );
     }
 
     /**
@@ -315,10 +316,10 @@ public class DefaultApplicationPolicy implements ApplicationPolicy{
      */
     private boolean hasRegisteredForBTOProject(User requestedUser, BTOProject btoProject) {
         // Checks if the user is registered as an HDB officer for the given BTO project
-        return dataManager.countByQueries(OfficerRegistration.class, List.of(
-            registration -> registration.getBTOProject() == btoProject,
-            registration -> registration.getHDBOfficer() == requestedUser
-        )) > 0;
+        return dataManager.exists(new Query<>(OfficerRegistration.class)
+            .where("HDBOfficer", requestedUser)
+            .where("btoProject", btoProject)
+        );
     }
 
     /**
@@ -328,10 +329,10 @@ public class DefaultApplicationPolicy implements ApplicationPolicy{
      * @return boolean true if the user has non-unsuccessful applications; false otherwise
      */
     private boolean hasNonUnsuccessfulApplications(User requestedUser) {
-        return dataManager.countByQueries(Application.class, List.of(
-            application -> application.getApplicant() == requestedUser,
-            application -> application.getApplicationStatus() != ApplicationStatus.UNSUCCESSFUL
-        )) > 0;
+        return dataManager.exists(new Query<>(Application.class)
+            .where("applicant", requestedUser)
+            .whereIn("applicationStatus", EnumSet.complementOf(EnumSet.of(ApplicationStatus.UNSUCCESSFUL)))
+        );
     }
 
     /**
@@ -343,11 +344,12 @@ public class DefaultApplicationPolicy implements ApplicationPolicy{
      * @return boolean true if there are enough flats for all approved applications; false otherwise
      */
     private boolean hasEnoughFlatNum(User requestedUser, Application approvingApplication) {
-        return dataManager.countByQueries(Application.class, List.of(
-            // Checks if there are enough flats for the application based on the count of successful applications for the same flat type
-            application -> application.getApplicationStatus() == ApplicationStatus.SUCCESSFUL,
-            application -> application.getBTOProject() == application.getBTOProject(),
-            application -> application.getFlatType() == approvingApplication.getFlatType()
-        )) < approvingApplication.getFlatNum();
+        // Checks if there are enough flats for the application based on the count of successful applications
+        // for the same flat type of the same project
+        return dataManager.countByQuery(new Query<>(Application.class)
+            .where("btoProject", approvingApplication.getBTOProject())
+            .where("flatType", approvingApplication.getFlatType())
+            .where("applicationStatus", ApplicationStatus.SUCCESSFUL)
+        ) < approvingApplication.getFlatNum();
     }
 }
@@ -4,11 +4,14 @@ import model.Application;
 import model.BTOProject;
 import model.User;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import config.UserRole;
 import manager.interfaces.DataManager;
 import policy.interfaces.BTOProjectPolicy;
+import query.Query;
+import util.DateProvider;
 
 /**
  * Default implementation of the {@link BTOProjectPolicy} interface.
@@ -131,10 +134,15 @@ public class DefaultBTOProjectPolicy implements BTOProjectPolicy {
      * @return a denial response if an active project is found; otherwise allow
      */
     private PolicyResponse checkHasActiveBTOProjects(User requestedUser) {
-        final List<BTOProject> btoProjects = dataManager.getByQueries(BTOProject.class, List.of( 
-            btoProject -> btoProject.getHDBManager() == requestedUser,
-            btoProject -> btoProject.isActive()
-        ));
+        final LocalDate today = DateProvider.today();
+        // Same as BTOProject.isActive(), as conditions on the columns of the project
+        final List<BTOProject> btoProjects = dataManager.getByQuery(new Query<>(BTOProject.class)
+            .where("HDBManager", requestedUser)
+            .where("visible", true)
+            .whereBetween("openingDate", null, today)
+            .whereBetween("closingDate", today, null)
+            .limit(1)
+        );
 
         if(!btoProjects.isEmpty()){
             final BTOProject btoProject = btoProjects.get(0);
@@ -152,9 +160,9 @@ public class DefaultBTOProjectPolicy implements BTOProjectPolicy {
      * @return true if the user has applied for the project; false otherwise
      */
     private boolean hasAppliedForBTOProject(User requestedUser, BTOProject btoProject) {
-        return dataManager.countByQueries(Application.class, List.of(
-            application -> application.getBTOProject() == btoProject,
-            application -> application.getApplicant() == requestedUser
-        )) > 0;
+        return dataManager.exists(new Query<>(Application.class)
+            .where("applicant", requestedUser)
+            .where("btoProject", btoProject)
+        );
     }
 }
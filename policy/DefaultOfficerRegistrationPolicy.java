@@ -10,6 +10,7 @@ import model.BTOProject;
 import model.OfficerRegistration;
 import model.User;
 import policy.interfaces.OfficerRegistrationPolicy;
+import query.Query;
 
 /**
  * Default implementation of {@link OfficerRegistrationPolicy} that enforces
@@ -148,10 +149,10 @@ public class DefaultOfficerRegistrationPolicy implements OfficerRegistrationPoli
      * @return true if already registered, false otherwise
      */
     private boolean hasRegisteredForBTOProject(User requestedUser, BTOProject btoProject) {
-        return dataManager.countByQueries(OfficerRegistration.class, List.of(
-            registration -> registration.getBTOProject() == btoProject,
-            registration -> registration.getHDBOfficer() == requestedUser
-        )) > 0;
+        return dataManager.exists(new Query<>(OfficerRegistration.class)
+            .where("HDBOfficer", requestedUser)
+            .where("btoProject", btoProject)
+        );
     }
 
     /**
@@ -162,10 +163,10 @@ public class DefaultOfficerRegistrationPolicy implements OfficerRegistrationPoli
      * @return true if applied, false otherwise
      */
     private boolean hasAppliedForBTOProject(User requestedUser, BTOProject btoProject) {
-        return dataManager.countByQueries(Application.class, List.of(
-            application -> application.getBTOProject() == btoProject,
-            application -> application.getApplicant() == requestedUser
-        )) > 0;
+        return dataManager.exists(new Query<>(Application.class)
+            .where("applicant", requestedUser)
+            .where("btoProject", btoProject)
+        );
     }
 
     /**
@@ -177,11 +178,11 @@ public class DefaultOfficerRegistrationPolicy implements OfficerRegistrationPoli
      * @return a {@link PolicyResponse} denying or allowing based on overlap
      */
     private PolicyResponse hasOverlappingOfficerRegistration(User requestedUser, BTOProject btoProject) {
-        List<OfficerRegistration> officerRegistrations = dataManager.getByQueries(OfficerRegistration.class, List.of(
-            registration -> registration.getHDBOfficer() == requestedUser,
-            registration -> registration.getRegistrationStatus() != RegistrationStatus.UNSUCCESSFUL,
-            registration -> registration.getBTOProject().isOverlappingWith(btoProject)
-        )); 
+        List<OfficerRegistration> officerRegistrations = dataManager.getByQuery(new Query<>(OfficerRegistration.class)
+            .where("HDBOfficer", requestedUser)
+            .whereIn("registrationStatus", List.of(RegistrationStatus.PENDING, RegistrationStatus.SUCCESSFUL))
+            .whereOverlapping("applicationPeriod", btoProject.getOpeningDate(), btoProject.getClosingDate())
+        );
 
         if(officerRegistrations.size() > 0){
             BTOProject otherBTOProject = officerRegistrations.get(0).getBTOProject();
@@ -0,0 +1,224 @@
+package query;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import model.DataModel;
+
+/**
+ * A condition on a single field of a {@link DataModel}, used by {@link Query}.
+ * <p>
+ * Unlike an opaque {@code Predicate}, a condition names the field it tests and its operator,
+ * so the data layer can decide to answer it through an index instead of scanning every record.
+ * </p>
+ * <p>
+ * Values are compared with {@link Object#equals(Object)}. As data models do not override it,
+ * a condition on a foreign key field matches the referenced model by identity.
+ * </p>
+ *
+ * @see Query
+ */
+public class Condition {
+    /**
+     * Operators supported by a condition, in the order they are cheapest to evaluate.
+     */
+    public enum Operator {
+        /** The field equals a value. */
+        EQUALS,
+        /** The field equals any value of a set. */
+        IN,
+        /** The field lies within an inclusive range, where a missing bound is unbounded. */
+        RANGE,
+        /** The period of the record, between a start and an end, overlaps an inclusive period. */
+        OVERLAPS
+    }
+
+    private final String field;
+    private final Operator operator;
+    private final Set<Object> values;
+    private final Comparable<Object> lowerBound;
+    private final Comparable<Object> upperBound;
+
+    /**
+     * Constructs a condition. Use the factory methods instead.
+     *
+     * @param field      the name of the field
+     * @param operator   the operator of the condition
+     * @param values     the values to match, for {@code EQUALS} and {@code IN}
+     * @param lowerBound the inclusive lower bound for {@code RANGE}, or {@code null}, or the start for {@code OVERLAPS}
+     * @param upperBound the inclusive upper bound for {@code RANGE}, or {@code null}, or the end for {@code OVERLAPS}
+     */
+    private Condition(String field, Operator operator, Set<Object> values, Comparable<Object> lowerBound, Comparable<Object> upperBound){
+        this.field = field;
+        this.operator = operator;
+        this.values = values;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+    }
+
+    /**
+     * Creates a condition matching records whose field equals a value.
+     *
+     * @param field the name of the field
+     * @param value the value to match
+     * @return the condition
+     */
+    public static Condition equalsTo(String field, Object value){
+        final Set<Object> values = new LinkedHashSet<>();
+        values.add(value);
+        return new Condition(field, Operator.EQUALS, values, null, null);
+    }
+
+    /**
+     * Creates a condition matching records whose field equals any of the given values.
+     *
+     * @param field  the name of the field
+     * @param values the values to match
+     * @return the condition
+     */
+    public static Condition in(String field, Collection<?> values){
+        return new Condition(field, Operator.IN, new LinkedHashSet<>(values), null, null);
+    }
+
+    /**
+     * Creates a condition matching records whose field lies within an inclusive range.
+     *
+     * @param <V>        the type of the field
+     * @param field      the name of the field
+     * @param lowerBound the inclusive lower bound, or {@code null} if unbounded
+     * @param upperBound the inclusive upper bound, or {@code null} if unbounded
+     * @return the condition
+     */
+    @SuppressWarnings("unchecked")
+    public static <V extends Comparable<? super V>> Condition between(String field, V lowerBound, V upperBound){
+        return new Condition(field, Operator.RANGE, Set.of(), (Comparable<Object>) lowerBound, (Comparable<Object>) upperBound);
+    }
+
+    /**
+     * Creates a condition matching records whose period overlaps an inclusive period.
+     * <p>
+     * A period is not a single field: it is named when its interval index is declared by the data layer,
+     * which reads the start and end of each record from it. Both bounds are required.
+     * </p>
+     *
+     * @param <V>    the type of the start and end of the period
+     * @param period the name of the period
+     * @param from   the start of the period
+     * @param to     the end of the period
+     * @return the condition
+     */
+    @SuppressWarnings("unchecked")
+    public static <V extends Comparable<? super V>> Condition overlapping(String period, V from, V to){
+        return new Condition(period, Operator.OVERLAPS, Set.of(), (Comparable<Object>) from, (Comparable<Object>) to);
+    }
+
+    /**
+     * Returns the name of the field tested by this condition.
+     *
+     * @return the field name
+     */
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * Returns the operator of this condition.
+     *
+     * @return the operator
+     */
+    public Operator getOperator() {
+        return operator;
+    }
+
+    /**
+     * Returns the values matched by an {@code EQUALS} or {@code IN} condition.
+     *
+     * @return the values to match, empty for a {@code RANGE} or {@code OVERLAPS} condition
+     */
+    public Set<Object> getValues() {
+        return values;
+    }
+
+    /**
+     * Returns the inclusive lower bound of a {@code RANGE} condition, or the start of an {@code OVERLAPS} condition.
+     *
+     * @return the lower bound, or {@code null} if unbounded or an {@code EQUALS} or {@code IN} condition
+     */
+    public Comparable<Object> getLowerBound() {
+        return lowerBound;
+    }
+
+    /**
+     * Returns the inclusive upper bound of a {@code RANGE} condition, or the end of an {@code OVERLAPS} condition.
+     *
+     * @return the upper bound, or {@code null} if unbounded or an {@code EQUALS} or {@code IN} condition
+     */
+    public Comparable<Object> getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * Tests the value of the field of a record against this condition.
+     * An {@code OVERLAPS} condition is tested with {@link #testPeriod(Object, Object)} instead.
+     *
+     * @param value the value of the field
+     * @return {@code true} if the value satisfies the condition
+     * @throws UnsupportedOperationException if this is an {@code OVERLAPS} condition
+     */
+    public boolean test(Object value){
+        if(operator == Operator.OVERLAPS){
+            throw new UnsupportedOperationException("%s should be tested with a period".formatted(this));
+        }
+        if(operator != Operator.RANGE){
+            return values.contains(value);
+        }
+
+        if(value == null) return false;
+        return (lowerBound == null || lowerBound.compareTo(value) <= 0)
+            && (upperBound == null || upperBound.compareTo(value) >= 0);
+    }
+
+    /**
+     * Tests the period of a record against an {@code OVERLAPS} condition, bounds included.
+     *
+     * @param start the start of the period of the record
+     * @param end   the end of the period of the record
+     * @return {@code true} if the record starts no later than the end of this condition and ends no earlier than its start
+     */
+    public boolean testPeriod(Object start, Object end){
+        if(start == null || end == null) return false;
+        return upperBound.compareTo(start) >= 0 && lowerBound.compareTo(end) <= 0;
+    }
+
+    /**
+     * Returns a readable form of this condition, used by query plans.
+     * Data models are shown by their primary key.
+     *
+     * @return the condition as text, e.g. {@code flatType IN (2-Room, 3-Room)}
+     */
+    @Override
+    public String toString(){
+        return switch (operator) {
+            case EQUALS -> "%s = %s".formatted(field, format(values.iterator().next()));
+            case IN -> "%s IN (%s)".formatted(field, values.stream().map(Condition::format).collect(Collectors.joining(", ")));
+            case RANGE -> {
+                if(lowerBound == null) yield "%s <= %s".formatted(field, format(upperBound));
+                if(upperBound == null) yield "%s >= %s".formatted(field, format(lowerBound));
+                yield "%s BETWEEN %s AND %s".formatted(field, format(lowerBound), format(upperBound));
+            }
+            case OVERLAPS -> "%s OVERLAPS [%s, %s]".formatted(field, format(lowerBound), format(upperBound));
+        };
+    }
+
+    /**
+     * Formats a value for {@link #toString()}.
+     *
+     * @param value the value
+     * @return the primary key of a data model, or the value as text otherwise
+     */
+    private static String format(Object value){
+        return value instanceof DataModel model ? model.getPK() : String.valueOf(value);
+    }
+}
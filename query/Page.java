@@ -0,0 +1,80 @@
+package query;
+
+import java.util.List;
+
+import model.DataModel;
+
+/**
+ * One page of the records matching a {@link Query}.
+ * <p>
+ * A page only holds its own records, along with its position among the pages,
+ * so that a listing can be displayed page by page without retrieving the whole result.
+ * </p>
+ *
+ * @param <T> the type of {@code DataModel} queried
+ *
+ * @see Query
+ */
+public class Page<T extends DataModel> {
+    private final List<T> records;
+    private final int pageNumber;
+    private final boolean hasNext;
+
+    /**
+     * Constructs a page.
+     *
+     * @param records    the records of the page, in order
+     * @param pageNumber the number of the page, starting from {@code 0}
+     * @param hasNext    whether more records follow this page
+     */
+    public Page(List<T> records, int pageNumber, boolean hasNext){
+        this.records = List.copyOf(records);
+        this.pageNumber = pageNumber;
+        this.hasNext = hasNext;
+    }
+
+    /**
+     * Returns the records of the page.
+     *
+     * @return the records, in order
+     */
+    public List<T> getRecords() {
+        return records;
+    }
+
+    /**
+     * Returns the number of the page.
+     *
+     * @return the page number, starting from {@code 0}
+     */
+    public int getPageNumber() {
+        return pageNumber;
+    }
+
+    /**
+     * Checks whether a page precedes this page.
+     *
+     * @return {@code true} if this is not the first page
+     */
+    public boolean hasPrevious() {
+        return pageNumber > 0;
+    }
+
+    /**
+     * Checks whether more records follow this page.
+     *
+     * @return {@code true} if there is a next page
+     */
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    /**
+     * Checks whether the page has no record.
+     *
+     * @return {@code true} if the page is empty
+     */
+    public boolean isEmpty() {
+        return records.isEmpty();
+    }
+}
@@ -0,0 +1,241 @@
+package query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+import model.DataModel;
+
+/**
+ * A declarative query over the records of one {@link DataModel} type, built fluently.
+ * <p>
+ * Field conditions are declared by the name of the field, as annotated with {@code CSVField}.
+ * Since the data layer knows which fields each condition tests, it can plan the query:
+ * answer a condition through an index when one exists, and evaluate the cheap field
+ * conditions before any opaque {@code Predicate} filter.
+ * </p>
+ * <pre>{@code
+ * Query<Application> query = new Query<>(Application.class)
+ *     .where("applicant", user)
+ *     .whereIn("applicationStatus", List.of(ApplicationStatus.PENDING, ApplicationStatus.SUCCESSFUL))
+ *     .orderBy(Application.SORT_BY_CREATED_AT_DESC)
+ *     .limit(10);
+ * }</pre>
+ * <p>
+ * Results can be paged either by {@link #offset(int)}, or by keyset with {@link #after(DataModel)},
+ * which resumes right after the last record of the previous page without skipping over the records before it.
+ * Sorted records are ordered by primary key when the comparator considers them equal, so that pages are stable.
+ * </p>
+ *
+ * @param <T> the type of {@code DataModel} queried
+ *
+ * @see Condition
+ * @see QueryPlan
+ */
+public class Query<T extends DataModel> {
+    /** Limit value meaning that all matching records are returned. */
+    public static final int NO_LIMIT = -1;
+
+    private final Class<T> modelClass;
+    private final List<Condition> conditions = new ArrayList<>();
+    private final List<Predicate<T>> filters = new ArrayList<>();
+    private Comparator<T> comparator;
+    private int limit = NO_LIMIT;
+    private int offset = 0;
+    private T after;
+
+    /**
+     * Constructs a query matching all records of a data model type.
+     *
+     * @param modelClass the class of the data model, acting as the table to query
+     */
+    public Query(Class<T> modelClass){
+        this.modelClass = modelClass;
+    }
+
+    /**
+     * Restricts the query to records whose field equals a value.
+     *
+     * @param field the name of the field
+     * @param value the value to match, or the referenced model for a foreign key
+     * @return this query
+     */
+    public Query<T> where(String field, Object value){
+        conditions.add(Condition.equalsTo(field, value));
+        return this;
+    }
+
+    /**
+     * Restricts the query to records whose field equals any of the given values.
+     *
+     * @param field  the name of the field
+     * @param values the values to match
+     * @return this query
+     */
+    public Query<T> whereIn(String field, Collection<?> values){
+        conditions.add(Condition.in(field, values));
+        return this;
+    }
+
+    /**
+     * Restricts the query to records whose field lies within an inclusive range.
+     *
+     * @param <V>        the type of the field
+     * @param field      the name of the field
+     * @param lowerBound the inclusive lower bound, or {@code null} if unbounded
+     * @param upperBound the inclusive upper bound, or {@code null} if unbounded
+     * @return this query
+     */
+    public <V extends Comparable<? super V>> Query<T> whereBetween(String field, V lowerBound, V upperBound){
+        conditions.add(Condition.between(field, lowerBound, upperBound));
+        return this;
+    }
+
+    /**
+     * Restricts the query to records whose period overlaps an inclusive period.
+     * The period must be declared by the data layer, which answers the condition through its interval index.
+     *
+     * @param <V>    the type of the start and end of the period
+     * @param period the name of the period, such as {@code "applicationPeriod"}
+     * @param from   the start of the period
+     * @param to     the end of the period
+     * @return this query
+     */
+    public <V extends Comparable<? super V>> Query<T> whereOverlapping(String period, V from, V to){
+        conditions.add(Condition.overlapping(period, from, to));
+        return this;
+    }
+
+    /**
+     * Restricts the query with an arbitrary predicate.
+     * Predicates cannot use any index, and are evaluated after all field conditions.
+     *
+     * @param filter the predicate records must satisfy
+     * @return this query
+     */
+    public Query<T> filter(Predicate<T> filter){
+        filters.add(filter);
+        return this;
+    }
+
+    /**
+     * Sorts the matching records.
+     *
+     * @param comparator the comparator used to sort the records
+     * @return this query
+     */
+    public Query<T> orderBy(Comparator<T> comparator){
+        this.comparator = comparator;
+        return this;
+    }
+
+    /**
+     * Limits the number of records returned, after sorting.
+     *
+     * @param limit the maximum number of records, or {@link #NO_LIMIT}
+     * @return this query
+     * @throws IllegalArgumentException if the limit is negative and not {@link #NO_LIMIT}
+     */
+    public Query<T> limit(int limit){
+        if(limit < 0 && limit != NO_LIMIT){
+            throw new IllegalArgumentException("Limit should not be negative: %d".formatted(limit));
+        }
+
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * Skips a number of records, after sorting and before the limit is applied.
+     *
+     * @param offset the number of records to skip
+     * @return this query
+     * @throws IllegalArgumentException if the offset is negative
+     */
+    public Query<T> offset(int offset){
+        if(offset < 0){
+            throw new IllegalArgumentException("Offset should not be negative: %d".formatted(offset));
+        }
+
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * Restricts the query to records sorted after a given record, typically the last record of the previous page.
+     * Records are compared with the comparator of the query, then by primary key; if the query is not sorted,
+     * records are sorted by primary key.
+     *
+     * @param after the record to resume after
+     * @return this query
+     */
+    public Query<T> after(T after){
+        this.after = after;
+        return this;
+    }
+
+    /**
+     * Returns the class of the data model queried.
+     *
+     * @return the model class
+     */
+    public Class<T> getModelClass() {
+        return modelClass;
+    }
+
+    /**
+     * Returns the field conditions of this query.
+     *
+     * @return the field conditions, in declaration order
+     */
+    public List<Condition> getConditions() {
+        return List.copyOf(conditions);
+    }
+
+    /**
+     * Returns the predicate filters of this query.
+     *
+     * @return the predicates, in declaration order
+     */
+    public List<Predicate<T>> getFilters() {
+        return List.copyOf(filters);
+    }
+
+    /**
+     * Returns the comparator used to sort the matching records.
+     *
+     * @return the comparator, or {@code null} if the records are not sorted
+     */
+    public Comparator<T> getComparator() {
+        return comparator;
+    }
+
+    /**
+     * Returns the number of records skipped.
+     *
+     * @return the offset, {@code 0} by default
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns the record the query resumes after.
+     *
+     * @return the record, or {@code null} if the query starts from the first record
+     */
+    public T getAfter() {
+        return after;
+    }
+
+    /**
+     * Returns the maximum number of records returned.
+     *
+     * @return the limit, or {@link #NO_LIMIT}
+     */
+    public int getLimit() {
+        return limit;
+    }
+}
@@ -0,0 +1,153 @@
+package query;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import model.DataModel;
+
+/**
+ * An executable plan of a {@link Query}, as chosen by the data layer.
+ * <p>
+ * A plan reads candidate records from a single access path (an index lookup, a full scan, or an ordered
+ * scan of a sorted index), applies the remaining filters in order, then sorts, offsets and limits the result.
+ * {@link #explain()} describes each step of the plan.
+ * </p>
+ * <p>
+ * The records are streamed as they are consumed. A sorted plan has to read all matching records before
+ * returning the first one, but if it is limited, it only keeps the records up to the end of the requested page,
+ * so listing the first page of a large result does not sort or copy the whole result. A plan reading
+ * its records in order does not sort them at all, and stops reading once its limit is reached.
+ * </p>
+ *
+ * @param <T> the type of {@code DataModel} queried
+ *
+ * @see Query
+ */
+public class QueryPlan<T extends DataModel> {
+    private final String access;
+    private final Supplier<Stream<T>> source;
+    private final List<Predicate<T>> filters = new ArrayList<>();
+    private final List<String> filterDescriptions = new ArrayList<>();
+    private final Comparator<T> comparator;
+    private final int offset;
+    private final int limit;
+
+    /**
+     * Constructs a plan reading candidate records from an access path.
+     *
+     * @param access     a description of the access path
+     * @param source     the supplier of the candidate records, read as they are consumed
+     * @param comparator the comparator used to sort the result, or {@code null} if it is unsorted or read in order
+     * @param offset     the number of records skipped after sorting
+     * @param limit      the maximum number of records returned, or {@link Query#NO_LIMIT}
+     */
+    public QueryPlan(String access, Supplier<Stream<T>> source, Comparator<T> comparator, int offset, int limit){
+        this.access = access;
+        this.source = source;
+        this.comparator = comparator;
+        this.offset = offset;
+        this.limit = limit;
+    }
+
+    /**
+     * Adds a filter applied to the candidate records, after the filters already added.
+     *
+     * @param filter      the filter
+     * @param description a description of the filter
+     * @return this plan
+     */
+    public QueryPlan<T> addFilter(Predicate<T> filter, String description){
+        filters.add(filter);
+        filterDescriptions.add(description);
+        return this;
+    }
+
+    /**
+     * Executes the plan.
+     *
+     * @return a stream of the matching records, sorted, offset and limited as planned
+     */
+    public Stream<T> execute(){
+        Stream<T> stream = source.get();
+
+        for(Predicate<T> filter:filters){
+            stream = stream.filter(filter);
+        }
+        if(comparator != null && limit != Query.NO_LIMIT){
+            // Selecting the first records lazily, so the stream is still only read by its terminal operation
+            final Stream<T> filtered = stream;
+            stream = Stream.of(filtered).flatMap(records -> selectFirst(records, (int) Math.min((long) offset + limit, Integer.MAX_VALUE)).stream());
+        }
+        else if(comparator != null){
+            stream = stream.sorted(comparator);
+        }
+        if(offset > 0){
+            stream = stream.skip(offset);
+        }
+        if(limit != Query.NO_LIMIT){
+            stream = stream.limit(limit);
+        }
+
+        return stream;
+    }
+
+    /**
+     * Selects the first records of a stream in the order of the comparator, keeping
+     * at most {@code count} records in memory at any time.
+     *
+     * @param records the records to select from
+     * @param count   the number of records to select
+     * @return the first records, sorted
+     */
+    private List<T> selectFirst(Stream<T> records, int count){
+        if(count <= 0) return List.of();
+
+        // Max-heap of the records selected so far, whose head is the last selected record
+        final PriorityQueue<T> selected = new PriorityQueue<>(comparator.reversed());
+        records.forEach(record -> {
+            if(selected.size() < count){
+                selected.add(record);
+            }
+            else if(comparator.compare(record, selected.peek()) < 0){
+                selected.poll();
+                selected.add(record);
+            }
+        });
+
+        final List<T> sorted = new ArrayList<>(selected);
+        sorted.sort(comparator);
+        return sorted;
+    }
+
+    /**
+     * Describes the steps of the plan, one per line, in execution order.
+     *
+     * @return the description of the plan
+     */
+    public String explain(){
+        final StringBuilder sb = new StringBuilder(access);
+
+        for(String description:filterDescriptions){
+            sb.append("\n  -> Filter: ").append(description);
+        }
+        if(comparator != null && limit != Query.NO_LIMIT){
+            sb.append("\n  -> Top-N sort: ").append((long) offset + limit);
+        }
+        else if(comparator != null){
+            sb.append("\n  -> Sort");
+        }
+        if(offset > 0){
+            sb.append("\n  -> Offset: ").append(offset);
+        }
+        if(limit != Query.NO_LIMIT){
+            sb.append("\n  -> Limit: ").append(limit);
+        }
+
+        return sb.toString();
+    }
+}
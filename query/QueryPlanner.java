@@ -0,0 +1,374 @@
+package query;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import index.CountIndex;
+import index.HashIndex;
+import index.IntervalIndex;
+import index.SortedIndex;
+import index.TableIndexes;
+import index.UniqueIndex;
+import model.DataModel;
+import parser.ModelCodec;
+
+/**
+ * Planner turning a {@link Query} into a {@link QueryPlan} over the tables of a data manager.
+ * <p>
+ * Each query is read through the cheapest access path its conditions allow among the {@link TableIndexes}
+ * of the tables, and its other conditions are applied as filters. Queries that only count records on the
+ * fields of a {@link CountIndex} are answered from the index, without retrieving any record.
+ * </p>
+ * <p>
+ * The planner reads the tables and their indexes without locking them, so it must be called
+ * under the lock of the table queried, and the plans executed before the lock is released.
+ * </p>
+ *
+ * @see Query
+ * @see QueryPlan
+ */
+public class QueryPlanner {
+    /** Records of each table, by primary key, shared with the owner of the tables. */
+    private final Map<Class<? extends DataModel>, Map<String, DataModel>> data;
+    private final Map<Class<? extends DataModel>, ModelCodec<?>> codecs;
+    private final TableIndexes indexes;
+
+    /**
+     * Constructs a planner over the given tables.
+     *
+     * @param data    the records of each table, by primary key
+     * @param codecs  the codec of each table, giving the getters of its fields
+     * @param indexes the indexes of the tables
+     */
+    public QueryPlanner(Map<Class<? extends DataModel>, Map<String, DataModel>> data, Map<Class<? extends DataModel>, ModelCodec<?>> codecs, TableIndexes indexes){
+        this.data = data;
+        this.codecs = codecs;
+        this.indexes = indexes;
+    }
+
+    /**
+     * Counts the records matching a query from a {@link CountIndex}, if the query can be answered by one.
+     * <p>
+     * This is the case if the query has no predicate filter and does not start after a record, and its conditions
+     * are {@code EQUALS} or {@code IN} conditions on exactly the fields of the index, one per field. The count is
+     * then the sum of the counts of every combination of the values of the conditions.
+     * </p>
+     *
+     * @param <T>   The type of {@code DataModel} to count.
+     * @param query The query to count.
+     * @return the number of matching records after the offset and up to the limit of the query,
+     *         or {@code -1} if no count index applies
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends DataModel> long countByIndex(Query<T> query){
+        final Class<T> clazz = query.getModelClass();
+        // Records after a given one depend on the order of the table, which a count index does not keep
+        if(!query.getFilters().isEmpty() || query.getAfter() != null ) return -1;
+
+        final ModelCodec<T> codec = (ModelCodec<T>) codecs.get(clazz);
+        for(Condition condition:query.getConditions()){
+            if(condition.getOperator() == Condition.Operator.RANGE || condition.getOperator() == Condition.Operator.OVERLAPS) return -1;
+            if(codec.isForeignKey(condition.getField()) &&
+                !condition.getValues().stream().allMatch(value -> value instanceof DataModel)) return -1;
+        }
+
+        for(List<String> fields:indexes.getCountKeys(clazz)){
+            if(query.getConditions().size() != fields.size()) continue;
+
+            final List<Condition> conditions = new ArrayList<>(fields.size());
+            for(String field:fields){
+                query.getConditions().stream()
+                    .filter(condition -> condition.getField().equals(field))
+                    .findFirst()
+                    .ifPresent(conditions::add);
+            }
+            if(conditions.size() != fields.size()) continue;
+
+            final CountIndex<DataModel> index = indexes.getCountIndex(clazz, fields);
+            List<List<Object>> keys = List.of(List.of());
+            for(Condition condition:conditions){
+                final List<List<Object>> expanded = new ArrayList<>();
+                for(List<Object> key:keys){
+                    for(Object value:condition.getValues()){
+                        final List<Object> next = new ArrayList<>(key);
+                        next.add(value);
+                        expanded.add(next);
+                    }
+                }
+                keys = expanded;
+            }
+
+            long count = 0;
+            for(List<Object> key:keys){
+                count += index.count(key);
+            }
+
+            count = Math.max(0, count - query.getOffset());
+            return query.getLimit() == Query.NO_LIMIT ? count : Math.min(count, query.getLimit());
+        }
+
+        return -1;
+    }
+
+    /**
+     * Plans a {@link Query}, with its own offset and limit.
+     *
+     * @param <T>   The type of {@code DataModel} to query.
+     * @param query The query to plan.
+     * @return the plan of the query
+     * @throws IllegalArgumentException If a condition tests a field that is not a column of the model,
+     *                                  or matches a foreign key against a value that is not a model.
+     */
+    public <T extends DataModel> QueryPlan<T> plan(Query<T> query){
+        return plan(query, query.getOffset(), query.getLimit());
+    }
+
+    /**
+     * Plans a {@link Query}.
+     * <p>
+     * Among the {@code EQUALS} and {@code IN} conditions on foreign key fields, the one matching the fewest
+     * records according to its {@link HashIndex} is chosen as the access path. A {@link UniqueIndex} whose
+     * fields are all matched by {@code EQUALS} conditions is preferred unless it is less selective, and
+     * answers all of them with one lookup. Likewise, an {@code OVERLAPS} condition whose {@link IntervalIndex}
+     * partition fields are all matched by {@code EQUALS} conditions answers all of them by walking the interval
+     * tree of the partition. If there is no usable index, the whole table is scanned.
+     * The remaining conditions are then applied as filters, cheapest operator first, followed by the
+     * keyset condition of {@link Query#after(DataModel)} and the predicate filters in their declared order.
+     * </p>
+     * <p>
+     * A query sorted by a comparator with a {@link SortedIndex} reads the index in order instead, starting
+     * after the keyset record, so nothing is sorted and a limited query stops as soon as its page is complete.
+     * This replaces a full scan, and replaces an index lookup if the query is limited and the lookup is expected
+     * to match more records than the ordered scan has to read to fill the page, assuming matches are spread evenly.
+     * </p>
+     * <p>
+     * Sorted records are ordered by primary key when the comparator of the query considers them equal,
+     * so that consecutive pages neither repeat nor miss any record.
+     * </p>
+     *
+     * @param <T>    The type of {@code DataModel} to query.
+     * @param query  The query to plan.
+     * @param offset The number of records to skip, overriding the offset of the query.
+     * @param limit  The maximum number of records, overriding the limit of the query.
+     * @return the plan of the query
+     * @throws IllegalArgumentException If a condition tests a field that is not a column of the model,
+     *                                  or matches a foreign key against a value that is not a model.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends DataModel> QueryPlan<T> plan(Query<T> query, int offset, int limit){
+        final Class<T> clazz = query.getModelClass();
+        final ModelCodec<T> codec = (ModelCodec<T>) codecs.get(clazz);
+        final Map<String, T> table = (Map<String, T>) data.getOrDefault(clazz, Map.of());
+
+        Condition access = null;
+        int accessSize = table.size();
+
+        for(Condition condition:query.getConditions()){
+            if(condition.getOperator() == Condition.Operator.OVERLAPS){
+                if(!indexes.hasIntervalIndex(clazz, condition.getField())){
+                    throw new IllegalArgumentException("%s is not a period of %s".formatted(condition.getField(), clazz.getSimpleName()));
+                }
+                continue;
+            }
+            if(codec == null || codec.getGetter(condition.getField()) == null){
+                throw new IllegalArgumentException("%s is not a field of %s".formatted(condition.getField(), clazz.getSimpleName()));
+            }
+            if(condition.getOperator() == Condition.Operator.RANGE || !codec.isForeignKey(condition.getField())) continue;
+
+            final HashIndex<DataModel, DataModel> index = indexes.getForeignKeyIndex(clazz, condition.getField());
+            int size = 0;
+            for(Object value:condition.getValues()){
+                if(!(value instanceof DataModel model)){
+                    throw new IllegalArgumentException("%s should be matched against a model".formatted(condition.getField()));
+                }
+                size += index.count(model);
+            }
+
+            if(access == null || size < accessSize){
+                access = condition;
+                accessSize = size;
+            }
+        }
+
+        Condition intervalAccess = null;
+        List<Condition> partitionConditions = List.of();
+        for(Condition condition:query.getConditions()){
+            if(condition.getOperator() != Condition.Operator.OVERLAPS) continue;
+
+            final IntervalIndex<DataModel> index = indexes.getIntervalIndex(clazz, condition.getField());
+            final List<Condition> conditions = getEqualsConditions(query, index.getPartitionFields());
+            if(conditions == null) continue;
+
+            final int size = index.count(toUniqueKey(conditions));
+            // Ties go to the interval index over a foreign key index, but not over an earlier period
+            if(intervalAccess == null ? access == null || size <= accessSize : size < accessSize){
+                intervalAccess = condition;
+                partitionConditions = conditions;
+                accessSize = size;
+            }
+        }
+
+        List<String> uniqueAccess = null;
+        List<Condition> uniqueConditions = List.of();
+        for(List<String> fields:indexes.getUniqueKeys(clazz)){
+            final List<Condition> conditions = getEqualsConditions(query, fields);
+            if(conditions == null) continue;
+
+            final int size = indexes.getUniqueIndex(clazz, fields).count(toUniqueKey(conditions));
+            if((access == null && intervalAccess == null) || size <= accessSize){
+                uniqueAccess = fields;
+                uniqueConditions = conditions;
+                accessSize = size;
+            }
+        }
+
+        boolean isOrdered = query.getComparator() != null && indexes.hasSortedIndex(clazz, query.getComparator());
+        if(isOrdered && (access != null || intervalAccess != null || uniqueAccess != null)){
+            // Rows read by the ordered scan to find offset + limit matches, against the rows of the lookup
+            isOrdered = limit != Query.NO_LIMIT && ((long) offset + limit) * table.size() < (long) accessSize * accessSize;
+        }
+
+        final Comparator<T> comparator;
+        if(query.getComparator() != null){
+            comparator = query.getComparator().thenComparing(DataModel::getPK);
+        }
+        else{
+            comparator = query.getAfter() != null ? Comparator.comparing(DataModel::getPK) : null;
+        }
+
+        final T after = query.getAfter();
+        final QueryPlan<T> plan;
+        final List<Condition> accessConditions;
+        if(isOrdered){
+            final SortedIndex<DataModel> index = indexes.getSortedIndex(clazz, query.getComparator());
+            plan = new QueryPlan<>(
+                "Sorted index scan on %s%s (rows=%d)".formatted(
+                    clazz.getSimpleName(), after == null ? "" : " after " + after.getPK(), table.size()
+                ),
+                () -> index.stream(after).map(model -> (T) model),
+                null, offset, limit
+            );
+            accessConditions = List.of();
+        }
+        else if(uniqueAccess != null){
+            final UniqueIndex<DataModel> index = indexes.getUniqueIndex(clazz, uniqueAccess);
+            final List<Object> key = toUniqueKey(uniqueConditions);
+            plan = new QueryPlan<>(
+                "Unique index lookup on %s(%s) where %s (rows=%d)".formatted(
+                    clazz.getSimpleName(), String.join(", ", uniqueAccess),
+                    uniqueConditions.stream().map(Condition::toString).collect(Collectors.joining(" AND ")), accessSize
+                ),
+                () -> index.get(key).stream().map(model -> (T) model),
+                comparator, offset, limit
+            );
+            accessConditions = uniqueConditions;
+        }
+        else if(intervalAccess != null){
+            final IntervalIndex<DataModel> index = indexes.getIntervalIndex(clazz, intervalAccess.getField());
+            final List<Object> partition = toUniqueKey(partitionConditions);
+            final Comparable<Object> from = intervalAccess.getLowerBound();
+            final Comparable<Object> to = intervalAccess.getUpperBound();
+            plan = new QueryPlan<>(
+                "Interval index lookup on %s(%s, %s) where %s (rows=%d)".formatted(
+                    clazz.getSimpleName(), String.join(", ", index.getPartitionFields()), intervalAccess.getField(),
+                    Stream.concat(partitionConditions.stream(), Stream.of(intervalAccess))
+                        .map(Condition::toString).collect(Collectors.joining(" AND ")),
+                    accessSize
+                ),
+                () -> index.getOverlapping(partition, from, to).stream().map(model -> (T) model),
+                comparator, offset, limit
+            );
+            accessConditions = Stream.concat(partitionConditions.stream(), Stream.of(intervalAccess)).toList();
+        }
+        else if(access != null){
+            final HashIndex<DataModel, DataModel> index = indexes.getForeignKeyIndex(clazz, access.getField());
+            final Set<Object> keys = access.getValues();
+            plan = new QueryPlan<>(
+                "Index lookup on %s(%s) where %s (rows=%d)".formatted(clazz.getSimpleName(), access.getField(), access, accessSize),
+                () -> keys.stream().flatMap(key -> index.get((DataModel) key).stream()).map(model -> (T) model),
+                comparator, offset, limit
+            );
+            accessConditions = List.of(access);
+        }
+        else{
+            plan = new QueryPlan<>(
+                "Full scan on %s (rows=%d)".formatted(clazz.getSimpleName(), table.size()),
+                () -> table.values().stream(), comparator, offset, limit
+            );
+            accessConditions = List.of();
+        }
+
+        query.getConditions().stream()
+            .filter(condition -> !accessConditions.contains(condition))
+            .sorted(Comparator.comparing(Condition::getOperator))
+            .forEach(condition -> {
+                if(condition.getOperator() == Condition.Operator.OVERLAPS){
+                    final IntervalIndex<T> index = (IntervalIndex<T>) (IntervalIndex<?>) indexes.getIntervalIndex(clazz, condition.getField());
+                    plan.addFilter(model -> condition.testPeriod(index.getStart(model), index.getEnd(model)), condition.toString());
+                    return;
+                }
+
+                final Function<T, Object> getter = codec.getGetter(condition.getField());
+                plan.addFilter(model -> condition.test(getter.apply(model)), condition.toString());
+            });
+
+        if(after != null && !isOrdered){
+            plan.addFilter(model -> comparator.compare(model, after) > 0, "after %s".formatted(after.getPK()));
+        }
+
+        final List<Predicate<T>> filters = query.getFilters();
+        for(int i = 0; i < filters.size(); i++){
+            plan.addFilter(filters.get(i), "predicate #%d".formatted(i + 1));
+        }
+
+        return plan;
+    }
+
+    /**
+     * Finds an {@code EQUALS} condition of a query on each of the given fields.
+     *
+     * @param query  The query.
+     * @param fields The names of the fields.
+     * @return the first {@code EQUALS} condition on each field, in the order of the fields,
+     *         or {@code null} if a field has none
+     */
+    private List<Condition> getEqualsConditions(Query<?> query, List<String> fields){
+        final List<Condition> conditions = new ArrayList<>(fields.size());
+
+        for(String field:fields){
+            final Condition condition = query.getConditions().stream()
+                .filter(c -> c.getOperator() == Condition.Operator.EQUALS && c.getField().equals(field))
+                .findFirst()
+                .orElse(null);
+            if(condition == null) return null;
+
+            conditions.add(condition);
+        }
+
+        return conditions;
+    }
+
+    /**
+     * Builds the composite key of a {@link UniqueIndex}, or the partition of an {@link IntervalIndex},
+     * from the {@code EQUALS} conditions on its fields.
+     *
+     * @param conditions The conditions, in the order of the fields of the index.
+     * @return the composite key
+     */
+    private List<Object> toUniqueKey(List<Condition> conditions){
+        final List<Object> key = new ArrayList<>(conditions.size());
+
+        for(Condition condition:conditions){
+            key.add(condition.getValues().iterator().next());
+        }
+
+        return key;
+    }
+}
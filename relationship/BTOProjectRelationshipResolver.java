@@ -15,6 +15,7 @@ import model.Enquiry;
 import model.FlatUnit;
 import model.OfficerRegistration;
 import relationship.resolver.DeleteResolver;
+import relationship.resolver.LoadGroup;
 import relationship.resolver.LoadResolver;
 import relationship.resolver.SaveResolver;
 
@@ -27,6 +28,25 @@ import relationship.resolver.SaveResolver;
  */
 public class BTOProjectRelationshipResolver implements LoadResolver, SaveResolver<BTOProject>, DeleteResolver<BTOProject>{
 
+    /** FlatUnits of each BTOProject, filled by the data manager before {@link #resolveLoad(DataManager)}. */
+    private final LoadGroup<FlatUnit> flatUnitsByProject = new LoadGroup<>(FlatUnit.class, "btoProject");
+    /** Successful OfficerRegistrations of each BTOProject, filled by the data manager before {@link #resolveLoad(DataManager)}. */
+    private final LoadGroup<OfficerRegistration> successfulRegistrationsByProject = new LoadGroup<>(
+        OfficerRegistration.class, "btoProject",
+        officerRegistration -> officerRegistration.getRegistrationStatus() == RegistrationStatus.SUCCESSFUL
+    );
+
+    /**
+     * Declares the FlatUnits and the successful OfficerRegistrations of each BTOProject as load groups,
+     * so that each table is read once in total rather than once per project.
+     *
+     * @return the groups of FlatUnits and successful OfficerRegistrations by BTOProject
+     */
+    @Override
+    public List<LoadGroup<?>> getLoadGroups() {
+        return List.of(flatUnitsByProject, successfulRegistrationsByProject);
+    }
+
     /**
      * Resolves the loading of related models when loading BTOProject data.
      * This includes resolving FlatUnit associations, successful OfficerRegistration entries,
@@ -39,22 +59,13 @@ public class BTOProjectRelationshipResolver implements LoadResolver, SaveResolve
         List<BTOProject> btoProjects = dataManager.getAll(BTOProject.class);
         
         for(BTOProject btoProject:btoProjects){
-            List<FlatUnit> result = dataManager.getByQuery(FlatUnit.class, 
-                flatUnit -> flatUnit.getBTOProject() == btoProject
-            );
-
             Map<FlatType, FlatUnit> flatUnits = new HashMap<>();
-            for(FlatUnit flatUnit:result){
+            for(FlatUnit flatUnit:flatUnitsByProject.get(btoProject)){
                 flatUnits.put(flatUnit.getFlatType(), flatUnit);
             }
             btoProject.setFlatUnits(flatUnits);
 
-            List<OfficerRegistration> officerRegistrations = dataManager.getByQueries(OfficerRegistration.class, List.of(
-                officerRegistration -> officerRegistration.getBTOProject() == btoProject,
-                officerRegistration -> officerRegistration.getRegistrationStatus() == RegistrationStatus.SUCCESSFUL
-            ));
-
-            for(OfficerRegistration officerRegistration:officerRegistrations){
+            for(OfficerRegistration officerRegistration:successfulRegistrationsByProject.get(btoProject)){
                 try {
                     btoProject.addHDBOfficer(officerRegistration.getHDBOfficer());
                 } catch (DataModelException e) {
@@ -67,7 +78,8 @@ public class BTOProjectRelationshipResolver implements LoadResolver, SaveResolve
 
     /**
      * Resolves the deletion of related models when deleting a BTOProject.
-     * This includes deleting associated FlatUnits, OfficerRegistrations, and Enquiries.
+     * This includes deleting associated FlatUnits, OfficerRegistrations, Enquiries and Applications,
+     * each table with a single bulk delete.
      * 
      * @param btoProject The BTOProject object to delete related models for.
      * @param dataManager The DataManager responsible for managing the persistence layer.
@@ -75,52 +87,13 @@ public class BTOProjectRelationshipResolver implements LoadResolver, SaveResolve
      */
     @Override
     public void resolveDelete(BTOProject btoProject, DataManager dataManager) {
-        List<FlatUnit> flatUnits = btoProject.getFlatUnits();
-        for(FlatUnit flatUnit:flatUnits){
-            try {
-                dataManager.delete(flatUnit);
-            } catch (Exception e) {
-                throw new RelationshipException(e.getMessage());
-            }
-        }
-
-        final List<OfficerRegistration> officerRegistrations = dataManager.getByQuery(
-            OfficerRegistration.class, 
-            registration -> registration.getBTOProject() == btoProject
-        );
-
-        for(OfficerRegistration officerRegistration:officerRegistrations){
-            try{
-                dataManager.delete(officerRegistration);
-            } catch (Exception e){
-                throw new RelationshipException(e.getMessage());
-            }
-        }
-
-        final List<Enquiry> enquiries = dataManager.getByQuery(
-            Enquiry.class, 
-            enquiry -> enquiry.getBTOProject() == btoProject
-        );
-
-        for(Enquiry enquiry:enquiries){
-            try{
-                dataManager.delete(enquiry);
-            } catch (Exception e){
-                throw new RelationshipException(e.getMessage());
-            }
-        }
-
-        final List<Application> applications = dataManager.getByQuery(
-            Application.class, 
-            application -> application.getBTOProject() == btoProject
-        );
-
-        for(Application application:applications){
-            try{
-                dataManager.delete(application);
-            } catch (Exception e){
-                throw new RelationshipException(e.getMessage());
-            }
+        try {
+            dataManager.deleteAll(FlatUnit.class, btoProject.getFlatUnits());
+            dataManager.deleteAll(OfficerRegistration.class, dataManager.getByForeignKey(OfficerRegistration.class, "btoProject", btoProject));
+            dataManager.deleteAll(Enquiry.class, dataManager.getByForeignKey(Enquiry.class, "btoProject", btoProject));
+            dataManager.deleteAll(Application.class, dataManager.getByForeignKey(Application.class, "btoProject", btoProject));
+        } catch (Exception e) {
+            throw new RelationshipException(e.getMessage());
         }
     }
 
@@ -0,0 +1,103 @@
+package relationship.resolver;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import model.DataModel;
+
+/**
+ * Records of one table grouped by the model referenced by one of their foreign keys,
+ * declared by a {@link LoadResolver} as an input of its resolution.
+ * <p>
+ * Similar to the build side of a hash join in a database, the data manager fills every group
+ * of a table in a single pass over its records before any resolver runs, so a resolver attaching
+ * the records of each model looks them up in a hash map instead of querying the table once per model.
+ * </p>
+ * <p>
+ * As data models do not override {@link Object#equals(Object)}, referenced models are matched by identity.
+ * </p>
+ *
+ * @param <T> the type of {@code DataModel} grouped
+ *
+ * @see LoadResolver
+ */
+public class LoadGroup<T extends DataModel> {
+    private final Class<T> modelClass;
+    private final String field;
+    private final Predicate<? super T> filter;
+    private final Map<DataModel, List<T>> groups = new HashMap<>();
+
+    /**
+     * Constructs an empty group of all records of a table.
+     *
+     * @param modelClass the class of the data model, acting as the table to group
+     * @param field      the name of the foreign key field grouping the records
+     */
+    public LoadGroup(Class<T> modelClass, String field){
+        this(modelClass, field, _ -> true);
+    }
+
+    /**
+     * Constructs an empty group of the records of a table matching a predicate.
+     *
+     * @param modelClass the class of the data model, acting as the table to group
+     * @param field      the name of the foreign key field grouping the records
+     * @param filter     the predicate records must satisfy to be grouped
+     */
+    public LoadGroup(Class<T> modelClass, String field, Predicate<? super T> filter){
+        this.modelClass = modelClass;
+        this.field = field;
+        this.filter = filter;
+    }
+
+    /**
+     * Returns the class of the data model grouped.
+     *
+     * @return the model class
+     */
+    public Class<T> getModelClass() {
+        return modelClass;
+    }
+
+    /**
+     * Returns the name of the foreign key field grouping the records.
+     *
+     * @return the field name
+     */
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * Adds a record to the group of the model it references, if it matches the filter.
+     * Called by the data manager while filling the group.
+     *
+     * @param foreignModel the model referenced by the foreign key of the record
+     * @param model        the record
+     */
+    public void add(DataModel foreignModel, T model){
+        if(!filter.test(model)) return;
+
+        groups.computeIfAbsent(foreignModel, _ -> new ArrayList<>()).add(model);
+    }
+
+    /**
+     * Retrieves the records referencing a model.
+     *
+     * @param foreignModel the referenced model
+     * @return a list of the grouped records referencing the model, in table order
+     */
+    public List<T> get(DataModel foreignModel){
+        return groups.getOrDefault(foreignModel, List.of());
+    }
+
+    /**
+     * Removes all records from the group, once it is no longer needed.
+     */
+    public void clear(){
+        groups.clear();
+    }
+}
@@ -1,5 +1,7 @@
 package relationship.resolver;
 
+import java.util.List;
+
 import manager.interfaces.DataManager;
 
 
@@ -13,10 +15,24 @@ import manager.interfaces.DataManager;
  *
  * <p>For example, in CSVDataManager, resolveLoad() loads and parses all CSV data into memory and resolves object relationships.</p>
  *
+ * <p>A resolver attaching the records of one table to the models they reference should declare them as
+ * {@link LoadGroup}s, which the data manager fills in a single pass over each table before calling
+ * {@link #resolveLoad(DataManager)}, instead of looking up the records of every model one by one.</p>
+ *
  * @see CSVDataManager
  */
 public interface LoadResolver {
 
+    /**
+     * Returns the groups of records this resolver reads, to be filled before {@link #resolveLoad(DataManager)}
+     * is called and cleared afterwards.
+     *
+     * @return the groups of records, none by default
+     */
+    public default List<LoadGroup<?>> getLoadGroups(){
+        return List.of();
+    }
+
     /**
      * Restores the in-memory object relationships after data has been loaded from persistent storage.
      *
@@ -0,0 +1,197 @@
+package server;
+
+import java.time.temporal.TemporalAccessor;
+import java.util.Collection;
+import java.util.Map;
+
+import model.Application;
+import model.BTOProject;
+import model.Enquiry;
+import model.FlatUnit;
+import model.OfficerRegistration;
+import model.User;
+import query.Page;
+import service.ServiceResponse;
+
+/**
+ * Writes the responses of the {@link RequestServer} as JSON.
+ * <p>
+ * A response is an object holding the status and message of the {@link ServiceResponse}, and its data.
+ * Each model is written with the fields shown by the terminal views, plus its primary key and its version,
+ * which a client sends back to edit it; a model it references is written as the primary key of that model.
+ * Passwords are never written. Enums are written by the name of their constant, and dates in ISO format.
+ * </p>
+ */
+public class JsonWriter {
+    private JsonWriter(){}
+
+    /**
+     * Writes a service response.
+     *
+     * @param response the response
+     * @return the JSON object of the response
+     */
+    public static String write(ServiceResponse<?> response) {
+        final StringBuilder json = new StringBuilder();
+        writeObject(json,
+            "status", response.getResponseStatus(),
+            "message", response.getMessage(),
+            "data", response.getData()
+        );
+        return json.toString();
+    }
+
+    /**
+     * Writes an error raised before any service could answer the request.
+     *
+     * @param message the message of the error
+     * @return the JSON object of the error
+     */
+    public static String writeError(String message) {
+        final StringBuilder json = new StringBuilder();
+        writeObject(json, "status", "ERROR", "message", message, "data", null);
+        return json.toString();
+    }
+
+    /**
+     * Writes any value of a response.
+     *
+     * @param json  the output
+     * @param value the value
+     */
+    private static void writeValue(StringBuilder json, Object value) {
+        switch (value) {
+            case null -> json.append("null");
+            case String string -> writeString(json, string);
+            case Number number -> json.append(number);
+            case Boolean bool -> json.append(bool);
+            case Enum<?> constant -> writeString(json, constant.name());
+            case TemporalAccessor temporal -> writeString(json, temporal.toString());
+            case User user -> writeObject(json,
+                "nric", user.getNRIC(),
+                "name", user.getName(),
+                "age", user.getAge(),
+                "maritalStatus", user.getMaritalStatus(),
+                "userRole", user.getUserRole(),
+                "version", user.getVersion()
+            );
+            case BTOProject btoProject -> writeObject(json,
+                "name", btoProject.getName(),
+                "neighborhood", btoProject.getNeighborhood(),
+                "flatUnits", btoProject.getFlatUnits(),
+                "openingDate", btoProject.getOpeningDate(),
+                "closingDate", btoProject.getClosingDate(),
+                "visible", btoProject.isVisible(),
+                "hdbManager", btoProject.getHDBManager().getPK(),
+                "hdbOfficers", btoProject.getHDBOfficers().stream().map(User::getPK).toList(),
+                "hdbOfficerLimit", btoProject.getHDBOfficerLimit(),
+                "version", btoProject.getVersion()
+            );
+            case FlatUnit flatUnit -> writeObject(json,
+                "flatType", flatUnit.getFlatType(),
+                "flatNum", flatUnit.getFlatNum(),
+                "flatPrice", flatUnit.getFlatPrice()
+            );
+            case Application application -> writeObject(json,
+                "id", application.getPK(),
+                "applicant", application.getApplicant().getPK(),
+                "btoProject", application.getBTOProject().getPK(),
+                "flatType", application.getFlatType(),
+                "applicationStatus", application.getApplicationStatus(),
+                "withdrawalStatus", application.getWithdrawalStatus(),
+                "createdAt", application.getCreatedAt(),
+                "version", application.getVersion()
+            );
+            case Enquiry enquiry -> writeObject(json,
+                "id", enquiry.getPK(),
+                "btoProject", enquiry.getBTOProject().getPK(),
+                "enquirer", enquiry.getEnquirer().getPK(),
+                "subject", enquiry.getSubject(),
+                "enquiry", enquiry.getEnquiry(),
+                "reply", enquiry.getReply(),
+                "enquiryStatus", enquiry.getEnquiryStatus(),
+                "createdAt", enquiry.getCreatedAt(),
+                "version", enquiry.getVersion()
+            );
+            case OfficerRegistration officerRegistration -> writeObject(json,
+                "id", officerRegistration.getPK(),
+                "btoProject", officerRegistration.getBTOProject().getPK(),
+                "hdbOfficer", officerRegistration.getHDBOfficer().getPK(),
+                "registrationStatus", officerRegistration.getRegistrationStatus(),
+                "createdAt", officerRegistration.getCreatedAt(),
+                "version", officerRegistration.getVersion()
+            );
+            case Page<?> page -> writeObject(json,
+                "pageNumber", page.getPageNumber(),
+                "hasPrevious", page.hasPrevious(),
+                "hasNext", page.hasNext(),
+                "records", page.getRecords()
+            );
+            case Collection<?> collection -> {
+                json.append('[');
+                boolean isFirst = true;
+                for(Object element:collection){
+                    if(!isFirst) json.append(',');
+                    writeValue(json, element);
+                    isFirst = false;
+                }
+                json.append(']');
+            }
+            case Map<?, ?> map -> {
+                json.append('{');
+                boolean isFirst = true;
+                for(Map.Entry<?, ?> entry:map.entrySet()){
+                    if(!isFirst) json.append(',');
+                    writeString(json, String.valueOf(entry.getKey() instanceof Enum<?> constant ? constant.name() : entry.getKey()));
+                    json.append(':');
+                    writeValue(json, entry.getValue());
+                    isFirst = false;
+                }
+                json.append('}');
+            }
+            default -> writeString(json, value.toString());
+        }
+    }
+
+    /**
+     * Writes an object from its fields.
+     *
+     * @param json           the output
+     * @param namesAndValues the name of each field, followed by its value
+     */
+    private static void writeObject(StringBuilder json, Object... namesAndValues) {
+        json.append('{');
+        for(int i = 0; i < namesAndValues.length; i += 2){
+            if(i > 0) json.append(',');
+            writeString(json, (String) namesAndValues[i]);
+            json.append(':');
+            writeValue(json, namesAndValues[i + 1]);
+        }
+        json.append('}');
+    }
+
+    /**
+     * Writes a string, escaping the characters JSON does not allow in strings.
+     *
+     * @param json   the output
+     * @param string the string
+     */
+    private static void writeString(StringBuilder json, String string) {
+        json.append('"');
+        for(int i = 0; i < string.length(); i++){
+            final char c = string.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if(c < 0x20) json.append("\\u%04x".formatted((int) c));
+                    else json.append(c);
+                }
+            }
+        }
+        json.append('"');
+    }
+}
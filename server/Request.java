@@ -0,0 +1,181 @@
+package server;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Map;
+
+import exception.RequestException;
+import manager.interfaces.SessionManager;
+import model.User;
+
+/**
+ * A request received by the {@link RequestServer}, with its parameters and the session of its client.
+ * <p>
+ * Parameters are read from the query string and, for {@code POST} requests, from the form-encoded body.
+ * Their getters validate them like the fields of the terminal forms, and throw a {@link RequestException}
+ * answered with status {@code 400} if a parameter is missing or malformed.
+ * </p>
+ */
+public class Request {
+    private final Map<String, String> parameters;
+    private final SessionStore sessionStore;
+    private String sessionToken;
+    private SessionManager session;
+
+    /**
+     * Constructs a request.
+     *
+     * @param parameters   the decoded parameters of the request
+     * @param sessionStore the sessions of the server
+     * @param sessionToken the token of the session sent by the client, or {@code null} if none
+     * @param session      the session of that token, or {@code null} if the client has no valid session
+     */
+    Request(Map<String, String> parameters, SessionStore sessionStore, String sessionToken, SessionManager session){
+        this.parameters = parameters;
+        this.sessionStore = sessionStore;
+        this.sessionToken = sessionToken;
+        this.session = session;
+    }
+
+    /**
+     * Returns the user logged in by the session of the client.
+     *
+     * @return the user, or {@code null} if the client is not logged in
+     */
+    public User getUser() {
+        return session == null ? null : session.getUser();
+    }
+
+    /**
+     * Opens a new session for a user who just logged in, replacing any session the client had.
+     * Its token is sent back to the client with the response.
+     *
+     * @param user the logged in user
+     */
+    public void login(User user) {
+        logout();
+        sessionToken = sessionStore.open(user);
+        session = sessionStore.get(sessionToken);
+    }
+
+    /**
+     * Closes the session of the client, if any.
+     */
+    public void logout() {
+        if(sessionToken != null){
+            sessionStore.close(sessionToken);
+        }
+        sessionToken = null;
+        session = null;
+    }
+
+    /**
+     * Returns the token of the session of the client after the request, to be sent back with the response.
+     *
+     * @return the token, or {@code null} if the client has no session
+     */
+    String getSessionToken() {
+        return session == null ? null : sessionToken;
+    }
+
+    /**
+     * Retrieves a text parameter.
+     *
+     * @param name the name of the parameter
+     * @return the value of the parameter, neither empty nor blank
+     * @throws RequestException if the parameter is missing or blank
+     */
+    public String getString(String name) {
+        final String value = parameters.get(name);
+        if(value == null || value.isBlank()){
+            throw new RequestException(400, "Missing parameter: %s".formatted(name));
+        }
+
+        return value;
+    }
+
+    /**
+     * Retrieves an integer parameter within a range.
+     *
+     * @param name the name of the parameter
+     * @param min  the minimum value allowed
+     * @param max  the maximum value allowed
+     * @return the value of the parameter
+     * @throws RequestException if the parameter is missing, not an integer, or out of range
+     */
+    public int getInt(String name, int min, int max) {
+        final int value;
+        try {
+            value = Integer.parseInt(getString(name).trim());
+        } catch (NumberFormatException e) {
+            throw new RequestException(400, "Parameter %s should be an integer.".formatted(name));
+        }
+
+        if(value < min || value > max){
+            throw new RequestException(400, "Parameter %s should be between %d and %d.".formatted(name, min, max));
+        }
+        return value;
+    }
+
+    /**
+     * Retrieves an optional integer parameter within a range.
+     *
+     * @param name         the name of the parameter
+     * @param min          the minimum value allowed
+     * @param max          the maximum value allowed
+     * @param defaultValue the value if the parameter is missing
+     * @return the value of the parameter, or the default value
+     * @throws RequestException if the parameter is not an integer, or out of range
+     */
+    public int getInt(String name, int min, int max, int defaultValue) {
+        return parameters.containsKey(name) ? getInt(name, min, max) : defaultValue;
+    }
+
+    /**
+     * Retrieves a boolean parameter, {@code true} or {@code false}.
+     *
+     * @param name the name of the parameter
+     * @return the value of the parameter
+     * @throws RequestException if the parameter is missing or not a boolean
+     */
+    public boolean getBoolean(String name) {
+        final String value = getString(name).trim();
+        if(value.equalsIgnoreCase("true")) return true;
+        if(value.equalsIgnoreCase("false")) return false;
+
+        throw new RequestException(400, "Parameter %s should be true or false.".formatted(name));
+    }
+
+    /**
+     * Retrieves a date parameter, in ISO format such as {@code 2025-05-31}.
+     *
+     * @param name the name of the parameter
+     * @return the value of the parameter
+     * @throws RequestException if the parameter is missing or not a date
+     */
+    public LocalDate getDate(String name) {
+        try {
+            return LocalDate.parse(getString(name).trim());
+        } catch (DateTimeParseException e) {
+            throw new RequestException(400, "Parameter %s should be a date (yyyy-mm-dd).".formatted(name));
+        }
+    }
+
+    /**
+     * Retrieves an enum parameter, by the name of its constant.
+     *
+     * @param <E>   the type of the enum
+     * @param name  the name of the parameter
+     * @param clazz the class of the enum
+     * @return the value of the parameter
+     * @throws RequestException if the parameter is missing or not a constant of the enum
+     */
+    public <E extends Enum<E>> E getEnum(String name, Class<E> clazz) {
+        try {
+            return Enum.valueOf(clazz, getString(name).trim());
+        } catch (IllegalArgumentException e) {
+            throw new RequestException(400, "Parameter %s should be one of %s.".formatted(name, Arrays.toString(clazz.getEnumConstants())));
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import config.ResponseStatus;
+import exception.RequestException;
+import manager.interfaces.SessionManager;
+import service.ServiceResponse;
+import util.DateProvider;
+
+/**
+ * Headless server answering requests to the service layer over HTTP, so that many users can share
+ * one in-memory dataset, instead of one user per terminal.
+ * <p>
+ * The server is built on the {@link HttpServer} of the JDK, and handles every request on its own virtual
+ * thread, so a request waiting for a lock of the data manager does not hold a platform thread. Each request
+ * is routed by its method and path to a {@link Route}, which calls the service layer on behalf of the user
+ * logged in by the session of the client; services and policies keep no state between requests, so they are
+ * shared by all sessions. Like a menu step of the terminal application, each request reads one fixed
+ * current date.
+ * </p>
+ * <p>
+ * Clients log in through a public route, which returns a session token in the {@value #SESSION_HEADER}
+ * header; every other route requires that header, and is answered with status {@code 401} without a valid
+ * session. Responses are written as JSON by {@link JsonWriter}, with status {@code 200} if the service
+ * succeeded and {@code 400} otherwise.
+ * </p>
+ * <p>
+ * The server only listens on the loopback interface, as requests and tokens are sent in clear text.
+ * </p>
+ */
+public class RequestServer {
+    /** Header carrying the session token, in responses to a login and in every later request. */
+    public static final String SESSION_HEADER = "X-Session";
+
+    /** Maximum size of a request body; forms of the terminal application are much smaller. */
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    /**
+     * A route, and whether it requires the client to be logged in.
+     */
+    private record RegisteredRoute(Route route, boolean requiresLogin) {}
+
+    private final HttpServer httpServer;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final SessionStore sessionStore;
+    /** Routes by method and path, such as {@code "GET /projects"}. */
+    private final Map<String, RegisteredRoute> routes = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a server listening on a port of the loopback interface. The server is not started.
+     *
+     * @param port         the port, or {@code 0} for any free port
+     * @param sessionStore the sessions of the clients
+     * @throws IOException if the port cannot be bound
+     */
+    public RequestServer(int port, SessionStore sessionStore) throws IOException {
+        this.sessionStore = sessionStore;
+        this.httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.httpServer.setExecutor(executor);
+        this.httpServer.createContext("/", this::handle);
+    }
+
+    /**
+     * Registers a route reading data, which requires the client to be logged in.
+     *
+     * @param path  the path of the route
+     * @param route the route
+     */
+    public void get(String path, Route route) {
+        routes.put("GET " + path, new RegisteredRoute(route, true));
+    }
+
+    /**
+     * Registers a route changing data, which requires the client to be logged in.
+     *
+     * @param path  the path of the route
+     * @param route the route
+     */
+    public void post(String path, Route route) {
+        routes.put("POST " + path, new RegisteredRoute(route, true));
+    }
+
+    /**
+     * Registers a route open to clients not logged in, such as the login itself.
+     *
+     * @param path  the path of the route
+     * @param route the route
+     */
+    public void postPublic(String path, Route route) {
+        routes.put("POST " + path, new RegisteredRoute(route, false));
+    }
+
+    /**
+     * Starts answering requests, in the background.
+     */
+    public void start() {
+        httpServer.start();
+    }
+
+    /**
+     * Stops the server, letting the requests in progress finish for at most a few seconds.
+     */
+    public void stop() {
+        httpServer.stop(5);
+        executor.shutdown();
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Handles one request, on its own virtual thread.
+     *
+     * @param exchange the request and its response
+     * @throws IOException if the response cannot be sent
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            try {
+                route(exchange);
+            } catch (RequestException e) {
+                send(exchange, e.getStatusCode(), JsonWriter.writeError(e.getMessage()));
+            } catch (RuntimeException e) {
+                System.err.println("Request failed: %s %s".formatted(exchange.getRequestMethod(), exchange.getRequestURI()));
+                e.printStackTrace();
+                send(exchange, 500, JsonWriter.writeError("Internal error. %s".formatted(e.getMessage())));
+            }
+        }
+    }
+
+    /**
+     * Routes a request, and sends the response of its route.
+     *
+     * @param exchange the request and its response
+     * @throws IOException if the request cannot be read, or the response cannot be sent
+     * @throws RequestException if the request is invalid
+     */
+    private void route(HttpExchange exchange) throws IOException {
+        final String method = exchange.getRequestMethod();
+        final RegisteredRoute registeredRoute = routes.get(method + " " + exchange.getRequestURI().getPath());
+        if(registeredRoute == null){
+            send(exchange, 404, JsonWriter.writeError("Unknown request: %s %s".formatted(method, exchange.getRequestURI().getPath())));
+            return;
+        }
+
+        final String sessionToken = exchange.getRequestHeaders().getFirst(SESSION_HEADER);
+        final SessionManager session = sessionStore.get(sessionToken);
+        if(registeredRoute.requiresLogin() && (session == null || session.getUser() == null)){
+            send(exchange, 401, JsonWriter.writeError("Please login first."));
+            return;
+        }
+
+        final Map<String, String> parameters = new HashMap<>();
+        parseParameters(exchange.getRequestURI().getRawQuery(), parameters);
+        if(method.equals("POST")){
+            parseParameters(readBody(exchange), parameters);
+        }
+
+        final Request request = new Request(parameters, sessionStore, sessionToken, session);
+        final ServiceResponse<?>[] response = new ServiceResponse<?>[1];
+        DateProvider.runOnFixedDate(() -> response[0] = registeredRoute.route().handle(request));
+
+        if(request.getSessionToken() != null){
+            exchange.getResponseHeaders().set(SESSION_HEADER, request.getSessionToken());
+        }
+        send(exchange, response[0].getResponseStatus() == ResponseStatus.SUCCESS ? 200 : 400, JsonWriter.write(response[0]));
+    }
+
+    /**
+     * Reads the body of a request, up to {@value #MAX_BODY_BYTES} bytes.
+     *
+     * @param exchange the request
+     * @return the body, as text
+     * @throws IOException if the body cannot be read
+     * @throws RequestException if the body is too large
+     */
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            final byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if(body.length > MAX_BODY_BYTES){
+                throw new RequestException(413, "Request is too large.");
+            }
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Decodes form-encoded parameters, such as {@code name=value&other=value}.
+     * A parameter repeated keeps its last value.
+     *
+     * @param encoded    the encoded parameters, or {@code null} if none
+     * @param parameters the map the decoded parameters are added to
+     * @throws RequestException if the parameters are malformed
+     */
+    private static void parseParameters(String encoded, Map<String, String> parameters) {
+        if(encoded == null || encoded.isEmpty()) return;
+
+        try {
+            for(String pair:encoded.split("&")){
+                if(pair.isEmpty()) continue;
+
+                final int separator = pair.indexOf('=');
+                final String name = separator < 0 ? pair : pair.substring(0, separator);
+                final String value = separator < 0 ? "" : pair.substring(separator + 1);
+                parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+            }
+        } catch (IllegalArgumentException e) {
+            throw new RequestException(400, "Malformed parameters: %s".formatted(e.getMessage()));
+        }
+    }
+
+    /**
+     * Sends a JSON response.
+     *
+     * @param exchange   the request
+     * @param statusCode the HTTP status code
+     * @param json       the body of the response
+     * @throws IOException if the response cannot be sent
+     */
+    private static void send(HttpExchange exchange, int statusCode, String json) throws IOException {
+        final byte[] body = json.getBytes(StandardCharsets.UTF_8);
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(statusCode, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package server;
+
+import service.ServiceResponse;
+
+/**
+ * Handles the requests sent to one method and path of the {@link RequestServer},
+ * usually by calling one method of the service layer.
+ */
+@FunctionalInterface
+public interface Route {
+    /**
+     * Handles a request.
+     *
+     * @param request the request, with its parameters and the session of its client
+     * @return the response of the service, sent back to the client
+     * @throws exception.RequestException if the request is invalid
+     */
+    ServiceResponse<?> handle(Request request);
+}
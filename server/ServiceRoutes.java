@@ -0,0 +1,242 @@
+package server;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import config.FlatType;
+import config.ResponseStatus;
+import dto.BTOProjectDTO;
+import exception.RequestException;
+import manager.interfaces.DataManager;
+import model.Application;
+import model.BTOProject;
+import model.DataModel;
+import model.Enquiry;
+import model.OfficerRegistration;
+import model.User;
+import service.ServiceResponse;
+import service.interfaces.ApplicationService;
+import service.interfaces.AuthService;
+import service.interfaces.BTOProjectService;
+import service.interfaces.EnquiryService;
+import service.interfaces.OfficerRegistrationService;
+
+/**
+ * Routes of the {@link RequestServer} to the service layer, one per action of the terminal menus.
+ * <p>
+ * Records are referred to by their primary key: {@code project} is the name of a BTO project, and {@code id}
+ * the UUID of an application, enquiry or officer registration. Edits take the {@code version} of the record
+ * the client read, so that an edit made from an outdated record is rejected instead of overwriting a newer one.
+ * Listings of applications are paged by {@code page}, from {@code 0}, and {@code size}.
+ * </p>
+ * <p>
+ * Authorization is left to the services, which check the policies for the logged in user as they do
+ * for the terminal application.
+ * </p>
+ */
+public class ServiceRoutes {
+    private static final int DEFAULT_PAGE_SIZE = 10;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final DataManager dataManager;
+    private final AuthService authService;
+    private final ApplicationService applicationService;
+    private final BTOProjectService btoProjectService;
+    private final EnquiryService enquiryService;
+    private final OfficerRegistrationService officerRegistrationService;
+
+    /**
+     * Constructs the routes of the services.
+     *
+     * @param dataManager                the data manager, to look up the records referred to by requests
+     * @param authService                the authentication service
+     * @param applicationService         the application service
+     * @param btoProjectService          the BTO project service
+     * @param enquiryService             the enquiry service
+     * @param officerRegistrationService the officer registration service
+     */
+    public ServiceRoutes(DataManager dataManager, AuthService authService, ApplicationService applicationService,
+            BTOProjectService btoProjectService, EnquiryService enquiryService, OfficerRegistrationService officerRegistrationService){
+        this.dataManager = dataManager;
+        this.authService = authService;
+        this.applicationService = applicationService;
+        this.btoProjectService = btoProjectService;
+        this.enquiryService = enquiryService;
+        this.officerRegistrationService = officerRegistrationService;
+    }
+
+    /**
+     * Registers every route on a server.
+     *
+     * @param server the server
+     */
+    public void register(RequestServer server) {
+        registerAuthRoutes(server);
+        registerBTOProjectRoutes(server);
+        registerApplicationRoutes(server);
+        registerEnquiryRoutes(server);
+        registerOfficerRegistrationRoutes(server);
+    }
+
+    private void registerAuthRoutes(RequestServer server) {
+        server.postPublic("/login", request -> {
+            final ServiceResponse<User> response = authService.login(request.getString("nric"), request.getString("password"));
+            if(response.getResponseStatus() == ResponseStatus.SUCCESS){
+                request.login(response.getData());
+            }
+            return response;
+        });
+        server.post("/logout", request -> {
+            request.logout();
+            return new ServiceResponse<>(ResponseStatus.SUCCESS, "Logout successful.");
+        });
+        server.post("/password", request -> authService.changePassword(
+            request.getUser(), request.getString("password"), request.getString("confirmPassword")
+        ));
+    }
+
+    private void registerBTOProjectRoutes(RequestServer server) {
+        server.get("/projects", request -> btoProjectService.getAllBTOProjects(request.getUser()));
+        server.get("/projects/handled", request -> btoProjectService.getBTOProjectsHandledByUser(request.getUser()));
+        server.post("/projects/add", request -> btoProjectService.addBTOProject(
+            request.getUser(), toBTOProjectDTO(request, request.getString("project"))
+        ));
+        server.post("/projects/edit", request -> {
+            final BTOProject btoProject = find(request, "project", BTOProject.class);
+            return btoProjectService.editBTOProject(
+                request.getUser(), toBTOProjectDTO(request, btoProject.getName()), btoProject, getVersion(request)
+            );
+        });
+        server.post("/projects/visibility", request -> btoProjectService.toggleBTOProjectVisibilty(
+            request.getUser(), find(request, "project", BTOProject.class)
+        ));
+        server.post("/projects/delete", request -> btoProjectService.deleteBTOProject(
+            request.getUser(), find(request, "project", BTOProject.class)
+        ));
+    }
+
+    private void registerApplicationRoutes(RequestServer server) {
+        server.get("/applications", request -> applicationService.getApplicationsByUser(
+            request.getUser(), getPageNumber(request), getPageSize(request)
+        ));
+        server.get("/applications/all", request -> applicationService.getAllApplications(
+            request.getUser(), getPageNumber(request), getPageSize(request)
+        ));
+        server.get("/applications/project", request -> applicationService.getApplicationsByBTOProject(
+            request.getUser(), find(request, "project", BTOProject.class), getPageNumber(request), getPageSize(request)
+        ));
+        server.get("/applications/report", request -> applicationService.getApplicationSnapshotsByBTOProject(
+            request.getUser(), find(request, "project", BTOProject.class)
+        ));
+        server.post("/applications/add", request -> applicationService.addApplication(
+            request.getUser(), find(request, "project", BTOProject.class), request.getEnum("flatType", FlatType.class)
+        ));
+        server.post("/applications/approve", request -> applicationService.approveApplication(
+            request.getUser(), find(request, "id", Application.class), request.getBoolean("approve")
+        ));
+        server.post("/applications/book", request -> applicationService.bookApplication(
+            request.getUser(), find(request, "id", Application.class)
+        ));
+        server.post("/applications/withdraw", request -> applicationService.withdrawApplication(
+            request.getUser(), find(request, "id", Application.class)
+        ));
+        server.post("/applications/withdrawal/approve", request -> applicationService.approveWithdrawApplication(
+            request.getUser(), find(request, "id", Application.class), request.getBoolean("approve")
+        ));
+    }
+
+    private void registerEnquiryRoutes(RequestServer server) {
+        server.get("/enquiries", request -> enquiryService.getEnquiriesByUser(request.getUser()));
+        server.get("/enquiries/all", request -> enquiryService.getAllEnquiries(request.getUser()));
+        server.get("/enquiries/project", request -> enquiryService.getEnquiriesByBTOProject(
+            request.getUser(), find(request, "project", BTOProject.class)
+        ));
+        server.post("/enquiries/add", request -> enquiryService.addEnquiry(
+            request.getUser(), find(request, "project", BTOProject.class), request.getString("subject"), request.getString("enquiry")
+        ));
+        server.post("/enquiries/edit", request -> enquiryService.editEnquiry(
+            request.getUser(), find(request, "id", Enquiry.class), request.getString("subject"), request.getString("enquiry"), getVersion(request)
+        ));
+        server.post("/enquiries/delete", request -> enquiryService.deleteEnquiry(
+            request.getUser(), find(request, "id", Enquiry.class)
+        ));
+        server.post("/enquiries/reply", request -> enquiryService.replyEnquiry(
+            request.getUser(), find(request, "id", Enquiry.class), request.getString("reply"), getVersion(request)
+        ));
+    }
+
+    private void registerOfficerRegistrationRoutes(RequestServer server) {
+        server.get("/registrations", request -> officerRegistrationService.getOfficerRegistrationsByOfficer(request.getUser()));
+        server.get("/registrations/project", request -> officerRegistrationService.getOfficerRegistrationsByBTOProject(
+            request.getUser(), find(request, "project", BTOProject.class)
+        ));
+        server.post("/registrations/add", request -> officerRegistrationService.addOfficerRegistration(
+            request.getUser(), find(request, "project", BTOProject.class)
+        ));
+        server.post("/registrations/approve", request -> officerRegistrationService.approveOfficerRegistration(
+            request.getUser(), find(request, "id", OfficerRegistration.class), request.getBoolean("approve")
+        ));
+    }
+
+    /**
+     * Looks up the record referred to by a parameter of a request.
+     *
+     * @param <T>       the type of the record
+     * @param request   the request
+     * @param parameter the name of the parameter holding the primary key of the record
+     * @param clazz     the class of the record
+     * @return the record
+     * @throws RequestException if the parameter is missing, or no such record exists
+     */
+    private <T extends DataModel> T find(Request request, String parameter, Class<T> clazz) {
+        final String PK = request.getString(parameter);
+        final T model = dataManager.getByPK(clazz, PK);
+        if(model == null){
+            throw new RequestException(404, "%s not found: %s".formatted(clazz.getSimpleName(), PK));
+        }
+
+        return model;
+    }
+
+    /**
+     * Reads the project data of a request, validated like the fields of the BTO project form.
+     * The number and price of each flat type are given as {@code flatNum.TYPE} and {@code flatPrice.TYPE},
+     * such as {@code flatNum.TWO_ROOM_FLAT}.
+     *
+     * @param request the request
+     * @param name    the name of the project
+     * @return the project data
+     * @throws RequestException if a parameter is missing or invalid
+     */
+    private static BTOProjectDTO toBTOProjectDTO(Request request, String name) {
+        final Map<FlatType, Integer> flatNums = new HashMap<>();
+        final Map<FlatType, Integer> flatPrices = new HashMap<>();
+        for(FlatType flatType:FlatType.values()){
+            flatNums.put(flatType, request.getInt("flatNum." + flatType.name(), 0, Integer.MAX_VALUE));
+            flatPrices.put(flatType, request.getInt("flatPrice." + flatType.name(), 0, Integer.MAX_VALUE));
+        }
+
+        return new BTOProjectDTO(
+            name,
+            request.getString("neighborhood"),
+            flatNums,
+            flatPrices,
+            request.getDate("openingDate"),
+            request.getDate("closingDate"),
+            request.getInt("hdbOfficerLimit", BTOProject.MIN_HDB_OFFICER_LIMIT, BTOProject.MAX_HDB_OFFICER_LIMIT)
+        );
+    }
+
+    private static int getVersion(Request request) {
+        return request.getInt("version", 0, Integer.MAX_VALUE);
+    }
+
+    private static int getPageNumber(Request request) {
+        // Bounded so that the offset of the page, its number times its size, still fits in an int
+        return request.getInt("page", 0, Integer.MAX_VALUE / getPageSize(request), 0);
+    }
+
+    private static int getPageSize(Request request) {
+        return request.getInt("size", 1, MAX_PAGE_SIZE, DEFAULT_PAGE_SIZE);
+    }
+}
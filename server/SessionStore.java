@@ -0,0 +1,105 @@
+package server;
+
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import manager.DefaultSessionManager;
+import manager.interfaces.SessionManager;
+import model.User;
+
+/**
+ * Sessions of the clients of the {@link RequestServer}, one {@link SessionManager} per logged in client,
+ * instead of the single session of the terminal application.
+ * <p>
+ * A session is identified by a random token given to the client at login, and sent back with each
+ * request. Sessions idle for longer than {@value #IDLE_TIMEOUT_MILLIS} milliseconds expire; they are
+ * removed when next used, and swept whenever a session is opened.
+ * </p>
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ */
+public class SessionStore {
+    /** Idle time after which a session expires, 30 minutes. */
+    private static final long IDLE_TIMEOUT_MILLIS = 30 * 60 * 1000;
+    private static final int TOKEN_BYTES = 24;
+
+    /**
+     * A session and the last time it was used.
+     */
+    private static class Session {
+        private final SessionManager sessionManager = new DefaultSessionManager();
+        private volatile long lastAccessMillis = System.currentTimeMillis();
+
+        private boolean isExpired(long nowMillis){
+            return nowMillis - lastAccessMillis > IDLE_TIMEOUT_MILLIS;
+        }
+    }
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * Opens a session for a logged in user.
+     *
+     * @param user the user
+     * @return the token of the new session
+     */
+    public String open(User user) {
+        final long nowMillis = System.currentTimeMillis();
+        sessions.values().removeIf(session -> session.isExpired(nowMillis));
+
+        final byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        final String token = HexFormat.of().formatHex(bytes);
+
+        final Session session = new Session();
+        session.sessionManager.setUser(user);
+        sessions.put(token, session);
+        return token;
+    }
+
+    /**
+     * Retrieves the session of a token, and marks it as used.
+     *
+     * @param token the token sent by the client
+     * @return the session, or {@code null} if the token is unknown or its session expired
+     */
+    public SessionManager get(String token) {
+        if(token == null) return null;
+
+        final Session session = sessions.get(token);
+        if(session == null) return null;
+
+        final long nowMillis = System.currentTimeMillis();
+        if(session.isExpired(nowMillis)){
+            sessions.remove(token, session);
+            return null;
+        }
+        session.lastAccessMillis = nowMillis;
+        return session.sessionManager;
+    }
+
+    /**
+     * Closes a session, logging its user out.
+     *
+     * @param token the token of the session
+     */
+    public void close(String token) {
+        final Session session = sessions.remove(token);
+        if(session != null){
+            session.sessionManager.logout();
+        }
+    }
+
+    /**
+     * Closes every session.
+     */
+    public void closeAll() {
+        for(String token:sessions.keySet()){
+            close(token);
+        }
+    }
+}
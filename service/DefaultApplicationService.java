@@ -1,17 +1,21 @@
 package service;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 import config.FlatType;
 import config.ResponseStatus;
 import exception.DataModelException;
 import exception.DataSavingException;
 import manager.interfaces.DataManager;
+import manager.interfaces.Transaction;
 import model.Application;
 import model.BTOProject;
 import model.User;
 import policy.PolicyResponse;
 import policy.interfaces.ApplicationPolicy;
+import query.Page;
+import query.Query;
 import service.interfaces.ApplicationService;
 
 /**
@@ -72,13 +76,16 @@ public class DefaultApplicationService implements ApplicationService{
  *           - "Application unsuccessful. You have applied for this project before"
  */
     @Override
-    public ServiceResponse<List<Application>> getAllApplications(User requestedUser) {
+    public ServiceResponse<Page<Application>> getAllApplications(User requestedUser, int pageNumber, int pageSize) {
         PolicyResponse policyResponse = applicationPolicy.canViewAllApplications(requestedUser);
         if(!policyResponse.isAllowed()){
             return new ServiceResponse<>(policyResponse);
         }
 
-        List<Application> applications = dataManager.getAll(Application.class, Application.SORT_BY_CREATED_AT_DESC);
+        Page<Application> applications = dataManager.getPage(
+            new Query<>(Application.class).orderBy(Application.SORT_BY_CREATED_AT_DESC),
+            pageNumber, pageSize
+        );
         return new ServiceResponse<>(ResponseStatus.SUCCESS, applications);
     }
 
@@ -121,15 +128,17 @@ public class DefaultApplicationService implements ApplicationService{
  *           - "Application unsuccessful. You have applied for this project before"
  */
     @Override
-    public ServiceResponse<List<Application>> getApplicationsByUser(User requestedUser) { 
+    public ServiceResponse<Page<Application>> getApplicationsByUser(User requestedUser, int pageNumber, int pageSize) { 
         PolicyResponse policyResponse = applicationPolicy.canViewApplicationsByUser(requestedUser);
         if(!policyResponse.isAllowed()){
             return new ServiceResponse<>(policyResponse);
         }
 
-        List<Application> applications = dataManager.getByQuery(Application.class,
-            application -> application.getApplicant() == requestedUser,
-            Application.SORT_BY_CREATED_AT_DESC
+        Page<Application> applications = dataManager.getPage(
+            new Query<>(Application.class)
+                .where("applicant", requestedUser)
+                .orderBy(Application.SORT_BY_CREATED_AT_DESC),
+            pageNumber, pageSize
         );
 
         return new ServiceResponse<>(ResponseStatus.SUCCESS, applications);
@@ -142,129 +151,178 @@ public class DefaultApplicationService implements ApplicationService{
             return new ServiceResponse<>(policyResponse);
         }
 
-        List<Application> applications = dataManager.getByQuery(Application.class,
-            application -> application.getBTOProject() == btoProject,
+        List<Application> applications = dataManager.getByForeignKey(Application.class,
+            "btoProject", btoProject,
             Application.SORT_BY_CREATED_AT_DESC
         );
 
         return new ServiceResponse<>(ResponseStatus.SUCCESS, applications);
     }
 
+    /**
+     * Retrieves the applications of a BTO project as they were at the last committed change,
+     * so that a report lists a consistent set of applications while others are being approved or booked.
+     * The applications returned are copies, and must not be saved.
+     */
     @Override
-    public ServiceResponse<Application> getApplicationByUserAndBTOProject(User requestedUser, BTOProject btoProject) {
-        PolicyResponse policyResponse = applicationPolicy.canViewApplicationByUserAndBTOProject(requestedUser, btoProject);
+    public ServiceResponse<List<Application>> getApplicationSnapshotsByBTOProject(User requestedUser, BTOProject btoProject) {
+        PolicyResponse policyResponse = applicationPolicy.canViewApplicationsByBTOProject(requestedUser, btoProject);
         if(!policyResponse.isAllowed()){
             return new ServiceResponse<>(policyResponse);
         }
 
-        List<Application> applications = dataManager.getByQueries(Application.class, List.of(
-            application -> application.getApplicant() == requestedUser,
+        List<Application> applications = dataManager.getSnapshotByQuery(Application.class,
             application -> application.getBTOProject() == btoProject
-        ));
-
-        Application application = null;
-        if(!applications.isEmpty()){
-            application = applications.get(0);
-        }
+        );
+        applications.sort(Application.SORT_BY_CREATED_AT_DESC);
 
-        return new ServiceResponse<>(ResponseStatus.SUCCESS, application);
+        return new ServiceResponse<>(ResponseStatus.SUCCESS, applications);
     }
 
     @Override
-    public ServiceResponse<?> addApplication(User requestedUser, BTOProject btoProject, FlatType flatType) {
-        PolicyResponse policyResponse = applicationPolicy.canCreateApplication(requestedUser, btoProject, flatType);
+    public ServiceResponse<Page<Application>> getApplicationsByBTOProject(User requestedUser, BTOProject btoProject, int pageNumber, int pageSize) {
+        PolicyResponse policyResponse = applicationPolicy.canViewApplicationsByBTOProject(requestedUser, btoProject);
         if(!policyResponse.isAllowed()){
             return new ServiceResponse<>(policyResponse);
         }
 
-        try {
-            Application application = new Application(requestedUser, btoProject, flatType);
-            dataManager.save(application);
-        } catch (DataModelException e) {
-            return new ServiceResponse<>(ResponseStatus.ERROR, e.getMessage());
-        } catch (DataSavingException e) {
-            return new ServiceResponse<>(ResponseStatus.ERROR, "Internal error. %s".formatted(e.getMessage()));
-        }
+        Page<Application> applications = dataManager.getPage(
+            new Query<>(Application.class)
+                .where("btoProject", btoProject)
+                .orderBy(Application.SORT_BY_CREATED_AT_DESC),
+            pageNumber, pageSize
+        );
 
-        return new ServiceResponse<>(ResponseStatus.SUCCESS, "Application submitted successfully. Kindly wait for approval.");
+        return new ServiceResponse<>(ResponseStatus.SUCCESS, applications);
     }
 
     @Override
-    public ServiceResponse<?> approveApplication(User requestedUser, Application application, boolean isApproving) {
-        PolicyResponse policyResponse = applicationPolicy.canApproveApplication(requestedUser, application, isApproving);
+    public ServiceResponse<Application> getApplicationByUserAndBTOProject(User requestedUser, BTOProject btoProject) {
+        PolicyResponse policyResponse = applicationPolicy.canViewApplicationByUserAndBTOProject(requestedUser, btoProject);
         if(!policyResponse.isAllowed()){
             return new ServiceResponse<>(policyResponse);
         }
 
-        try {
-            application.approveApplication(isApproving);
-            dataManager.save(application);
-        } catch (DataModelException e) {
-            return new ServiceResponse<>(ResponseStatus.ERROR, e.getMessage());
-        } catch (DataSavingException e) {
-            application.restore();
-            return new ServiceResponse<>(ResponseStatus.ERROR, "Internal error. %s".formatted(e.getMessage()));
+        List<Application> applications = dataManager.getByQuery(new Query<>(Application.class)
+            .where("applicant", requestedUser)
+            .where("btoProject", btoProject)
+            .limit(1)
+        );
+
+        Application application = null;
+        if(!applications.isEmpty()){
+            application = applications.get(0);
         }
 
-        return new ServiceResponse<>(ResponseStatus.SUCCESS, "Application %s successful.".formatted(isApproving ? "approved" : "rejected"));
+        return new ServiceResponse<>(ResponseStatus.SUCCESS, application);
     }
 
-    public ServiceResponse<?> bookApplication(User requestedUser, Application application) {
-        PolicyResponse policyResponse = applicationPolicy.canBookApplication(requestedUser, application);
-        if(!policyResponse.isAllowed()){
-            return new ServiceResponse<>(policyResponse);
-        }
-        
-        try {
-            application.bookApplication();
-            dataManager.save(application);
-        } catch (DataModelException e) {
-            return new ServiceResponse<>(ResponseStatus.ERROR, e.getMessage());
-        } catch (DataSavingException e) {
-            application.restore();
-            return new ServiceResponse<>(ResponseStatus.ERROR, "Internal error. %s".formatted(e.getMessage()));
-        }
-
-        return new ServiceResponse<>(ResponseStatus.SUCCESS, "Booking successful.");
+    @Override
+    public ServiceResponse<?> addApplication(User requestedUser, BTOProject btoProject, FlatType flatType) {
+        // The applications of the applicant are checked and added to in one transaction, so that two requests
+        // cannot both pass the check, such as applying for two projects at once
+        return changeApplication(
+            () -> applicationPolicy.canCreateApplication(requestedUser, btoProject, flatType),
+            () -> dataManager.save(new Application(requestedUser, btoProject, flatType)),
+            "Application submitted successfully. Kindly wait for approval."
+        );
     }
 
     @Override
-    public ServiceResponse<?> withdrawApplication(User requestedUser, Application application) {
-        PolicyResponse policyResponse = applicationPolicy.canWithdrawApplication(requestedUser, application);
-        if(!policyResponse.isAllowed()){
-            return new ServiceResponse<>(policyResponse);
-        }
+    public ServiceResponse<?> approveApplication(User requestedUser, Application application, boolean isApproving) {
+        return changeApplication(
+            () -> applicationPolicy.canApproveApplication(requestedUser, application, isApproving),
+            () -> {
+                dataManager.track(application);
+                application.approveApplication(isApproving);
+                dataManager.save(application);
+            },
+            "Application %s successful.".formatted(isApproving ? "approved" : "rejected")
+        );
+    }
 
-        try {
-            application.requestWithdrawal();
-            dataManager.save(application);
-        } catch (DataModelException e) {
-            return new ServiceResponse<>(ResponseStatus.ERROR, e.getMessage());
-        } catch (DataSavingException e) {
-            application.restore();
-            return new ServiceResponse<>(ResponseStatus.ERROR, "Internal error. %s".formatted(e.getMessage()));
-        }
+    public ServiceResponse<?> bookApplication(User requestedUser, Application application) {
+        return changeApplication(
+            () -> applicationPolicy.canBookApplication(requestedUser, application),
+            // The application, its project and its flat units are committed together, or rolled back together
+            () -> {
+                trackFlatBooking(application);
+                application.bookApplication();
+                dataManager.save(application);
+            },
+            "Booking successful."
+        );
+    }
 
-        return new ServiceResponse<>(ResponseStatus.SUCCESS, "Withdrawal requested successful. Kindly wait for approval.");
+    @Override
+    public ServiceResponse<?> withdrawApplication(User requestedUser, Application application) {
+        return changeApplication(
+            () -> applicationPolicy.canWithdrawApplication(requestedUser, application),
+            () -> {
+                dataManager.track(application);
+                application.requestWithdrawal();
+                dataManager.save(application);
+            },
+            "Withdrawal requested successful. Kindly wait for approval."
+        );
     }
 
     @Override
     public ServiceResponse<?> approveWithdrawApplication(User requestedUser, Application application, boolean isApproving) {
-        PolicyResponse policyResponse = applicationPolicy.canApproveWithdrawApplication(requestedUser, application);
-        if(!policyResponse.isAllowed()){
-            return new ServiceResponse<>(policyResponse);
-        }
+        return changeApplication(
+            () -> applicationPolicy.canApproveWithdrawApplication(requestedUser, application),
+            // Approving the withdrawal of a booked application releases its flat
+            () -> {
+                trackFlatBooking(application);
+                application.approveWithdrawal(isApproving);
+                dataManager.save(application);
+            },
+            "Withdrawal %s successful.".formatted(isApproving ? "approved" : "rejected")
+        );
+    }
 
+    /**
+     * Checks a policy on an application, then adds or changes and saves the application, as one transaction.
+     * Since applications are shared by every session, checking the policy within the transaction ensures
+     * that no other change, such as the booking of the last flat, comes between the check and the save.
+     * If the change fails, the models it tracked are restored.
+     *
+     * @param policy         the policy check
+     * @param change         the change, run only if the policy allows it
+     * @param successMessage the message of a successful change
+     * @return ServiceResponse with:
+     *         - SUCCESS status with the message if the change is saved
+     *         - ERROR status with message if the policy denies it, or the change fails
+     */
+    private ServiceResponse<?> changeApplication(Supplier<PolicyResponse> policy, Transaction<DataModelException> change, String successMessage) {
+        final PolicyResponse[] policyResponse = new PolicyResponse[1];
         try {
-            application.approveWithdrawal(isApproving);
-            dataManager.save(application);
+            dataManager.transaction(() -> {
+                policyResponse[0] = policy.get();
+                if(policyResponse[0].isAllowed()){
+                    change.run();
+                }
+            });
         } catch (DataModelException e) {
             return new ServiceResponse<>(ResponseStatus.ERROR, e.getMessage());
         } catch (DataSavingException e) {
-            application.restore();
             return new ServiceResponse<>(ResponseStatus.ERROR, "Internal error. %s".formatted(e.getMessage()));
         }
 
-        return new ServiceResponse<>(ResponseStatus.SUCCESS, "Withdrawal %s successful.".formatted(isApproving ? "approved" : "rejected"));
+        if(!policyResponse[0].isAllowed()){
+            return new ServiceResponse<>(policyResponse[0]);
+        }
+        return new ServiceResponse<>(ResponseStatus.SUCCESS, successMessage);
+    }
+
+    /**
+     * Tracks the models modified when the flat of an application is booked or released,
+     * so that they are restored if the transaction fails.
+     * 
+     * @param application the application booking or releasing a flat
+     */
+    private void trackFlatBooking(Application application) {
+        dataManager.track(application, application.getBTOProject());
+        application.getBTOProject().getFlatUnits().forEach(dataManager::track);
     }
-}
\ No newline at end of file
+}
@@ -5,6 +5,7 @@ import java.util.List;
 
 import config.ResponseStatus;
 import dto.BTOProjectDTO;
+import exception.DataConflictException;
 import exception.DataModelException;
 import exception.DataSavingException;
 import manager.interfaces.DataManager;
@@ -12,6 +13,7 @@ import model.BTOProject;
 import model.User;
 import policy.PolicyResponse;
 import policy.interfaces.BTOProjectPolicy;
+import query.Query;
 import service.interfaces.BTOProjectService;
 
 /**
@@ -20,6 +22,9 @@ import service.interfaces.BTOProjectService;
  * Enforces business rules and access control for HDB managers.
  */
 public class DefaultBTOProjectService implements BTOProjectService{
+    /** Message of an edit made from a version of the project that was changed since. */
+    private static final String EDIT_CONFLICT_MESSAGE = "The BTO project was changed while you were editing it. Please review it and try again.";
+
     private final DataManager dataManager;
     private final BTOProjectPolicy btoProjectPolicy;
 
@@ -106,11 +111,12 @@ public class DefaultBTOProjectService implements BTOProjectService{
      * @param requestedUser the user requesting the edit
      * @param btoProjectDTO the updated project data
      * @param editingBTOProject the project being edited
+     * @param expectedVersion the version of the project read before the updated data was entered
      * @return ServiceResponse with:
      *         - SUCCESS status if edit is successful
-     *         - ERROR status with message if validation fails
+     *         - ERROR status with message if validation fails, or if the project was changed in between
      */
-    public ServiceResponse<?> editBTOProject(User requestedUser, BTOProjectDTO btoProjectDTO, BTOProject editingBTOProject){
+    public ServiceResponse<?> editBTOProject(User requestedUser, BTOProjectDTO btoProjectDTO, BTOProject editingBTOProject, int expectedVersion){
         PolicyResponse policyResponse = btoProjectPolicy.canEditBTOProject(requestedUser, editingBTOProject);
         if(!policyResponse.isAllowed()){
             return new ServiceResponse<>(policyResponse);
@@ -122,12 +128,22 @@ public class DefaultBTOProjectService implements BTOProjectService{
         }
 
         try {
-            editingBTOProject.edit(btoProjectDTO);
-            dataManager.save(editingBTOProject);
+            // The project is shared by every session, so its version is checked, and the project edited and saved,
+            // as one transaction: an edit from an outdated version never changes the project, even in memory
+            dataManager.transaction(() -> {
+                if(editingBTOProject.getVersion() != expectedVersion){
+                    throw new DataConflictException(EDIT_CONFLICT_MESSAGE);
+                }
+                dataManager.track(editingBTOProject);
+                editingBTOProject.getFlatUnits().forEach(dataManager::track);
+                editingBTOProject.edit(btoProjectDTO);
+                dataManager.save(editingBTOProject, expectedVersion);
+            });
         } catch (DataModelException e) {
             return new ServiceResponse<>(ResponseStatus.ERROR, e.getMessage());
+        } catch (DataConflictException e) {
+            return new ServiceResponse<>(ResponseStatus.ERROR, EDIT_CONFLICT_MESSAGE);
         } catch (DataSavingException e) {
-            editingBTOProject.restore();
             return new ServiceResponse<>(ResponseStatus.ERROR, "Internal error. %s".formatted(e.getMessage()));
         }
         
@@ -146,11 +162,12 @@ public class DefaultBTOProjectService implements BTOProjectService{
      *         - ERROR status with details if overlap exists
      */
     private ServiceResponse<?> hasOverlappingVisibleProject(User requestedUser, LocalDate openingDate, LocalDate closingDate, BTOProject editingBTOProject){
-        List<BTOProject> btoProjects = dataManager.getByQueries(BTOProject.class, List.of(
-            btoProject -> btoProject.getHDBManager() == requestedUser,
-            btoProject -> btoProject.isVisible() && btoProject != editingBTOProject,
-            btoProject -> btoProject.isOverlappingWith(openingDate, closingDate)
-        ));
+        List<BTOProject> btoProjects = dataManager.getByQuery(new Query<>(BTOProject.class)
+            .where("HDBManager", requestedUser)
+            .where("visible", true)
+            .whereOverlapping("applicationPeriod", openingDate, closingDate)
+            .filter(btoProject -> btoProject != editingBTOProject)
+        );
 
         if(!btoProjects.isEmpty()){
             BTOProject btoProject = btoProjects.get(0);
@@ -3,6 +3,7 @@ package service;
 import java.util.List;
 
 import config.ResponseStatus;
+import exception.DataConflictException;
 import exception.DataModelException;
 import exception.DataSavingException;
 import manager.interfaces.DataManager;
@@ -19,6 +20,10 @@ import service.interfaces.EnquiryService;
  * Enforces role-based access control for all operations.
  */
 public class DefaultEnquiryService implements EnquiryService{
+    /** Messages of an edit or reply made from a version of the enquiry that was changed since. */
+    private static final String EDIT_CONFLICT_MESSAGE = "The enquiry was changed while you were editing it. Please review it and try again.";
+    private static final String REPLY_CONFLICT_MESSAGE = "The enquiry was changed while you were replying to it. Please review it and try again.";
+
     private final DataManager dataManager;
     private final EnquiryPolicy enquiryPolicy;
     
@@ -69,9 +74,9 @@ public class DefaultEnquiryService implements EnquiryService{
             return new ServiceResponse<>(policyResponse);
         }
 
-        List<Enquiry> enquiries = dataManager.getByQuery(
+        List<Enquiry> enquiries = dataManager.getByForeignKey(
             Enquiry.class, 
-            enquiry -> enquiry.getEnquirer() == requestedUser,
+            "enquirer", requestedUser,
             Enquiry.SORT_BY_CREATED_AT_DESC
         );
         return new ServiceResponse<>(ResponseStatus.SUCCESS, enquiries);
@@ -94,9 +99,9 @@ public class DefaultEnquiryService implements EnquiryService{
             return new ServiceResponse<>(policyResponse);
         }
 
-        List<Enquiry> enquiries = dataManager.getByQuery(
+        List<Enquiry> enquiries = dataManager.getByForeignKey(
             Enquiry.class, 
-            enquiry -> enquiry.getBTOProject() == btoProject,
+            "btoProject", btoProject,
             Enquiry.SORT_BY_CREATED_AT_DESC
         );
         return new ServiceResponse<>(ResponseStatus.SUCCESS, enquiries);
@@ -140,25 +145,33 @@ public class DefaultEnquiryService implements EnquiryService{
      * @param enquiry the enquiry to modify
      * @param subject the new subject line
      * @param enquiryString the new enquiry content
+     * @param expectedVersion the version of the enquiry read before it was edited
      * @return ServiceResponse containing:
      *         - SUCCESS status with confirmation message if updated
-     *         - ERROR status with message if validation fails
+     *         - ERROR status with message if validation fails, or if the enquiry was changed in between
      */
     @Override
-    public ServiceResponse<?> editEnquiry(User requestedUser, Enquiry enquiry, String subject, String enquiryString) {
+    public ServiceResponse<?> editEnquiry(User requestedUser, Enquiry enquiry, String subject, String enquiryString, int expectedVersion) {
         PolicyResponse policyResponse = enquiryPolicy.canEditEnquiry(requestedUser, enquiry);
         if(!policyResponse.isAllowed()){
             return new ServiceResponse<>(policyResponse);
         }
 
         try {
-            enquiry.setSubject(subject);
-            enquiry.setEnquiry(enquiryString);
-            dataManager.save(enquiry);
+            // Checked, edited and saved as one transaction, so that an outdated edit never changes the shared enquiry
+            dataManager.transaction(() -> {
+                if(enquiry.getVersion() != expectedVersion){
+                    throw new DataConflictException(EDIT_CONFLICT_MESSAGE);
+                }
+                dataManager.track(enquiry);
+                enquiry.edit(subject, enquiryString);
+                dataManager.save(enquiry, expectedVersion);
+            });
         } catch (DataModelException e) {
             return new ServiceResponse<>(ResponseStatus.ERROR, e.getMessage());
-        }catch (DataSavingException e) {
-            enquiry.restore();
+        } catch (DataConflictException e) {
+            return new ServiceResponse<>(ResponseStatus.ERROR, EDIT_CONFLICT_MESSAGE);
+        } catch (DataSavingException e) {
             return new ServiceResponse<>(ResponseStatus.ERROR, "Internal error. %s".formatted(e.getMessage()));
         } 
 
@@ -198,22 +211,31 @@ public class DefaultEnquiryService implements EnquiryService{
      * @param requestedUser the user submitting the reply
      * @param enquiry the enquiry being replied to
      * @param replyString the reply content
+     * @param expectedVersion the version of the enquiry read before the reply was written
      * @return ServiceResponse containing:
      *         - SUCCESS status with confirmation message if replied
-     *         - ERROR status with message if validation fails
+     *         - ERROR status with message if validation fails, or if the enquiry was changed in between
      */
     @Override
-    public ServiceResponse<?> replyEnquiry(User requestedUser, Enquiry enquiry, String replyString) {
+    public ServiceResponse<?> replyEnquiry(User requestedUser, Enquiry enquiry, String replyString, int expectedVersion) {
         PolicyResponse policyResponse = enquiryPolicy.canReplyEnquiry(requestedUser, enquiry);
         if(!policyResponse.isAllowed()){
             return new ServiceResponse<>(policyResponse);
         }
 
         try {
-            enquiry.setReply(replyString);
-            dataManager.save(enquiry);
+            // Checked, replied and saved as one transaction, so that an outdated reply never changes the shared enquiry
+            dataManager.transaction(() -> {
+                if(enquiry.getVersion() != expectedVersion){
+                    throw new DataConflictException(REPLY_CONFLICT_MESSAGE);
+                }
+                dataManager.track(enquiry);
+                enquiry.setReply(replyString);
+                dataManager.save(enquiry, expectedVersion);
+            });
+        } catch (DataConflictException e) {
+            return new ServiceResponse<>(ResponseStatus.ERROR, REPLY_CONFLICT_MESSAGE);
         } catch (Exception e) {
-            enquiry.restore();
             return new ServiceResponse<>(ResponseStatus.ERROR, "Internal error. %s".formatted(e.getMessage()));
         }
 
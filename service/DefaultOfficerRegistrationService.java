@@ -1,11 +1,13 @@
 package service;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 import config.ResponseStatus;
 import exception.DataModelException;
 import exception.DataSavingException;
 import manager.interfaces.DataManager;
+import manager.interfaces.Transaction;
 import model.BTOProject;
 import model.OfficerRegistration;
 import model.User;
@@ -73,9 +75,9 @@ public class DefaultOfficerRegistrationService implements OfficerRegistrationSer
             return new ServiceResponse<>(policyResponse);
         }
 
-        List<OfficerRegistration> officerRegistrations = dataManager.getByQuery(
+        List<OfficerRegistration> officerRegistrations = dataManager.getByForeignKey(
             OfficerRegistration.class,
-            registration -> registration.getHDBOfficer() == requestedUser, 
+            "HDBOfficer", requestedUser, 
             OfficerRegistration.SORT_BY_CREATED_AT_DESC
         );
 
@@ -99,9 +101,9 @@ public class DefaultOfficerRegistrationService implements OfficerRegistrationSer
             return new ServiceResponse<>(policyResponse);
         }
 
-        List<OfficerRegistration> officerRegistrations = dataManager.getByQuery(
+        List<OfficerRegistration> officerRegistrations = dataManager.getByForeignKey(
             OfficerRegistration.class,
-            registration -> registration.getBTOProject() == btoProject, 
+            "btoProject", btoProject, 
             OfficerRegistration.SORT_BY_CREATED_AT_DESC
         );
 
@@ -125,19 +127,11 @@ public class DefaultOfficerRegistrationService implements OfficerRegistrationSer
      */
     @Override
     public ServiceResponse<?> addOfficerRegistration(User requestedUser, BTOProject btoProject) {
-        final PolicyResponse policyResponse = officerRegistrationPolicy.canCreateOfficerRegistration(requestedUser, btoProject);
-        if(!policyResponse.isAllowed()){
-            return new ServiceResponse<>(policyResponse);
-        }
-
-        try {
-            OfficerRegistration officerRegistration = new OfficerRegistration(btoProject, requestedUser);
-            dataManager.save(officerRegistration);
-        } catch (Exception e) {
-            return new ServiceResponse<>(ResponseStatus.ERROR, "Internal error. %s".formatted(e.getMessage()));
-        }
-
-        return new ServiceResponse<>(ResponseStatus.SUCCESS, "Registration successful. Kindly wait for approval from HDB Manager.");
+        return changeOfficerRegistration(
+            () -> officerRegistrationPolicy.canCreateOfficerRegistration(requestedUser, btoProject),
+            () -> dataManager.save(new OfficerRegistration(btoProject, requestedUser)),
+            "Registration successful. Kindly wait for approval from HDB Manager."
+        );
     }
 
     /**
@@ -154,23 +148,54 @@ public class DefaultOfficerRegistrationService implements OfficerRegistrationSer
      */
     @Override
     public ServiceResponse<?> approveOfficerRegistration(User requestedUser, OfficerRegistration officerRegistration, boolean isApproving) {
-        final PolicyResponse policyResponse = officerRegistrationPolicy.canApproveOfficerRegistration(requestedUser, officerRegistration, isApproving);
-        if(!policyResponse.isAllowed()){
-            return new ServiceResponse<>(policyResponse);
-        }
+        return changeOfficerRegistration(
+            () -> officerRegistrationPolicy.canApproveOfficerRegistration(requestedUser, officerRegistration, isApproving),
+            () -> {
+                final BTOProject btoProject = officerRegistration.getBTOProject();
+                dataManager.track(officerRegistration, btoProject);
+                officerRegistration.updateRegistrationStatus(isApproving);
+                dataManager.save(officerRegistration);
+                // Only approved officers handle the project, as when the projects are loaded
+                if(isApproving){
+                    btoProject.addHDBOfficer(officerRegistration.getHDBOfficer());
+                }
+            },
+            "%s registration successful.".formatted(isApproving ? "Approve" : "Reject")
+        );
+    }
 
+    /**
+     * Checks a policy on an officer registration, then adds or changes and saves the registration, as one transaction.
+     * Since projects are shared by every session, checking the policy within the transaction ensures that no
+     * other registration comes between the check and the save, such as one taking the last officer slot.
+     * If the change fails, the models it tracked are restored.
+     *
+     * @param policy         the policy check
+     * @param change         the change, run only if the policy allows it
+     * @param successMessage the message of a successful change
+     * @return ServiceResponse containing:
+     *         - SUCCESS status with the message if the change is saved
+     *         - ERROR status with message if the policy denies it, or the change fails
+     */
+    private ServiceResponse<?> changeOfficerRegistration(Supplier<PolicyResponse> policy, Transaction<DataModelException> change, String successMessage) {
+        final PolicyResponse[] policyResponse = new PolicyResponse[1];
         try {
-            officerRegistration.updateRegistrationStatus(isApproving);
-            dataManager.save(officerRegistration);
-            officerRegistration.getBTOProject().addHDBOfficer(officerRegistration.getHDBOfficer());
+            dataManager.transaction(() -> {
+                policyResponse[0] = policy.get();
+                if(policyResponse[0].isAllowed()){
+                    change.run();
+                }
+            });
         } catch (DataModelException e) {
             return new ServiceResponse<>(ResponseStatus.ERROR, e.getMessage());
         } catch (DataSavingException e) {
-            officerRegistration.restore();;
             return new ServiceResponse<>(ResponseStatus.ERROR, "Internal error. %s".formatted(e.getMessage()));
         }
 
-        return new ServiceResponse<>(ResponseStatus.SUCCESS, "%s registration successful.".formatted(isApproving ? "Approve" : "Reject"));
+        if(!policyResponse[0].isAllowed()){
+            return new ServiceResponse<>(policyResponse[0]);
+        }
+        return new ServiceResponse<>(ResponseStatus.SUCCESS, successMessage);
     }
 }
    
@@ -6,6 +6,7 @@ import config.FlatType;
 import model.Application;
 import model.BTOProject;
 import model.User;
+import query.Page;
 import service.ServiceResponse;
 
 /**
@@ -32,9 +33,11 @@ public interface ApplicationService {
      *           - No existing active applications by the user
      *           - No duplicate application for same project
      */
-    ServiceResponse<List<Application>> getAllApplications(User requestedUser);
-    ServiceResponse<List<Application>> getApplicationsByUser(User requestedUser);
+    ServiceResponse<Page<Application>> getAllApplications(User requestedUser, int pageNumber, int pageSize);
+    ServiceResponse<Page<Application>> getApplicationsByUser(User requestedUser, int pageNumber, int pageSize);
     ServiceResponse<List<Application>> getApplicationsByBTOProject(User requestedUser, BTOProject btoProject);
+    ServiceResponse<Page<Application>> getApplicationsByBTOProject(User requestedUser, BTOProject btoProject, int pageNumber, int pageSize);
+    ServiceResponse<List<Application>> getApplicationSnapshotsByBTOProject(User requestedUser, BTOProject btoProject);
     ServiceResponse<Application> getApplicationByUserAndBTOProject(User requestedUser, BTOProject btoProject);
     ServiceResponse<?> addApplication(User requestedUser, BTOProject btoProject, FlatType flatType);
     ServiceResponse<?> approveApplication(User requestedUser, Application application, boolean isApproving);
@@ -43,14 +43,16 @@ public interface BTOProjectService {
      * @param user the user requesting the edit (must be HDB_MANAGER and responsible manager)
      * @param btoProjectDTO the updated project data (cannot be null)
      * @param btoProject the project to be modified (cannot be null)
+     * @param expectedVersion the version of the project read before the updated data was entered
      * @return ServiceResponse containing:
      *         - SUCCESS status with confirmation message if updated
      *         - ERROR status with message if:
      *           - User not authorized
      *           - Project cannot be modified
+     *           - Project was changed by another user since that version
      *           - Validation fails
      */
-    ServiceResponse<?> editBTOProject(User requestedUser, BTOProjectDTO btoProjectDTO, BTOProject btoProject);
+    ServiceResponse<?> editBTOProject(User requestedUser, BTOProjectDTO btoProjectDTO, BTOProject btoProject, int expectedVersion);
 
     /**
      * Toggles the visibility status of a BTO project.
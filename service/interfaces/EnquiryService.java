@@ -33,14 +33,16 @@ public interface EnquiryService {
      * @param enquiry the enquiry to modify (cannot be null)
      * @param subject the new subject line (cannot be null or empty)
      * @param enquiryString the new enquiry content (cannot be null or empty)
+     * @param expectedVersion the version of the enquiry read before it was edited
      * @return ServiceResponse with:
      *         - SUCCESS status if updated
      *         - ERROR status if:
      *           - User is not original enquirer
      *           - Enquiry has been replied to
+     *           - Enquiry was changed by another user since that version
      *           - Validation fails
      */
-    ServiceResponse<?> editEnquiry(User requestedUser, Enquiry enquiry, String subject, String enquiryString);
+    ServiceResponse<?> editEnquiry(User requestedUser, Enquiry enquiry, String subject, String enquiryString, int expectedVersion);
 
     /**
      * Deletes an existing enquiry.
@@ -62,14 +64,16 @@ public interface EnquiryService {
      * @param requestedUser the user replying (must be handling officer/manager)
      * @param enquiry the enquiry to reply to (cannot be null)
      * @param replyString the reply content (cannot be null or empty)
+     * @param expectedVersion the version of the enquiry read before the reply was written
      * @return ServiceResponse with:
      *         - SUCCESS status if replied
      *         - ERROR status if:
      *           - User not authorized
      *           - Enquiry has already been replied to 
+     *           - Enquiry was changed by another user since that version
      *           - Validation fails
      */
-    ServiceResponse<?> replyEnquiry(User requestedUser, Enquiry enquiry, String replyString);
+    ServiceResponse<?> replyEnquiry(User requestedUser, Enquiry enquiry, String replyString, int expectedVersion);
 
      /**
      * Retrieves all enquiries in the system (HDB Manager only).
@@ -1,36 +1,112 @@
 package util;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 /**
  * Utility class for reading CSV files into memory.
  * Each line in the file is read and split into a list of strings, with
- * commas as delimiters. Escaped commas (preceded by backslashes) are not split.
+ * commas as delimiters. Escaped commas (preceded by backslashes) are not split,
+ * and are decoded into plain commas.
+ *
+ * <p>
+ * The file is tokenized in a single pass over a large buffer: delimiters, line breaks
+ * and escapes are all handled while scanning, so no regular expression or
+ * intermediate line is needed.
+ * </p>
+ *
+ * @see CSVFileWriter
  */
 public class CSVFileReader {
+    private static final int BUFFER_SIZE = 1 << 16;
 
     /**
      * Reads a CSV file and returns its contents as a list of rows.
      * Each row is a list of strings, where each string represents a column value.
-     * 
+     * Blank lines are skipped.
+     *
      * @param filePath the path to the CSV file
      * @return a list of rows, where each row is a list of string values
      * @throws IOException if an I/O error occurs reading from the file
      */
     public static List<List<String>> readFile(String filePath) throws IOException{
         List<List<String>> lines = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] values = line.split("(?<!\\\\),");
-                lines.add(Arrays.asList(values));
+
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+            Reader reader = Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), BUFFER_SIZE)) {
+
+            final char[] buffer = new char[BUFFER_SIZE];
+            final StringBuilder value = new StringBuilder();
+            List<String> line = new ArrayList<>();
+            boolean isEscaping = false;
+            boolean isSkippingLineFeed = false;
+            int length;
+
+            while ((length = reader.read(buffer)) != -1) {
+                for(int i = 0; i < length; i++){
+                    final char c = buffer[i];
+
+                    if(isSkippingLineFeed){
+                        isSkippingLineFeed = false;
+                        if(c == '\n') continue;
+                    }
+
+                    if(isEscaping){
+                        isEscaping = false;
+                        if(c == ','){
+                            value.append(',');
+                            continue;
+                        }
+                        // Only commas are escaped, the backslash is part of the value otherwise.
+                        value.append('\\');
+                    }
+
+                    switch (c) {
+                        case '\\' -> isEscaping = true;
+                        case ',' -> {
+                            line.add(value.toString());
+                            value.setLength(0);
+                        }
+                        case '\r', '\n' -> {
+                            isSkippingLineFeed = c == '\r';
+                            line = endLine(lines, line, value);
+                        }
+                        default -> value.append(c);
+                    }
+                }
             }
+
+            if(isEscaping) value.append('\\');
+            endLine(lines, line, value);
         }
+
         return lines;
     }
+
+    /**
+     * Completes the line being tokenized and adds it to the lines read, unless it is blank.
+     *
+     * @param lines the lines read so far
+     * @param line  the values of the current line, excluding the last value
+     * @param value the last value of the current line, cleared after this call
+     * @return a new list to collect the values of the next line
+     */
+    private static List<String> endLine(List<List<String>> lines, List<String> line, StringBuilder value){
+        if(line.isEmpty() && value.length() == 0){
+            return line;
+        }
+
+        line.add(value.toString());
+        value.setLength(0);
+        lines.add(line);
+
+        return new ArrayList<>(line.size());
+    }
 }
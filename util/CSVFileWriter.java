@@ -14,32 +14,58 @@ import java.util.List;
  * to prevent data corruption in case of write errors.
  */
 public class CSVFileWriter {
-    private static final String TEMP_FILE_PATH = "./data/temp.csv";
+    /** Suffix of the temporary file written next to each target file. */
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
 
     /**
      * Writes a list of CSV lines to the specified file path.
      * Each line is a list of strings representing individual columns.
      * The data is written to a temporary file first, which is then renamed to the target path.
+     * Each target file has its own temporary file next to it, so files written at the same time
+     * do not overwrite each other's content.
      *
      * @param path  the final file path to write the CSV data to
      * @param lines a list of CSV lines, where each line is a list of strings
      * @throws IOException if an I/O error occurs during writing or moving the file
      */
     public static void writeFile(String path, List<List<String>> lines) throws IOException{
-        BufferedWriter writer = new BufferedWriter(new FileWriter(TEMP_FILE_PATH));
-        for (List<String> line:lines){
-            String s = joinLine(line);
-            writer.write(s);
-            writer.newLine();
+        final String tempPath = path + TEMP_FILE_SUFFIX;
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(tempPath))) {
+            for (List<String> line:lines){
+                writer.write(joinLine(line));
+                writer.newLine();
+            }
         }
-        writer.close();
 
-        Files.move(Paths.get(TEMP_FILE_PATH), Paths.get(path), StandardCopyOption.REPLACE_EXISTING);
+        Files.move(Paths.get(tempPath), Paths.get(path), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Appends a list of CSV lines to the end of the specified file.
+     * The file is created if it does not exist.
+     * <p>
+     * Unlike {@link #writeFile(String, List)}, existing content is left untouched,
+     * so the cost of this method depends only on the number of lines appended.
+     * </p>
+     *
+     * @param path  the file path to append the CSV data to
+     * @param lines a list of CSV lines, where each line is a list of strings
+     * @throws IOException if an I/O error occurs during writing
+     */
+    public static void appendFile(String path, List<List<String>> lines) throws IOException{
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(path, true))) {
+            for (List<String> line:lines){
+                writer.write(joinLine(line));
+                writer.newLine();
+            }
+        }
     }
 
     /**
      * Joins a list of strings into a single CSV-formatted line.
-     * Assumes the values do not contain commas, quotes, or newlines.
+     * Commas in values are escaped with a backslash so they don't break CSV formatting,
+     * and are decoded back by {@link CSVFileReader}.
+     * Assumes the values do not contain newlines.
      *
      * @param line a list of string values to join
      * @return a comma-separated line in CSV format
@@ -48,7 +74,7 @@ public class CSVFileWriter {
         StringBuilder sb = new StringBuilder();
 
         for(String data:line){
-            sb.append(data);
+            sb.append(data.replace(",", "\\,"));
             sb.append(',');
         }
 
@@ -0,0 +1,487 @@
+package util;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import exception.DataParsingException;
+import exception.DataSavingException;
+import model.CSVField;
+import model.DataModel;
+import parser.BinaryParser;
+import parser.ModelCodec;
+
+/**
+ * Files backing the tables of a data manager: one CSV file per table, with its change log,
+ * its optional binary snapshot, and a journal shared by all tables.
+ * <p>
+ * Changes are not written back by rewriting the CSV files. Instead, every change appends an upsert or delete
+ * record, keyed by the primary key, to the change log next to the CSV file of its table, which is replayed on top
+ * of the CSV file when the table is read. A change log is compacted back into its CSV file once it grows beyond
+ * a threshold, or when {@link #compactAll()} is called.
+ * </p>
+ * <p>
+ * Records of several tables are committed together through a journal ending with a commit record, which is then
+ * applied to the change logs with one append per table. A crash leaves either an incomplete journal, which is
+ * discarded, or a complete one, which is applied again, so the tables are never partially updated.
+ * </p>
+ * <p>
+ * If enabled, a binary snapshot of each CSV file is kept next to it, in the typed form of {@link BinaryParser}.
+ * The snapshot records the size and modification time of the CSV file it was written from, and can be decoded
+ * instead as long as the CSV file is unchanged. A missing, outdated or incompatible snapshot is ignored and
+ * rewritten from the CSV file.
+ * </p>
+ *
+ * @see CSVFileReader
+ * @see CSVFileWriter
+ */
+public class CSVTableStore {
+    /** Type of the change log records replacing or adding the row with the same primary key. */
+    public static final String UPSERT_RECORD = "U";
+    /** Type of the change log records removing the row with a primary key. */
+    public static final String DELETE_RECORD = "D";
+
+    private static final String LOG_FILE_EXTENSION = ".log";
+
+    /** Journal of the transaction being committed to several change logs at once. */
+    private static final String JOURNAL_FILE_PATH = "./data/transaction.journal";
+    /** Last line of a complete journal, followed by the number of records in the journal. */
+    private static final String COMMIT_RECORD = "COMMIT";
+
+    private static final String SNAPSHOT_FILE_EXTENSION = ".snapshot";
+    /** Magic number at the start of every binary snapshot, {@code "BTOS"} in ASCII. */
+    private static final int SNAPSHOT_MAGIC = 0x42544F53;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int SNAPSHOT_BUFFER_SIZE = 1 << 16;
+
+    /** Number of records a change log may hold before it is compacted immediately. */
+    private static final int COMPACTION_THRESHOLD = 1000;
+
+    private final Map<Class<? extends DataModel>, String> filePaths;
+    private final Map<Class<? extends DataModel>, ModelCodec<?>> codecs;
+    private final boolean isSnapshotEnabled;
+    private final Map<Class<? extends DataModel>, Integer> logSizes = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs the store of the given tables.
+     *
+     * @param filePaths         the path of the CSV file of each table
+     * @param codecs            the codec of each table
+     * @param isSnapshotEnabled whether binary snapshots are kept next to the CSV files
+     */
+    public CSVTableStore(Map<Class<? extends DataModel>, String> filePaths, Map<Class<? extends DataModel>, ModelCodec<?>> codecs, boolean isSnapshotEnabled){
+        this.filePaths = filePaths;
+        this.codecs = codecs;
+        this.isSnapshotEnabled = isSnapshotEnabled;
+    }
+
+    /**
+     * Reads the raw rows of a table by replaying its change log on top of its CSV file.
+     *
+     * @param clazz the class representing the table
+     * @return the current raw rows of the table
+     * @throws IOException if the CSV file or the change log cannot be read
+     * @throws DataParsingException if the change log contains an unknown record
+     */
+    private List<List<String>> readTable(Class<? extends DataModel> clazz) throws IOException{
+        return replayLog(clazz, CSVFileReader.readFile(filePaths.get(clazz)));
+    }
+
+    /**
+     * Reads the raw rows of a table at startup, like {@link #readTable(Class)}.
+     * If binary snapshots are enabled, the CSV file is also written into a new snapshot,
+     * so that the next startup does not need to parse it.
+     *
+     * @param clazz the class representing the table
+     * @return the current raw rows of the table
+     * @throws IOException if the CSV file or the change log cannot be read
+     * @throws DataParsingException if the change log contains an unknown record
+     */
+    public List<List<String>> readTableFromCSV(Class<? extends DataModel> clazz) throws IOException{
+        final BasicFileAttributes attributes = Files.readAttributes(Paths.get(filePaths.get(clazz)), BasicFileAttributes.class);
+        final List<List<String>> csvRows = CSVFileReader.readFile(filePaths.get(clazz));
+
+        if(isSnapshotEnabled){
+            writeSnapshotQuietly(clazz, csvRows, attributes);
+        }
+
+        return replayLog(clazz, csvRows);
+    }
+
+    /**
+     * Replays the change log of a table on top of the raw rows of its CSV file.
+     *
+     * @param clazz   the class representing the table
+     * @param csvRows the raw rows of the CSV file
+     * @return the current raw rows of the table
+     * @throws IOException if the change log cannot be read
+     * @throws DataParsingException if the change log contains an unknown record
+     */
+    private List<List<String>> replayLog(Class<? extends DataModel> clazz, List<List<String>> csvRows) throws IOException{
+        final int pkIndex = codecs.get(clazz).getPKIndex();
+        final Map<String, List<String>> rows = new LinkedHashMap<>();
+
+        for(List<String> row:csvRows){
+            rows.put(row.get(pkIndex), row);
+        }
+
+        replayLog(clazz, rows, Function.identity());
+        return new ArrayList<>(rows.values());
+    }
+
+    /**
+     * Replays the change log of a table on top of its records.
+     * <p>
+     * Upsert records replace the record with the same primary key (or add a new record),
+     * while delete records remove it. Rows are matched by the column marked as
+     * {@link CSVField#primaryKey()}.
+     * </p>
+     *
+     * @param <R>     the type of the records
+     * @param clazz   the class representing the table
+     * @param records the records of the table by primary key, updated in place
+     * @param decode  converts the row of an upsert record into a record
+     * @throws IOException if the change log cannot be read
+     * @throws DataParsingException if the change log contains an unknown record
+     */
+    public <R> void replayLog(Class<? extends DataModel> clazz, Map<String, R> records, Function<List<String>, R> decode) throws IOException{
+        final int pkIndex = codecs.get(clazz).getPKIndex();
+
+        for(List<String> record:readLog(clazz)){
+            switch (record.get(0)) {
+                case UPSERT_RECORD -> {
+                    List<String> row = record.subList(1, record.size());
+                    records.put(row.get(pkIndex), decode.apply(row));
+                }
+                case DELETE_RECORD -> records.remove(record.get(1));
+                default -> throw new DataParsingException("Unknown change log record: %s".formatted(record.get(0)));
+            }
+        }
+    }
+
+    /**
+     * Reads all records of the change log of a table, and records the size of the log.
+     *
+     * @param clazz the class representing the table
+     * @return the records of the change log, or an empty list if there is no log
+     * @throws IOException if the change log cannot be read
+     */
+    private List<List<String>> readLog(Class<? extends DataModel> clazz) throws IOException{
+        final String logPath = getLogPath(clazz);
+        final List<List<String>> records = Files.exists(Paths.get(logPath)) ? CSVFileReader.readFile(logPath) : List.of();
+
+        logSizes.put(clazz, records.size());
+        return records;
+    }
+
+    /**
+     * Returns the path of the change log of a table, placed next to its CSV file.
+     *
+     * @param clazz the class representing the table
+     * @return the path of the change log
+     */
+    private String getLogPath(Class<? extends DataModel> clazz){
+        return filePaths.get(clazz).replaceFirst("\\.csv$", "") + LOG_FILE_EXTENSION;
+    }
+
+    /**
+     * Returns the path of the binary snapshot of a table, placed next to its CSV file.
+     *
+     * @param clazz the class representing the table
+     * @return the path of the binary snapshot
+     */
+    private Path getSnapshotPath(Class<? extends DataModel> clazz){
+        return Paths.get(filePaths.get(clazz).replaceFirst("\\.csv$", "") + SNAPSHOT_FILE_EXTENSION);
+    }
+
+    /**
+     * Checks whether the binary snapshot of a table can be loaded instead of its CSV file.
+     * <p>
+     * The snapshot must be written in the current format, with the current column layout of the model,
+     * from a CSV file of the same size and modification time as the current one.
+     * </p>
+     *
+     * @param clazz the class representing the table
+     * @return {@code true} if the snapshot exists and is up to date, {@code false} otherwise
+     */
+    public boolean isSnapshotUpToDate(Class<? extends DataModel> clazz){
+        if(!Files.exists(getSnapshotPath(clazz))) return false;
+
+        try {
+            return openSnapshot(clazz) != null;
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Maps the binary snapshot of a table into memory and checks its header against the current CSV file.
+     * The rows follow the header: their number, then each row in the binary form of the codec of the table.
+     *
+     * @param clazz the class representing the table
+     * @return the content of the snapshot, positioned after the header,
+     *         or {@code null} if the snapshot is outdated or incompatible
+     * @throws IOException if the snapshot cannot be mapped, or the attributes of the CSV file cannot be read
+     */
+    public ByteBuffer openSnapshot(Class<? extends DataModel> clazz) throws IOException{
+        final ByteBuffer snapshot = mapSnapshot(getSnapshotPath(clazz));
+
+        try {
+            return isSnapshotHeaderValid(clazz, snapshot) ? snapshot : null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the header of a binary snapshot and checks it against the current CSV file of the table.
+     * The position of the snapshot is advanced past the header.
+     *
+     * @param clazz    the class representing the table
+     * @param snapshot the content of the snapshot
+     * @return {@code true} if the snapshot can be decoded as the content of the current CSV file
+     * @throws IOException if the attributes of the CSV file cannot be read
+     */
+    private boolean isSnapshotHeaderValid(Class<? extends DataModel> clazz, ByteBuffer snapshot) throws IOException{
+        final BasicFileAttributes attributes = Files.readAttributes(Paths.get(filePaths.get(clazz)), BasicFileAttributes.class);
+
+        return snapshot.getInt() == SNAPSHOT_MAGIC
+            && snapshot.getInt() == SNAPSHOT_VERSION
+            && snapshot.getInt() == codecs.get(clazz).getSchemaHash()
+            && snapshot.getLong() == attributes.size()
+            && snapshot.getLong() == attributes.lastModifiedTime().toMillis();
+    }
+
+    /**
+     * Maps a binary snapshot into memory, so that it can be decoded without copying it through streams.
+     *
+     * @param snapshotPath the path of the snapshot
+     * @return the read-only content of the snapshot
+     * @throws IOException if the snapshot cannot be mapped, e.g. if it is larger than 2GB
+     */
+    private ByteBuffer mapSnapshot(Path snapshotPath) throws IOException{
+        try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Writes the raw rows of a CSV file into the binary snapshot of its table.
+     * <p>
+     * The snapshot is written to a temporary file first, which then replaces the previous snapshot.
+     * As the snapshot only speeds up startup, a failure is ignored: the snapshot is then outdated,
+     * and the CSV file is loaded instead.
+     * </p>
+     *
+     * @param clazz      the class representing the table
+     * @param csvRows    the raw rows of the CSV file
+     * @param attributes the attributes of the CSV file the rows were read from
+     */
+    private void writeSnapshotQuietly(Class<? extends DataModel> clazz, List<List<String>> csvRows, BasicFileAttributes attributes){
+        final ModelCodec<?> codec = codecs.get(clazz);
+        final Path snapshotPath = getSnapshotPath(clazz);
+        final Path tempPath = Paths.get(snapshotPath + ".tmp");
+
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath), SNAPSHOT_BUFFER_SIZE))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeInt(codec.getSchemaHash());
+                out.writeLong(attributes.size());
+                out.writeLong(attributes.lastModifiedTime().toMillis());
+                out.writeInt(csvRows.size());
+
+                for(List<String> row:csvRows){
+                    codec.encodeBinary(row, out);
+                }
+            }
+
+            Files.move(tempPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(tempPath);
+            } catch (IOException ignored) {
+                // The temporary file is overwritten by the next snapshot.
+            }
+        }
+    }
+
+    /**
+     * Writes the records of several tables into the journal, followed by a commit record.
+     * <p>
+     * The journal is written through a temporary file which is then moved into place, so it is
+     * either complete or absent. Each record is prefixed by the name of its table.
+     * </p>
+     *
+     * @param records The records of each table, by primary key.
+     * @throws DataSavingException If the journal cannot be written, in which case nothing is committed.
+     */
+    public synchronized void writeJournal(Map<Class<? extends DataModel>, Map<String, List<String>>> records) throws DataSavingException{
+        final List<List<String>> lines = new ArrayList<>();
+
+        for(Entry<Class<? extends DataModel>, Map<String, List<String>>> tableRecords:records.entrySet()){
+            for(List<String> record:tableRecords.getValue().values()){
+                final List<String> line = new ArrayList<>(record.size() + 1);
+                line.add(tableRecords.getKey().getSimpleName());
+                line.addAll(record);
+                lines.add(line);
+            }
+        }
+        lines.add(List.of(COMMIT_RECORD, String.valueOf(lines.size())));
+
+        try {
+            CSVFileWriter.writeFile(JOURNAL_FILE_PATH, lines);
+        } catch (IOException e) {
+            throw new DataSavingException(e.getMessage());
+        }
+    }
+
+    /**
+     * Applies the journal, if any, to the change logs of its tables and removes it.
+     * <p>
+     * Each table of the journal is written with a single append. Applying a journal again after it was
+     * partially applied is harmless, since replaying the same records twice yields the same rows.
+     * An incomplete journal, without its commit record, is discarded.
+     * </p>
+     *
+     * @throws DataSavingException If the journal cannot be read or applied, in which case it is kept.
+     */
+    public synchronized void applyJournal() throws DataSavingException{
+        final Path journalPath = Paths.get(JOURNAL_FILE_PATH);
+        if(!Files.exists(journalPath)) return;
+
+        try {
+            final List<List<String>> lines = CSVFileReader.readFile(JOURNAL_FILE_PATH);
+
+            if(isJournalCommitted(lines)){
+                final Map<Class<? extends DataModel>, List<List<String>>> records = new LinkedHashMap<>();
+                for(List<String> line:lines.subList(0, lines.size() - 1)){
+                    records.computeIfAbsent(getTableByName(line.get(0)), _ -> new ArrayList<>()).add(line.subList(1, line.size()));
+                }
+
+                for(Entry<Class<? extends DataModel>, List<List<String>>> tableRecords:records.entrySet()){
+                    appendLog(tableRecords.getKey(), tableRecords.getValue());
+                }
+            }
+
+            Files.delete(journalPath);
+        } catch (IOException e) {
+            throw new DataSavingException(e.getMessage());
+        }
+    }
+
+    /**
+     * Checks whether a journal is complete, i.e. ends with a commit record counting all its records.
+     *
+     * @param lines The lines of the journal.
+     * @return {@code true} if the journal is complete
+     */
+    private boolean isJournalCommitted(List<List<String>> lines){
+        if(lines.isEmpty()) return false;
+
+        final List<String> commit = lines.get(lines.size() - 1);
+        return commit.size() == 2 && commit.get(0).equals(COMMIT_RECORD)
+            && commit.get(1).equals(String.valueOf(lines.size() - 1));
+    }
+
+    /**
+     * Finds a configured table by the simple name of its data model class.
+     *
+     * @param name The simple name of the class.
+     * @return the class representing the table
+     * @throws DataSavingException If no table has the name.
+     */
+    private Class<? extends DataModel> getTableByName(String name) throws DataSavingException{
+        for(Class<? extends DataModel> clazz:filePaths.keySet()){
+            if(clazz.getSimpleName().equals(name)) return clazz;
+        }
+
+        throw new DataSavingException("Unknown table in journal: %s".formatted(name));
+    }
+
+    /**
+     * Appends records to the change log of a table.
+     * <p>
+     * Appending only costs the size of the records, regardless of the size of the table.
+     * Once the change log grows beyond {@link #COMPACTION_THRESHOLD} records, it is
+     * compacted into the CSV file immediately.
+     * </p>
+     *
+     * @param clazz   The class type of the table.
+     * @param records The records to append.
+     * @throws DataSavingException If the records cannot be written.
+     */
+    public synchronized void appendLog(Class<? extends DataModel> clazz, List<List<String>> records) throws DataSavingException{
+        try {
+            CSVFileWriter.appendFile(getLogPath(clazz), records);
+        } catch (IOException e) {
+            throw new DataSavingException(e.getMessage());
+        }
+
+        if(logSizes.merge(clazz, records.size(), Integer::sum) >= COMPACTION_THRESHOLD){
+            try {
+                compact(clazz);
+            } catch (DataSavingException e) {
+                // The records are already persisted in the change log, compaction is retried later.
+            }
+        }
+    }
+
+    /**
+     * Compacts the change logs of all tables into their CSV files.
+     * A table that fails to compact keeps its change log and is retried by the next call.
+     */
+    public synchronized void compactAll(){
+        for(Class<? extends DataModel> clazz:filePaths.keySet()){
+            try {
+                compact(clazz);
+            } catch (DataSavingException e) {
+                // The change log is kept intact, compaction is retried in the next round.
+            }
+        }
+    }
+
+    /**
+     * Compacts the change log of a table into its CSV file.
+     * <p>
+     * The CSV file and the change log are merged on the file level, so the compacted
+     * file only contains persisted changes, regardless of any unsaved modification to the
+     * in-memory models. The CSV file is replaced before the change log is removed; replaying
+     * a change log on a file that already contains it yields the same rows.
+     * If enabled, the binary snapshot is rewritten from the compacted rows.
+     * </p>
+     *
+     * @param clazz The class type of the table to compact.
+     * @throws DataSavingException If any error occurs during reading or writing the files.
+     */
+    private synchronized void compact(Class<? extends DataModel> clazz) throws DataSavingException{
+        if(logSizes.getOrDefault(clazz, 0) == 0) return;
+
+        try {
+            List<List<String>> rawData = readTable(clazz);
+            CSVFileWriter.writeFile(filePaths.get(clazz), rawData);
+            if(isSnapshotEnabled){
+                writeSnapshotQuietly(clazz, rawData, Files.readAttributes(Paths.get(filePaths.get(clazz)), BasicFileAttributes.class));
+            }
+            Files.deleteIfExists(Paths.get(getLogPath(clazz)));
+            logSizes.put(clazz, 0);
+        } catch (Exception e) {
+            throw new DataSavingException(e.getMessage());
+        }
+    }
+}
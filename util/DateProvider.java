@@ -0,0 +1,98 @@
+package util;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Utility class providing the current date to the application.
+ * <p>
+ * The current date is computed once per day: it is cached together with the instant the next day starts,
+ * so reading it only compares the time of the clock against that boundary, instead of converting the time
+ * into a new date on every call. This makes it cheap enough to be called from comparators and filters.
+ * </p>
+ * <p>
+ * A unit of work, such as a command chosen from a menu, can be run with {@link #runOnFixedDate(Runnable)},
+ * so that all its checks agree on the same date even if it runs across midnight. In particular, sorting
+ * with a comparator depending on the current date stays consistent during the sort.
+ * </p>
+ */
+public class DateProvider {
+    /**
+     * A date, and the times in milliseconds between which it is the current date.
+     *
+     * @param date        the date
+     * @param startMillis the epoch time at which the date starts
+     * @param endMillis   the epoch time at which the next date starts
+     */
+    private record CachedDate(LocalDate date, long startMillis, long endMillis) {}
+
+    private static volatile Clock clock = Clock.systemDefaultZone();
+    private static volatile CachedDate cachedDate = new CachedDate(LocalDate.MIN, 0, 0);
+    private static final ThreadLocal<LocalDate> fixedDate = new ThreadLocal<>();
+
+    /**
+     * Returns the current date, or the date fixed by {@link #runOnFixedDate(Runnable)} on this thread.
+     *
+     * @return the current date
+     */
+    public static LocalDate today(){
+        final LocalDate date = fixedDate.get();
+        return date != null ? date : getCachedDate().date();
+    }
+
+    /**
+     * Runs a unit of work with the current date fixed, so that {@link #today()} returns the same date
+     * on this thread until the work completes. Nested calls keep the date fixed by the outermost call.
+     *
+     * @param work the work to run
+     */
+    public static void runOnFixedDate(Runnable work){
+        if(fixedDate.get() != null){
+            work.run();
+            return;
+        }
+
+        fixedDate.set(getCachedDate().date());
+        try {
+            work.run();
+        } finally {
+            fixedDate.remove();
+        }
+    }
+
+    /**
+     * Replaces the clock the current date is read from, for example to simulate another date.
+     *
+     * @param clock the new clock
+     */
+    public static void setClock(Clock clock){
+        DateProvider.clock = clock;
+        cachedDate = new CachedDate(LocalDate.MIN, 0, 0);
+    }
+
+    /**
+     * Retrieves the cached current date, computing it again if a day boundary has passed.
+     *
+     * @return the cached date
+     */
+    private static CachedDate getCachedDate(){
+        final Clock currentClock = clock;
+        final long millis = currentClock.millis();
+
+        CachedDate cached = cachedDate;
+        if(millis < cached.startMillis() || millis >= cached.endMillis()){
+            final ZoneId zone = currentClock.getZone();
+            final LocalDate date = LocalDate.ofInstant(Instant.ofEpochMilli(millis), zone);
+            cached = new CachedDate(
+                date,
+                date.atStartOfDay(zone).toInstant().toEpochMilli(),
+                date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli()
+            );
+            cachedDate = cached;
+        }
+
+        return cached;
+    }
+}
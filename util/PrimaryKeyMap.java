@@ -0,0 +1,309 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Map from primary keys to non-negative {@code int} values, such as row numbers, storing UUID keys in binary form.
+ * <p>
+ * A primary key in the canonical form of {@link UUID#toString()} is stored as its two 64-bit halves,
+ * next to its value, in an open-addressing hash table backed by a single {@code long} array, instead of as
+ * a 36-character string in a hash map node: 24 bytes per slot, at most three quarters of them used,
+ * rather than well over 100 bytes per key. A lookup parses the key once and then compares two longs
+ * in the same cache line as the value, instead of following a node and a string.
+ * Primary keys in any other form, such as user NRICs or project names, are kept as strings in a hash map,
+ * so the map accepts any key.
+ * </p>
+ * <p>
+ * UUID keys are only converted back to strings when the keys are listed.
+ * </p>
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ */
+public class PrimaryKeyMap {
+    /** Value returned for a missing key. */
+    public static final int NO_VALUE = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int UUID_LENGTH = 36;
+    /** Longs per slot: the two halves of the key, then the value plus one, {@code 0} for an empty slot. */
+    private static final int SLOT_WIDTH = 3;
+    /** Returned by {@link #find(String)} for a key that is not a canonical UUID. */
+    private static final int NOT_UUID = -2;
+    /** Positions of the 32 hexadecimal digits of a canonical UUID, around its dashes. */
+    private static final int[] DIGIT_POSITIONS = new int[32];
+    /** Value of each lowercase hexadecimal digit by character, {@code -1} for any other character. */
+    private static final byte[] HEX_DIGITS = new byte[128];
+
+    static {
+        Arrays.fill(HEX_DIGITS, (byte) -1);
+        for(int i = 0; i < 10; i++) HEX_DIGITS['0' + i] = (byte) i;
+        for(int i = 0; i < 6; i++) HEX_DIGITS['a' + i] = (byte) (10 + i);
+
+        for(int i = 0, position = 0; position < UUID_LENGTH; position++){
+            if(position != 8 && position != 13 && position != 18 && position != 23){
+                DIGIT_POSITIONS[i++] = position;
+            }
+        }
+    }
+
+    private long[] slots = new long[INITIAL_CAPACITY * SLOT_WIDTH];
+    private int capacity = INITIAL_CAPACITY;
+    private int uuidCount = 0;
+    private final Map<String, Integer> otherKeys = new HashMap<>();
+
+    /**
+     * Retrieves the value of a key.
+     *
+     * @param key the primary key
+     * @return the value of the key, or {@link #NO_VALUE} if the key is missing
+     */
+    public int get(String key){
+        final int slot = find(key);
+        if(slot == NOT_UUID) return otherKeys.getOrDefault(key, NO_VALUE);
+
+        return slot < 0 ? NO_VALUE : (int) slots[slot + 2] - 1;
+    }
+
+    /**
+     * Checks whether a key is in the map.
+     *
+     * @param key the primary key
+     * @return {@code true} if the key has a value
+     */
+    public boolean containsKey(String key){
+        return get(key) != NO_VALUE;
+    }
+
+    /**
+     * Associates a value with a key.
+     *
+     * @param key   the primary key
+     * @param value the value, not negative
+     * @return the previous value of the key, or {@link #NO_VALUE} if the key was missing
+     */
+    public int put(String key, int value){
+        final int existing = find(key);
+        if(existing == NOT_UUID){
+            final Integer previous = otherKeys.put(key, value);
+            return previous == null ? NO_VALUE : previous;
+        }
+        if(existing >= 0){
+            final int previous = (int) slots[existing + 2] - 1;
+            slots[existing + 2] = value + 1L;
+            return previous;
+        }
+
+        // Kept at most three quarters full, so that probe sequences stay short
+        if((uuidCount + 1) * 4L > capacity * 3L){
+            resize(capacity * 2);
+        }
+        insert(parseHex(key, 0), parseHex(key, 16), value + 1L);
+        uuidCount++;
+        return NO_VALUE;
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key the primary key
+     * @return the value of the key, or {@link #NO_VALUE} if the key was missing
+     */
+    public int remove(String key){
+        final int slot = find(key);
+        if(slot == NOT_UUID){
+            final Integer previous = otherKeys.remove(key);
+            return previous == null ? NO_VALUE : previous;
+        }
+        if(slot < 0) return NO_VALUE;
+
+        final int previous = (int) slots[slot + 2] - 1;
+        final int mask = capacity - 1;
+
+        // Backward-shift deletion: moves later entries of the probe sequence into the gap, so no tombstone is left
+        int index = slot / SLOT_WIDTH;
+        int next = (index + 1) & mask;
+        while(slots[next * SLOT_WIDTH + 2] != 0){
+            final int nextSlot = next * SLOT_WIDTH;
+            final int home = hash(slots[nextSlot], slots[nextSlot + 1]) & mask;
+            if(((next - home) & mask) >= ((next - index) & mask)){
+                System.arraycopy(slots, nextSlot, slots, index * SLOT_WIDTH, SLOT_WIDTH);
+                index = next;
+            }
+            next = (next + 1) & mask;
+        }
+        slots[index * SLOT_WIDTH + 2] = 0;
+        uuidCount--;
+
+        return previous;
+    }
+
+    /**
+     * Returns the number of keys in the map.
+     *
+     * @return the number of keys
+     */
+    public int size(){
+        return uuidCount + otherKeys.size();
+    }
+
+    /**
+     * Lists the keys of the map, converting the UUID keys back to strings.
+     *
+     * @return a new list of the keys, in no particular order
+     */
+    public List<String> keys(){
+        final List<String> keys = new ArrayList<>(size());
+        forEach((key, _) -> keys.add(key));
+        return keys;
+    }
+
+    /**
+     * Performs an action for every key and its value, converting the UUID keys back to strings.
+     *
+     * @param action the action, given each key and its value, in no particular order
+     */
+    public void forEach(ObjIntConsumer<String> action){
+        for(int slot = 0; slot < slots.length; slot += SLOT_WIDTH){
+            if(slots[slot + 2] != 0){
+                action.accept(new UUID(slots[slot], slots[slot + 1]).toString(), (int) slots[slot + 2] - 1);
+            }
+        }
+        otherKeys.forEach(action::accept);
+    }
+
+    /**
+     * Finds the slot of a key, parsing and checking it in a single pass.
+     * Only a UUID in the canonical form of {@link UUID#toString()}, with lowercase digits, is stored
+     * in binary form, so that converting it back to a string gives the same key.
+     *
+     * @param key the primary key
+     * @return the index in {@link #slots} of the slot of the key, {@code -1} if the key is missing,
+     *         or {@link #NOT_UUID} if the key cannot be stored in binary form
+     */
+    private int find(String key){
+        if(key == null || key.length() != UUID_LENGTH) return NOT_UUID;
+        if(key.charAt(8) != '-' || key.charAt(13) != '-' || key.charAt(18) != '-' || key.charAt(23) != '-') return NOT_UUID;
+
+        long high = 0;
+        long low = 0;
+        int digits = 0;
+        for(int i = 0; i < 16; i++){
+            final int digit = digit(key.charAt(DIGIT_POSITIONS[i]));
+            digits |= digit;
+            high = high << 4 | digit;
+        }
+        for(int i = 16; i < 32; i++){
+            final int digit = digit(key.charAt(DIGIT_POSITIONS[i]));
+            digits |= digit;
+            low = low << 4 | digit;
+        }
+        if(digits < 0) return NOT_UUID;
+
+        return find(high, low);
+    }
+
+    /**
+     * Finds the slot of a UUID key.
+     *
+     * @param high the most significant half of the key
+     * @param low  the least significant half of the key
+     * @return the index in {@link #slots} of the slot of the key, or {@code -1} if the key is missing
+     */
+    private int find(long high, long low){
+        final int mask = capacity - 1;
+
+        for(int index = hash(high, low) & mask; ; index = (index + 1) & mask){
+            final int slot = index * SLOT_WIDTH;
+            if(slots[slot + 2] == 0) return -1;
+            if(slots[slot] == high && slots[slot + 1] == low) return slot;
+        }
+    }
+
+    /**
+     * Inserts a UUID key known to be missing, with linear probing.
+     *
+     * @param high   the most significant half of the key
+     * @param low    the least significant half of the key
+     * @param stored the value of the key plus one
+     */
+    private void insert(long high, long low, long stored){
+        final int mask = capacity - 1;
+
+        int index = hash(high, low) & mask;
+        while(slots[index * SLOT_WIDTH + 2] != 0){
+            index = (index + 1) & mask;
+        }
+        final int slot = index * SLOT_WIDTH;
+        slots[slot] = high;
+        slots[slot + 1] = low;
+        slots[slot + 2] = stored;
+    }
+
+    /**
+     * Moves all UUID keys into a table of a new capacity.
+     *
+     * @param newCapacity the new number of slots, a power of two
+     */
+    private void resize(int newCapacity){
+        final long[] oldSlots = slots;
+
+        slots = new long[newCapacity * SLOT_WIDTH];
+        capacity = newCapacity;
+        for(int slot = 0; slot < oldSlots.length; slot += SLOT_WIDTH){
+            if(oldSlots[slot + 2] != 0){
+                insert(oldSlots[slot], oldSlots[slot + 1], oldSlots[slot + 2]);
+            }
+        }
+    }
+
+    /**
+     * Mixes the halves of a UUID key into a hash, using the finalizer of MurmurHash3.
+     *
+     * @param high the most significant half of the key
+     * @param low  the least significant half of the key
+     * @return the hash of the key
+     */
+    private static int hash(long high, long low){
+        long h = high ^ Long.rotateLeft(low, 32);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    /**
+     * Returns the value of a lowercase hexadecimal digit.
+     *
+     * @param c the character
+     * @return the value of the digit, or {@code -1} if the character is not a digit
+     */
+    private static int digit(char c){
+        return c < HEX_DIGITS.length ? HEX_DIGITS[c] : -1;
+    }
+
+    /**
+     * Parses one half of a canonical UUID, checked by {@link #find(String)}.
+     *
+     * @param key   the primary key
+     * @param first the index in {@link #DIGIT_POSITIONS} of the first digit of the half
+     * @return the value of the 16 digits of the half
+     */
+    private static long parseHex(String key, int first){
+        long value = 0;
+
+        for(int i = first; i < first + 16; i++){
+            value = value << 4 | HEX_DIGITS[key.charAt(DIGIT_POSITIONS[i])];
+        }
+
+        return value;
+    }
+}
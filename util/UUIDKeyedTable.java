@@ -0,0 +1,189 @@
+package util;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import model.DataModel;
+
+/**
+ * A table of {@link DataModel} records keyed by UUID primary keys, exposed as a map from primary key to record.
+ * <p>
+ * Records are stored in an array, and their primary keys are mapped to their position by a {@link PrimaryKeyMap},
+ * which stores UUID keys as two longs instead of strings. Unlike a hash map, the table allocates no entry
+ * per record, and keeps no string form of the keys: records keyed by a {@link java.util.UUID} only convert
+ * it to a string when their primary key is read, and scanning the records through {@link #values()}
+ * reads no primary key at all.
+ * </p>
+ * <p>
+ * Primary keys that are not UUIDs are accepted as well, and looked up as strings.
+ * Iterating over the table while it is updated does not fail, but may or may not include the records updated.
+ * </p>
+ *
+ * @see PrimaryKeyMap
+ */
+public class UUIDKeyedTable extends AbstractMap<String, DataModel> {
+    private final PrimaryKeyMap positions = new PrimaryKeyMap();
+    private final Deque<Integer> freePositions = new ArrayDeque<>();
+    private DataModel[] records;
+    private int recordCount = 0;
+
+    /**
+     * Constructs an empty table.
+     *
+     * @param expectedSize the number of records expected in the table
+     */
+    public UUIDKeyedTable(int expectedSize){
+        this.records = new DataModel[Math.max(expectedSize, 16)];
+    }
+
+    @Override
+    public DataModel get(Object key){
+        if(!(key instanceof String PK)) return null;
+
+        final int position = positions.get(PK);
+        return position == PrimaryKeyMap.NO_VALUE ? null : records[position];
+    }
+
+    @Override
+    public boolean containsKey(Object key){
+        return key instanceof String PK && positions.containsKey(PK);
+    }
+
+    @Override
+    public int size(){
+        return positions.size();
+    }
+
+    @Override
+    public DataModel put(String key, DataModel value){
+        int position = positions.get(key);
+        if(position != PrimaryKeyMap.NO_VALUE){
+            final DataModel previous = records[position];
+            records[position] = value;
+            return previous;
+        }
+
+        if(!freePositions.isEmpty()){
+            position = freePositions.pop();
+        }
+        else{
+            if(recordCount == records.length){
+                records = Arrays.copyOf(records, records.length * 2);
+            }
+            position = recordCount++;
+        }
+        records[position] = value;
+        positions.put(key, position);
+        return null;
+    }
+
+    @Override
+    public DataModel remove(Object key){
+        if(!(key instanceof String PK)) return null;
+
+        final int position = positions.remove(PK);
+        if(position == PrimaryKeyMap.NO_VALUE) return null;
+
+        final DataModel previous = records[position];
+        records[position] = null;
+        freePositions.push(position);
+        return previous;
+    }
+
+    @Override
+    public void clear(){
+        for(String key:positions.keys()){
+            remove(key);
+        }
+    }
+
+    /**
+     * Returns the records of the table, read without converting their primary keys to strings.
+     *
+     * @return a view of the records of the table
+     */
+    @Override
+    public Collection<DataModel> values(){
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<DataModel> iterator(){
+                return recordIterator();
+            }
+
+            @Override
+            public int size(){
+                return positions.size();
+            }
+        };
+    }
+
+    /**
+     * Returns the entries of the table, keyed by the primary key held by each record.
+     *
+     * @return a view of the entries of the table
+     */
+    @Override
+    public Set<Entry<String, DataModel>> entrySet(){
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, DataModel>> iterator(){
+                final Iterator<DataModel> records = recordIterator();
+
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext(){
+                        return records.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, DataModel> next(){
+                        final DataModel record = records.next();
+                        return new SimpleImmutableEntry<>(record.getPK(), record);
+                    }
+                };
+            }
+
+            @Override
+            public int size(){
+                return positions.size();
+            }
+        };
+    }
+
+    /**
+     * Iterates over the records stored when the iteration started, skipping free positions.
+     *
+     * @return an iterator over the records
+     */
+    private Iterator<DataModel> recordIterator(){
+        final DataModel[] snapshot = records;
+        final int count = Math.min(recordCount, snapshot.length);
+
+        return new Iterator<>() {
+            private int position = 0;
+
+            @Override
+            public boolean hasNext(){
+                while(position < count && snapshot[position] == null){
+                    position++;
+                }
+                return position < count;
+            }
+
+            @Override
+            public DataModel next(){
+                if(!hasNext()) throw new NoSuchElementException();
+
+                return snapshot[position++];
+            }
+        };
+    }
+}
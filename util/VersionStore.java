@@ -0,0 +1,114 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Committed versions of the records of a table, so that a table can be read as it was at a given commit
+ * without locking it.
+ * <p>
+ * Each record has a chain of versions, newest first, each numbered by the commit that wrote it; a deleted
+ * record ends with a version holding no record. Reading at a commit returns, for every record, the newest
+ * version numbered at most that commit. Versions are never modified once published, and are linked through
+ * a concurrent map and volatile references, so readers never wait for the writer publishing new versions.
+ * </p>
+ * <p>
+ * Older versions are unlinked as soon as no reader can need them: when a new version of a record is published,
+ * its chain is cut after the newest version visible to the oldest reader. {@link #prune(long)} does the same
+ * for every record, including those deleted while a reader needed them.
+ * </p>
+ * <p>
+ * Readers are thread-safe, but versions must be published by one thread at a time.
+ * </p>
+ *
+ * @param <T> the type of the records
+ */
+public class VersionStore<T> {
+    /**
+     * One version of a record.
+     *
+     * @param <T> the type of the record
+     */
+    private static final class Version<T> {
+        private final long number;
+        private final T record;
+        private volatile Version<T> previous;
+
+        private Version(long number, T record, Version<T> previous){
+            this.number = number;
+            this.record = record;
+            this.previous = previous;
+        }
+    }
+
+    private final Map<String, Version<T>> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Publishes a new version of a record, not visible to readers before the commit numbered by it.
+     *
+     * @param key          the primary key of the record
+     * @param record       the record as committed, never modified afterwards, or {@code null} if the record is deleted
+     * @param number       the number of the commit, greater than that of any version already published
+     * @param oldestReader the number of the commit read by the oldest reader, or of the last commit if there is no reader
+     */
+    public void publish(String key, T record, long number, long oldestReader){
+        final Version<T> version = new Version<>(number, record, versions.get(key));
+        versions.put(key, version);
+        prune(key, version, oldestReader);
+    }
+
+    /**
+     * Unlinks the versions of every record that no reader can need any more.
+     *
+     * @param oldestReader the number of the commit read by the oldest reader, or of the last commit if there is no reader
+     */
+    public void prune(long oldestReader){
+        versions.forEach((key, version) -> prune(key, version, oldestReader));
+    }
+
+    /**
+     * Retrieves the records matching a predicate as they were at a commit.
+     *
+     * @param number    the number of the commit
+     * @param predicate the predicate the records must satisfy
+     * @return the matching records, in no particular order, which must not be modified
+     */
+    public List<T> read(long number, Predicate<? super T> predicate){
+        final List<T> records = new ArrayList<>();
+
+        for(Version<T> version:versions.values()){
+            while(version != null && version.number > number){
+                version = version.previous;
+            }
+            if(version != null && version.record != null && predicate.test(version.record)){
+                records.add(version.record);
+            }
+        }
+
+        return records;
+    }
+
+    /**
+     * Cuts the chain of a record after the newest version visible to the oldest reader,
+     * and removes the record entirely if that version is its deletion.
+     *
+     * @param key          the primary key of the record
+     * @param head         the newest version of the record
+     * @param oldestReader the number of the commit read by the oldest reader
+     */
+    private void prune(String key, Version<T> head, long oldestReader){
+        Version<T> version = head;
+        while(version != null && version.number > oldestReader){
+            version = version.previous;
+        }
+        if(version == null) return;
+
+        version.previous = null;
+        if(version == head && head.record == null){
+            versions.remove(key, head);
+        }
+    }
+}